@@ -0,0 +1,91 @@
+package com.hydra.framework.event.benchmark;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.EventDispatcher;
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.core.EventReceiver;
+import com.hydra.framework.event.core.IEventThread;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Created by Hydra.
+ * 一次通知，receivers个receiver都声明在同一个handler线程上，测从通知到所有receiver都执行完的时间
+ * <p>
+ * 通知完再往同一个线程post一个信号，线程是FIFO的，信号执行时所有receiver都已经执行完了
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AsyncFanOutBenchmark {
+
+    @Param({"50"})
+    public int receivers;
+
+    private HandlerThread mHandlerThread;
+
+    private Handler mHandler;
+
+    private final Semaphore mDelivered = new Semaphore(0);
+
+    private final Runnable mSignal = mDelivered::release;
+
+    private EventDispatcher mDispatcher;
+
+    private EventAction mAction;
+
+    private BenchEventTarget[] mTargets;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mHandlerThread = new HandlerThread("AsyncFanOutBenchmark", 0);
+        mHandlerThread.start();
+
+        mHandler = new Handler(mHandlerThread.getLooper());
+
+        IEventThread thread = r -> mHandler.post(r);
+
+        mDispatcher = new EventDispatcher();
+        mAction = new EventAction("AsyncFanOutBenchmark");
+
+        mTargets = new BenchEventTarget[receivers];
+
+        for (int i = 0; i < receivers; i++) {
+            mTargets[i] = new BenchEventTarget();
+
+            mDispatcher.addBinding(mAction, new EventReceiver(mTargets[i], BenchEventTarget.ON_EVENT, thread,
+                    EventReceiver.DEFAULT_EVENT_RECEIVER_PRIORITY, 0));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mHandlerThread.getLooper().quitSafely();
+    }
+
+    @Benchmark
+    public EventIntent notifyAndWait() throws InterruptedException {
+        EventIntent intent = new EventIntent(null, mAction, false);
+
+        mDispatcher.notifyEvent(intent);
+
+        mHandler.post(mSignal);
+        mDelivered.acquire();
+
+        return intent;
+    }
+}
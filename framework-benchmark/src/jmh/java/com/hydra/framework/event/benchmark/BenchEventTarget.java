@@ -0,0 +1,27 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.EventIntent;
+import java.lang.reflect.Method;
+
+/**
+ * Created by Hydra.
+ * 直接用EventDispatcher测试时的接收者
+ */
+public class BenchEventTarget {
+
+    public static final Method ON_EVENT;
+
+    static {
+        try {
+            ON_EVENT = BenchEventTarget.class.getMethod("onEvent", EventIntent.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int hits;
+
+    public void onEvent(EventIntent intent) {
+        hits++;
+    }
+}
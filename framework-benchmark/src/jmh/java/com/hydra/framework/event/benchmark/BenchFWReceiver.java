@@ -0,0 +1,24 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.fw.FWEventActionKey;
+import com.hydra.framework.event.fw.FWEventAnnotation;
+
+/**
+ * Created by Hydra.
+ * benchmark用的FWEvent接收者，Login_Success是普通的intent，NetState_Changed走intent对象池
+ */
+public class BenchFWReceiver {
+
+    public int hits;
+
+    @FWEventAnnotation(name = FWEventActionKey.FWAction_On_Login_Success)
+    public void onLoginSuccess(EventIntent intent) {
+        hits++;
+    }
+
+    @FWEventAnnotation(name = FWEventActionKey.FWAction_On_NetState_Changed)
+    public void onNetStateChanged(EventIntent intent) {
+        hits++;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+
+/**
+ * Created by Hydra.
+ * benchmark用的kvo接收者，接收函数里只做计数，测的是框架本身的开销
+ */
+public class BenchKvoReceiver {
+
+    public int hits;
+
+    @KvoMethodAnnotation(name = BenchKvoSource.KVO_VALUE, sourceClass = BenchKvoSource.class)
+    public void onValueChanged(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchKvoSource.KVO_LIST, sourceClass = BenchKvoSource.class)
+    public void onListChanged(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchKvoSource.KVO_MAP, sourceClass = BenchKvoSource.class)
+    public void onMapChanged(KvoEventIntent intent) {
+        hits++;
+    }
+}
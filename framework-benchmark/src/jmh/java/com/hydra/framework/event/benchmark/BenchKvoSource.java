@@ -0,0 +1,26 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.kvo.KvoFieldAnnotation;
+import com.hydra.framework.event.kvo.KvoSource;
+import com.hydra.framework.event.kvo.list.KvoList;
+import com.hydra.framework.event.kvo.map.KvoHashMap;
+
+/**
+ * Created by Hydra.
+ * benchmark用的数据源
+ */
+public class BenchKvoSource extends KvoSource {
+
+    public static final String KVO_VALUE = "value";
+    public static final String KVO_LIST = "list";
+    public static final String KVO_MAP = "map";
+
+    @KvoFieldAnnotation(name = KVO_VALUE)
+    public Integer value = 0;
+
+    @KvoFieldAnnotation(name = KVO_LIST)
+    public final KvoList<Integer> list = new KvoList<>(this, KVO_LIST);
+
+    @KvoFieldAnnotation(name = KVO_MAP)
+    public final KvoHashMap<Integer, Integer> map = new KvoHashMap<>(this, KVO_MAP);
+}
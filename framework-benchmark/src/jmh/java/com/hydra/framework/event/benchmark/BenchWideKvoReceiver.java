@@ -0,0 +1,163 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+
+/**
+ * Created by Hydra.
+ * BenchWideKvoSource的接收者，每个field一个接收函数
+ */
+public class BenchWideKvoReceiver {
+
+    public int hits;
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F0, sourceClass = BenchWideKvoSource.class)
+    public void onF0Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F1, sourceClass = BenchWideKvoSource.class)
+    public void onF1Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F2, sourceClass = BenchWideKvoSource.class)
+    public void onF2Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F3, sourceClass = BenchWideKvoSource.class)
+    public void onF3Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F4, sourceClass = BenchWideKvoSource.class)
+    public void onF4Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F5, sourceClass = BenchWideKvoSource.class)
+    public void onF5Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F6, sourceClass = BenchWideKvoSource.class)
+    public void onF6Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F7, sourceClass = BenchWideKvoSource.class)
+    public void onF7Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F8, sourceClass = BenchWideKvoSource.class)
+    public void onF8Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F9, sourceClass = BenchWideKvoSource.class)
+    public void onF9Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F10, sourceClass = BenchWideKvoSource.class)
+    public void onF10Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F11, sourceClass = BenchWideKvoSource.class)
+    public void onF11Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F12, sourceClass = BenchWideKvoSource.class)
+    public void onF12Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F13, sourceClass = BenchWideKvoSource.class)
+    public void onF13Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F14, sourceClass = BenchWideKvoSource.class)
+    public void onF14Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F15, sourceClass = BenchWideKvoSource.class)
+    public void onF15Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F16, sourceClass = BenchWideKvoSource.class)
+    public void onF16Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F17, sourceClass = BenchWideKvoSource.class)
+    public void onF17Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F18, sourceClass = BenchWideKvoSource.class)
+    public void onF18Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F19, sourceClass = BenchWideKvoSource.class)
+    public void onF19Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F20, sourceClass = BenchWideKvoSource.class)
+    public void onF20Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F21, sourceClass = BenchWideKvoSource.class)
+    public void onF21Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F22, sourceClass = BenchWideKvoSource.class)
+    public void onF22Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F23, sourceClass = BenchWideKvoSource.class)
+    public void onF23Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F24, sourceClass = BenchWideKvoSource.class)
+    public void onF24Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F25, sourceClass = BenchWideKvoSource.class)
+    public void onF25Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F26, sourceClass = BenchWideKvoSource.class)
+    public void onF26Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F27, sourceClass = BenchWideKvoSource.class)
+    public void onF27Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F28, sourceClass = BenchWideKvoSource.class)
+    public void onF28Changed(KvoEventIntent intent) {
+        hits++;
+    }
+
+    @KvoMethodAnnotation(name = BenchWideKvoSource.KVO_F29, sourceClass = BenchWideKvoSource.class)
+    public void onF29Changed(KvoEventIntent intent) {
+        hits++;
+    }
+}
@@ -0,0 +1,134 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.kvo.KvoFieldAnnotation;
+import com.hydra.framework.event.kvo.KvoSource;
+
+/**
+ * Created by Hydra.
+ * benchmark用的有30个field的数据源，模拟一个页面绑定很多字段的情况
+ */
+public class BenchWideKvoSource extends KvoSource {
+
+    public static final int FIELD_COUNT = 30;
+
+    public static final String KVO_F0 = "f0";
+    public static final String KVO_F1 = "f1";
+    public static final String KVO_F2 = "f2";
+    public static final String KVO_F3 = "f3";
+    public static final String KVO_F4 = "f4";
+    public static final String KVO_F5 = "f5";
+    public static final String KVO_F6 = "f6";
+    public static final String KVO_F7 = "f7";
+    public static final String KVO_F8 = "f8";
+    public static final String KVO_F9 = "f9";
+    public static final String KVO_F10 = "f10";
+    public static final String KVO_F11 = "f11";
+    public static final String KVO_F12 = "f12";
+    public static final String KVO_F13 = "f13";
+    public static final String KVO_F14 = "f14";
+    public static final String KVO_F15 = "f15";
+    public static final String KVO_F16 = "f16";
+    public static final String KVO_F17 = "f17";
+    public static final String KVO_F18 = "f18";
+    public static final String KVO_F19 = "f19";
+    public static final String KVO_F20 = "f20";
+    public static final String KVO_F21 = "f21";
+    public static final String KVO_F22 = "f22";
+    public static final String KVO_F23 = "f23";
+    public static final String KVO_F24 = "f24";
+    public static final String KVO_F25 = "f25";
+    public static final String KVO_F26 = "f26";
+    public static final String KVO_F27 = "f27";
+    public static final String KVO_F28 = "f28";
+    public static final String KVO_F29 = "f29";
+
+    @KvoFieldAnnotation(name = KVO_F0)
+    public Integer f0 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F1)
+    public Integer f1 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F2)
+    public Integer f2 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F3)
+    public Integer f3 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F4)
+    public Integer f4 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F5)
+    public Integer f5 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F6)
+    public Integer f6 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F7)
+    public Integer f7 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F8)
+    public Integer f8 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F9)
+    public Integer f9 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F10)
+    public Integer f10 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F11)
+    public Integer f11 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F12)
+    public Integer f12 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F13)
+    public Integer f13 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F14)
+    public Integer f14 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F15)
+    public Integer f15 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F16)
+    public Integer f16 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F17)
+    public Integer f17 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F18)
+    public Integer f18 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F19)
+    public Integer f19 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F20)
+    public Integer f20 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F21)
+    public Integer f21 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F22)
+    public Integer f22 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F23)
+    public Integer f23 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F24)
+    public Integer f24 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F25)
+    public Integer f25 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F26)
+    public Integer f26 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F27)
+    public Integer f27 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F28)
+    public Integer f28 = 0;
+
+    @KvoFieldAnnotation(name = KVO_F29)
+    public Integer f29 = 0;
+}
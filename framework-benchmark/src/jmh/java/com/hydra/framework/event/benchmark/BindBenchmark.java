@@ -0,0 +1,98 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.EventReceiver;
+import com.hydra.framework.event.kvo.Kvo;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+import com.hydra.framework.event.utils.EventUtils;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * 一个receiver绑定再解绑一个30个field的KvoSource，每次绑定都会有30次kvo的初始通知
+ * <p>
+ * autoBindUnbind走Kvo.autoBindingTo/autoUnbindingFrom(批量接口)，包含了构造receiver的开销；
+ * bulkBindUnbind和oneByOneBindUnbind用同一批构造好的receiver，只比较addBindings/removeBindings和逐个addBinding/removeBinding，
+ * 初始通知是KvoEventReceiverList发的，和receiver的类型无关
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BindBenchmark {
+
+    private BenchWideKvoSource mSource;
+
+    private BenchWideKvoReceiver mReceiver;
+
+    private EventAction[] mActions;
+
+    private EventReceiver[] mEventReceivers;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mSource = new BenchWideKvoSource();
+        mReceiver = new BenchWideKvoReceiver();
+
+        //先走一次，把方法扫描的缓存建好
+        Kvo.autoBindingTo(mSource, mReceiver);
+        Kvo.autoUnbindingFrom(mSource, mReceiver);
+
+        mActions = new EventAction[BenchWideKvoSource.FIELD_COUNT];
+        mEventReceivers = new EventReceiver[BenchWideKvoSource.FIELD_COUNT];
+
+        int count = 0;
+
+        for (Method method : BenchWideKvoReceiver.class.getDeclaredMethods()) {
+            KvoMethodAnnotation annotation = method.getAnnotation(KvoMethodAnnotation.class);
+
+            if (annotation == null) {
+                continue;
+            }
+
+            mActions[count] = mSource.declaredKvoField(annotation.name()).eventAction;
+            mEventReceivers[count] = new EventReceiver(mReceiver, method, null,
+                    annotation.priority(), annotation.flag());
+
+            count++;
+        }
+    }
+
+    @Benchmark
+    public BenchWideKvoReceiver autoBindUnbind() {
+        Kvo.autoBindingTo(mSource, mReceiver);
+        Kvo.autoUnbindingFrom(mSource, mReceiver);
+
+        return mReceiver;
+    }
+
+    @Benchmark
+    public BenchWideKvoReceiver bulkBindUnbind() {
+        mSource.addBindings(mActions, mEventReceivers);
+        mSource.removeBindings(mActions, mEventReceivers);
+
+        return mReceiver;
+    }
+
+    @Benchmark
+    public BenchWideKvoReceiver oneByOneBindUnbind() {
+        for (int i = 0; i < mActions.length; i++) {
+            mSource.addBinding(mActions[i], mEventReceivers[i]);
+        }
+
+        for (int i = 0; i < mActions.length; i++) {
+            mSource.removeBinding(mActions[i], mEventReceivers[i]);
+        }
+
+        return mReceiver;
+    }
+}
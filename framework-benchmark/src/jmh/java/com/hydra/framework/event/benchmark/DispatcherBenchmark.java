@@ -0,0 +1,81 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.EventDispatcher;
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.core.EventReceiver;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * EventDispatcher的addBinding/removeBinding/notifyEvent，receiver都是同步的
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DispatcherBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int receivers;
+
+    private EventDispatcher mDispatcher;
+
+    private EventAction mAction;
+
+    //receiver里的target是弱引用，这里要持有
+    private BenchEventTarget[] mTargets;
+
+    private BenchEventTarget mExtraTarget;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mDispatcher = new EventDispatcher();
+        mAction = new EventAction("DispatcherBenchmark");
+
+        mTargets = new BenchEventTarget[receivers];
+
+        for (int i = 0; i < receivers; i++) {
+            mTargets[i] = new BenchEventTarget();
+
+            mDispatcher.addBinding(mAction, newReceiver(mTargets[i]));
+        }
+
+        mExtraTarget = new BenchEventTarget();
+    }
+
+    /**
+     * 在已经有receivers个receiver的action上，绑定再解绑一个receiver
+     */
+    @Benchmark
+    public EventDispatcher addRemoveBinding() {
+        mDispatcher.addBinding(mAction, newReceiver(mExtraTarget));
+        mDispatcher.removeBinding(mAction, newReceiver(mExtraTarget));
+
+        return mDispatcher;
+    }
+
+    @Benchmark
+    public EventIntent notifyEvent() {
+        EventIntent intent = new EventIntent(null, mAction, false);
+
+        mDispatcher.notifyEvent(intent);
+
+        return intent;
+    }
+
+    private static EventReceiver newReceiver(BenchEventTarget target) {
+        return new EventReceiver(target, BenchEventTarget.ON_EVENT, null,
+                EventReceiver.DEFAULT_EVENT_RECEIVER_PRIORITY, 0);
+    }
+}
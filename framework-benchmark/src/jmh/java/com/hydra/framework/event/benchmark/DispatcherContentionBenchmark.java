@@ -0,0 +1,96 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.EventDispatcher;
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.core.EventReceiver;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Created by Hydra.
+ * 多个线程同时往一个dispatcher上发事件，看派发路径在竞争下的伸缩性
+ * <p>
+ * notifyEvent默认4个线程，可以用 -t 1/2/4/8 跑出扩展曲线；
+ * mixed组是3个线程发事件的同时，1个线程不停地绑定解绑
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatcherContentionBenchmark {
+
+    private static final int RECEIVERS = 10;
+
+    private EventDispatcher mDispatcher;
+
+    private EventAction mAction;
+
+    private BenchEventTarget[] mTargets;
+
+    @State(Scope.Thread)
+    public static class BinderState {
+        BenchEventTarget target = new BenchEventTarget();
+    }
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mDispatcher = new EventDispatcher();
+        mAction = new EventAction("DispatcherContentionBenchmark");
+
+        mTargets = new BenchEventTarget[RECEIVERS];
+
+        for (int i = 0; i < RECEIVERS; i++) {
+            mTargets[i] = new BenchEventTarget();
+
+            mDispatcher.addBinding(mAction, newReceiver(mTargets[i]));
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public EventIntent notifyEvent() {
+        return notifyOnce();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public EventIntent mixedNotify() {
+        return notifyOnce();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public EventDispatcher mixedAddRemove(BinderState state) {
+        mDispatcher.addBinding(mAction, newReceiver(state.target));
+        mDispatcher.removeBinding(mAction, newReceiver(state.target));
+
+        return mDispatcher;
+    }
+
+    private EventIntent notifyOnce() {
+        EventIntent intent = new EventIntent(null, mAction, false);
+
+        mDispatcher.notifyEvent(intent);
+
+        return intent;
+    }
+
+    private static EventReceiver newReceiver(BenchEventTarget target) {
+        return new EventReceiver(target, BenchEventTarget.ON_EVENT, null,
+                EventReceiver.DEFAULT_EVENT_RECEIVER_PRIORITY, 0);
+    }
+}
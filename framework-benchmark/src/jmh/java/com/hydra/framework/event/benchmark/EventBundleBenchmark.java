@@ -0,0 +1,42 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.EventBundle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Created by Hydra.
+ * 一个intent的典型参数：两个不带key的参数 + 两个带key的参数，再按key和下标各读一次
+ * <p>
+ * 主要看gc profiler里每个bundle的分配字节数(gc.alloc.rate.norm)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventBundleBenchmark {
+
+    private static final String KEY_TYPE = "type";
+    private static final String KEY_RANGE = "range";
+
+    private final Integer mArg = 1000;
+
+    private final Object mValue = new Object();
+
+    @Benchmark
+    public void buildAndRead(Blackhole blackhole) {
+        EventBundle bundle = new EventBundle();
+
+        bundle.addArgs(mArg, mValue);
+        bundle.putArg(KEY_TYPE, mArg);
+        bundle.putArg(KEY_RANGE, mValue);
+
+        blackhole.consume(bundle.<Object>getArgWithKey(KEY_RANGE));
+        blackhole.consume(bundle.<Object>getArgWithIndex(1));
+    }
+}
@@ -0,0 +1,60 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.fw.FWEvent;
+import com.hydra.framework.event.fw.FWEventActionKey;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Created by Hydra.
+ * FWEvent.sendEvent，一个同步receiver，两个参数
+ * <p>
+ * sendEvent是普通的EventIntent，sendRecyclableEvent的action是recyclable的，走EventIntent的对象池，
+ * 两者的差别主要看gc profiler里的gc.alloc.rate.norm
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FWEventBenchmark {
+
+    private static final Integer ARG_0 = 1000;
+    private static final String ARG_1 = "arg";
+
+    private BenchFWReceiver mReceiver;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mReceiver = new BenchFWReceiver();
+
+        FWEvent.autoBindingEvent(mReceiver);
+    }
+
+    @TearDown
+    public void tearDown() {
+        FWEvent.autoRemoveEvent(mReceiver);
+    }
+
+    @Benchmark
+    public BenchFWReceiver sendEvent() {
+        FWEvent.sendEvent(null, FWEventActionKey.FWAction_On_Login_Success, ARG_0, ARG_1);
+
+        return mReceiver;
+    }
+
+    @Benchmark
+    public BenchFWReceiver sendRecyclableEvent() {
+        FWEvent.sendEvent(null, FWEventActionKey.FWAction_On_NetState_Changed, ARG_0, ARG_1);
+
+        return mReceiver;
+    }
+}
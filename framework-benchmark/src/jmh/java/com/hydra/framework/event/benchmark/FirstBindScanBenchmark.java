@@ -0,0 +1,94 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.helper.EventClassIndex;
+import com.hydra.framework.event.core.helper.EventClassIndex.FieldEntry;
+import com.hydra.framework.event.core.helper.EventClassIndex.MethodEntry;
+import com.hydra.framework.event.core.helper.EventHelper;
+import com.hydra.framework.event.kvo.KvoFieldAnnotation;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Created by Hydra.
+ * KvoHelper第一次绑定时的扫描：receiver的接收函数 + source的kvo field
+ * <p>
+ * KvoHelper会按class缓存扫描结果，所以这里直接测不带缓存的那一段：
+ * reflectionScan 和 KvoHelper没有索引时一样，遍历继承链再挨个取注解；
+ * indexScan 和有索引时一样，新建一个索引对象，按名字取用到的Method/Field
+ * <p>
+ * 注意JVM自己会缓存getDeclaredMethods的结果，这里测的是稳定状态下的扫描开销，不是冷启动
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FirstBindScanBenchmark {
+
+    private Class<? extends EventClassIndex> mReceiverIndexClass;
+
+    private Class<? extends EventClassIndex> mSourceIndexClass;
+
+    @Setup
+    public void setup() {
+        mReceiverIndexClass = indexClassOf(BenchKvoReceiver.class);
+        mSourceIndexClass = indexClassOf(BenchKvoSource.class);
+    }
+
+    @Benchmark
+    public void reflectionScan(Blackhole blackhole) {
+        for (Method method : EventHelper.getExcludeSystemMethods(BenchKvoReceiver.class)) {
+            KvoMethodAnnotation annotation = method.getAnnotation(KvoMethodAnnotation.class);
+
+            if (annotation != null) {
+                blackhole.consume(method);
+                blackhole.consume(annotation);
+            }
+        }
+
+        for (Field field : EventHelper.getExcludeSystemFields(BenchKvoSource.class)) {
+            KvoFieldAnnotation annotation = field.getAnnotation(KvoFieldAnnotation.class);
+
+            if (annotation != null) {
+                blackhole.consume(field);
+                blackhole.consume(annotation);
+            }
+        }
+    }
+
+    @Benchmark
+    public void indexScan(Blackhole blackhole) throws Exception {
+        for (MethodEntry entry : mReceiverIndexClass.newInstance().methods()) {
+            if (entry.annotation instanceof KvoMethodAnnotation) {
+                blackhole.consume(entry.method());
+                blackhole.consume(entry.annotation);
+            }
+        }
+
+        for (FieldEntry entry : mSourceIndexClass.newInstance().fields()) {
+            if (entry.annotation instanceof KvoFieldAnnotation) {
+                blackhole.consume(entry.field());
+                blackhole.consume(entry.annotation);
+            }
+        }
+    }
+
+    private static Class<? extends EventClassIndex> indexClassOf(Class<?> clazz) {
+        EventClassIndex index = EventHelper.getClassIndex(clazz);
+
+        if (index == null) {
+            throw new IllegalStateException("no event index for " + clazz.getName()
+                    + ", is framework-compiler configured as jmhAnnotationProcessor?");
+        }
+
+        return index.getClass();
+    }
+}
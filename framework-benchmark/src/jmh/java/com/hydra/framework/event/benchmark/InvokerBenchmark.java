@@ -0,0 +1,76 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.core.IEventInvoker;
+import com.hydra.framework.event.core.helper.EventClassIndex;
+import com.hydra.framework.event.core.helper.EventClassIndex.MethodEntry;
+import com.hydra.framework.event.core.helper.EventHelper;
+import com.hydra.framework.event.core.helper.ReflectEventInvoker;
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * 同一个接收函数，反射调用 和 编译期索引里生成的直接调用 的对比
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InvokerBenchmark {
+
+    private BenchKvoReceiver mReceiver;
+
+    private EventIntent mIntent;
+
+    private IEventInvoker mReflectInvoker;
+
+    private IEventInvoker mDirectInvoker;
+
+    @Setup
+    public void setup() throws Exception {
+        mReceiver = new BenchKvoReceiver();
+
+        BenchKvoSource source = new BenchKvoSource();
+
+        mIntent = KvoEventIntent.build(source, BenchKvoSource.KVO_VALUE);
+
+        EventClassIndex index = EventHelper.getClassIndex(BenchKvoReceiver.class);
+
+        if (index == null) {
+            throw new IllegalStateException("no event index for " + BenchKvoReceiver.class.getName()
+                    + ", is framework-compiler configured as jmhAnnotationProcessor?");
+        }
+
+        for (MethodEntry entry : index.methods()) {
+            if (entry.name.equals("onValueChanged")) {
+                mDirectInvoker = entry.invoker;
+                mReflectInvoker = new ReflectEventInvoker(entry.method());
+            }
+        }
+
+        if (mDirectInvoker == null) {
+            throw new IllegalStateException("no direct invoker for onValueChanged");
+        }
+    }
+
+    @Benchmark
+    public BenchKvoReceiver reflect() throws Throwable {
+        mReflectInvoker.invoke(mReceiver, mIntent);
+
+        return mReceiver;
+    }
+
+    @Benchmark
+    public BenchKvoReceiver direct() throws Throwable {
+        mDirectInvoker.invoke(mReceiver, mIntent);
+
+        return mReceiver;
+    }
+}
@@ -0,0 +1,161 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.kvo.Kvo;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * KvoList的add/remove/set 和 KvoHashMap.put，绑定了一个receiver，每次修改都会通知一次
+ * <p>
+ * listRemoveAll是删掉分散的REMOVE_COUNT个(再不通知地加回去)；
+ * listAddSetRemove和listBatchAddSetRemove是同样的三个修改，一个是通知三次，一个是batch里只通知一次(list打开了setChangesNotifyEnabled)；
+ * listSort每次在正序和倒序之间排一次，listRemoveIf和listRemoveAll一样删分散的REMOVE_COUNT个
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KvoCollectionBenchmark {
+
+    private static final Integer ELEMENT = 42;
+
+    private static final int REMOVE_COUNT = 10;
+
+    private static final List<Integer> ELEMENTS = Arrays.asList(ELEMENT, ELEMENT, ELEMENT, ELEMENT);
+
+    @Param({"100"})
+    public int size;
+
+    private BenchKvoSource mSource;
+
+    private BenchKvoReceiver mReceiver;
+
+    private int mIndex;
+
+    private Set<Integer> mToRemove;
+
+    private List<Integer> mOriginal;
+
+    private boolean mDescending;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mSource = new BenchKvoSource();
+
+        for (int i = 0; i < size; i++) {
+            mSource.list.wrappedList().add(i);
+            mSource.map.put(i, i);
+        }
+
+        mOriginal = new ArrayList<>(mSource.list.wrappedList());
+
+        mToRemove = new HashSet<>();
+
+        for (int i = 0; i < REMOVE_COUNT; i++) {
+            mToRemove.add(i * size / REMOVE_COUNT);
+        }
+
+        mSource.list.setChangesNotifyEnabled(true);
+
+        mReceiver = new BenchKvoReceiver();
+
+        Kvo.autoBindingTo(mSource, mReceiver);
+    }
+
+    /**
+     * 加在尾部再删掉，list的大小不变
+     */
+    @Benchmark
+    public Integer listAddRemove() {
+        mSource.list.add(ELEMENT);
+
+        return mSource.list.remove(mSource.list.size() - 1);
+    }
+
+    @Benchmark
+    public Integer listSet() {
+        mIndex = (mIndex + 1) % size;
+
+        return mSource.list.set(mIndex, ELEMENT);
+    }
+
+    @Benchmark
+    public Integer mapPut() {
+        mIndex = (mIndex + 1) % size;
+
+        return mSource.map.put(mIndex, ELEMENT);
+    }
+
+    @Benchmark
+    public boolean listRemoveAll() {
+        boolean result = mSource.list.removeAll(mToRemove);
+
+        mSource.list.wrappedList().clear();
+        mSource.list.wrappedList().addAll(mOriginal);
+
+        return result;
+    }
+
+    @Benchmark
+    public boolean listRemoveIf() {
+        boolean result = mSource.list.removeIf(mToRemove::contains);
+
+        mSource.list.wrappedList().clear();
+        mSource.list.wrappedList().addAll(mOriginal);
+
+        return result;
+    }
+
+    @Benchmark
+    public BenchKvoReceiver listSort() {
+        mDescending = !mDescending;
+
+        Comparator<Integer> comparator = mDescending ? Collections.reverseOrder() : null;
+
+        mSource.list.sort(comparator);
+
+        return mReceiver;
+    }
+
+    @Benchmark
+    public Integer listAddSetRemove() {
+        return addSetRemove();
+    }
+
+    @Benchmark
+    public Integer listBatchAddSetRemove() {
+        mSource.list.beginBatch();
+
+        try {
+            return addSetRemove();
+        } finally {
+            mSource.list.commitBatch();
+        }
+    }
+
+    private Integer addSetRemove() {
+        mIndex = (mIndex + 1) % size;
+
+        mSource.list.addAll(ELEMENTS);
+        mSource.list.removeRange(size, size + ELEMENTS.size());
+
+        return mSource.list.set(mIndex, ELEMENT);
+    }
+}
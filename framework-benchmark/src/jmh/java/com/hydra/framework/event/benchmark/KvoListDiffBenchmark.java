@@ -0,0 +1,83 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.kvo.list.KvoListDiff;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * KvoListDiff.calculate本身的开销，size个Integer，用equals比较
+ * <p>
+ * oneChanged是中间插一个、删一个，刷新时最常见的情况；
+ * fewEdits是随机位置插入、删除、挪动各4个；shuffled是整个打乱，会超过编辑数的上限变成Reload
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KvoListDiffBenchmark {
+
+    private static final int EDITS_PER_KIND = 4;
+
+    @Param({"500"})
+    public int size;
+
+    private List<Integer> mOld;
+
+    private List<Integer> mOneChanged;
+
+    private List<Integer> mFewEdits;
+
+    private List<Integer> mShuffled;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(size);
+
+        mOld = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            mOld.add(i);
+        }
+
+        mOneChanged = new ArrayList<>(mOld);
+        mOneChanged.remove(size / 2);
+        mOneChanged.add(size / 3, -1);
+
+        mFewEdits = new ArrayList<>(mOld);
+
+        for (int i = 0; i < EDITS_PER_KIND; i++) {
+            mFewEdits.add(random.nextInt(mFewEdits.size()), -1 - i);
+            mFewEdits.remove(random.nextInt(mFewEdits.size()));
+            mFewEdits.add(random.nextInt(mFewEdits.size()), mFewEdits.remove(random.nextInt(mFewEdits.size())));
+        }
+
+        mShuffled = new ArrayList<>(mOld);
+        Collections.shuffle(mShuffled, random);
+    }
+
+    @Benchmark
+    public KvoListDiff oneChanged() {
+        return KvoListDiff.calculate(mOld, mOneChanged, null);
+    }
+
+    @Benchmark
+    public KvoListDiff fewEdits() {
+        return KvoListDiff.calculate(mOld, mFewEdits, null);
+    }
+
+    @Benchmark
+    public KvoListDiff shuffled() {
+        return KvoListDiff.calculate(mOld, mShuffled, null);
+    }
+}
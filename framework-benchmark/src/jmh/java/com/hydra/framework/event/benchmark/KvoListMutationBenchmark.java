@@ -0,0 +1,83 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.kvo.Kvo;
+import com.hydra.framework.event.utils.EventUtils;
+import com.hydra.framework.thread.ThreadBus;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * 后台线程(benchmark线程)往KvoList里加count个item，测到主线程全部加完、receiver都收到通知的时间
+ * <p>
+ * postEach是原来的做法，每个add都ThreadBus.post到主线程一次；postAdd用KvoList.postAdd，主线程上攒一批一起加
+ * 加完再往主线程post一个信号，主线程是FIFO的，信号执行时前面的修改都做完了，然后不通知地清空，list大小不变
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KvoListMutationBenchmark {
+
+    private static final Integer ELEMENT = 42;
+
+    @Param({"100"})
+    public int count;
+
+    private BenchKvoSource mSource;
+
+    private BenchKvoReceiver mReceiver;
+
+    private final Semaphore mApplied = new Semaphore(0);
+
+    private final Runnable mSignal = () -> {
+        mSource.list.wrappedList().clear();
+
+        mApplied.release();
+    };
+
+    private final Runnable mAdd = () -> mSource.list.add(ELEMENT);
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mSource = new BenchKvoSource();
+
+        mReceiver = new BenchKvoReceiver();
+
+        Kvo.autoBindingTo(mSource, mReceiver);
+    }
+
+    @Benchmark
+    public BenchKvoReceiver postEach() throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            ThreadBus.post(ThreadBus.Main, mAdd);
+        }
+
+        return awaitApplied();
+    }
+
+    @Benchmark
+    public BenchKvoReceiver postAdd() throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            mSource.list.postAdd(ELEMENT);
+        }
+
+        return awaitApplied();
+    }
+
+    private BenchKvoReceiver awaitApplied() throws InterruptedException {
+        ThreadBus.post(ThreadBus.Main, mSignal);
+        mApplied.acquire();
+
+        return mReceiver;
+    }
+}
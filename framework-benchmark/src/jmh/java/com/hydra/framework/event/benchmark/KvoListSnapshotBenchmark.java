@@ -0,0 +1,127 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.kvo.Kvo;
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import com.hydra.framework.event.kvo.KvoFieldAnnotation;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+import com.hydra.framework.event.kvo.KvoSource;
+import com.hydra.framework.event.kvo.list.KvoList;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * 把KvoList的内容交给后台线程读，再在主线程改一个
+ * <p>
+ * snapshotThenSet用snapshotEnabled的KvoList.snapshot，copyThenSet是原来的做法，默认的ArrayList拷贝一份；
+ * getAll和getAllChunked分别是从头到尾get一遍ArrayList和ChunkedArrayList，看分块存储对读的影响
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KvoListSnapshotBenchmark {
+
+    private static final Integer ELEMENT = 42;
+
+    public static class Source extends KvoSource {
+
+        public static final String KVO_LIST = "list";
+        public static final String KVO_SNAPSHOT_LIST = "snapshot_list";
+
+        @KvoFieldAnnotation(name = KVO_LIST)
+        public final KvoList<Integer> list = new KvoList<>(this, KVO_LIST);
+
+        @KvoFieldAnnotation(name = KVO_SNAPSHOT_LIST)
+        public final KvoList<Integer> snapshotList = new KvoList<>(this, KVO_SNAPSHOT_LIST, true);
+    }
+
+    public static class Receiver {
+
+        public int hits;
+
+        @KvoMethodAnnotation(name = Source.KVO_LIST, sourceClass = Source.class)
+        public void onListChanged(KvoEventIntent intent) {
+            hits++;
+        }
+
+        @KvoMethodAnnotation(name = Source.KVO_SNAPSHOT_LIST, sourceClass = Source.class)
+        public void onSnapshotListChanged(KvoEventIntent intent) {
+            hits++;
+        }
+    }
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private Source mSource;
+
+    private Receiver mReceiver;
+
+    private int mIndex;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mSource = new Source();
+
+        for (int i = 0; i < size; i++) {
+            mSource.list.wrappedList().add(i);
+            mSource.snapshotList.wrappedList().add(i);
+        }
+
+        mReceiver = new Receiver();
+
+        Kvo.autoBindingTo(mSource, mReceiver);
+    }
+
+    @Benchmark
+    public List<Integer> snapshotThenSet() {
+        List<Integer> snapshot = mSource.snapshotList.snapshot();
+
+        mIndex = (mIndex + 1) % size;
+        mSource.snapshotList.set(mIndex, ELEMENT);
+
+        return snapshot;
+    }
+
+    @Benchmark
+    public List<Integer> copyThenSet() {
+        List<Integer> copy = new ArrayList<>(mSource.list.wrappedList());
+
+        mIndex = (mIndex + 1) % size;
+        mSource.list.set(mIndex, ELEMENT);
+
+        return copy;
+    }
+
+    @Benchmark
+    public int getAll() {
+        return sum(mSource.list);
+    }
+
+    @Benchmark
+    public int getAllChunked() {
+        return sum(mSource.snapshotList);
+    }
+
+    private static int sum(List<Integer> list) {
+        int sum = 0;
+
+        for (int i = 0, n = list.size(); i < n; i++) {
+            sum += list.get(i);
+        }
+
+        return sum;
+    }
+}
@@ -0,0 +1,59 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.kvo.Kvo;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * KvoSource.setValue，每次都在两个值之间切换，保证每次都会通知
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KvoSourceBenchmark {
+
+    private static final Integer VALUE_A = 1000;
+    private static final Integer VALUE_B = 2000;
+
+    @Param({"0", "1", "10", "100"})
+    public int receivers;
+
+    private BenchKvoSource mSource;
+
+    private BenchKvoReceiver[] mReceivers;
+
+    private boolean mFlip;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mSource = new BenchKvoSource();
+
+        mReceivers = new BenchKvoReceiver[receivers];
+
+        for (int i = 0; i < receivers; i++) {
+            mReceivers[i] = new BenchKvoReceiver();
+
+            Kvo.autoBindingTo(mSource, mReceivers[i]);
+        }
+    }
+
+    @Benchmark
+    public BenchKvoSource setValue() {
+        mFlip = !mFlip;
+
+        mSource.setValue(BenchKvoSource.KVO_VALUE, mFlip ? VALUE_A : VALUE_B);
+
+        return mSource;
+    }
+}
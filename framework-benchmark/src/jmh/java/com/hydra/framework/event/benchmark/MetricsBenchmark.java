@@ -0,0 +1,85 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.EventDispatcher;
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.core.EventReceiver;
+import com.hydra.framework.event.metrics.EventMetrics;
+import com.hydra.framework.event.metrics.EventMetricsRecorder;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Created by Hydra.
+ * 10个同步receiver的一次通知，不装统计 和 装了EventMetricsRecorder(notifyEventRecorded) 的对比
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsBenchmark {
+
+    private static final int RECEIVERS = 10;
+
+    private EventDispatcher mDispatcher;
+
+    private EventAction mAction;
+
+    private BenchEventTarget[] mTargets;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mDispatcher = new EventDispatcher();
+        mAction = new EventAction("MetricsBenchmark");
+
+        mTargets = new BenchEventTarget[RECEIVERS];
+
+        for (int i = 0; i < RECEIVERS; i++) {
+            mTargets[i] = new BenchEventTarget();
+
+            mDispatcher.addBinding(mAction, new EventReceiver(mTargets[i], BenchEventTarget.ON_EVENT, null,
+                    EventReceiver.DEFAULT_EVENT_RECEIVER_PRIORITY, 0));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RecorderState {
+
+        @Setup
+        public void install() {
+            EventMetrics.install(new EventMetricsRecorder());
+        }
+
+        @TearDown
+        public void uninstall() {
+            EventMetrics.install(null);
+        }
+    }
+
+    @Benchmark
+    public EventIntent notifyEvent() {
+        return notifyOnce();
+    }
+
+    @Benchmark
+    public EventIntent notifyEventRecorded(RecorderState state) {
+        return notifyOnce();
+    }
+
+    private EventIntent notifyOnce() {
+        EventIntent intent = new EventIntent(null, mAction, false);
+
+        mDispatcher.notifyEvent(intent);
+
+        return intent;
+    }
+}
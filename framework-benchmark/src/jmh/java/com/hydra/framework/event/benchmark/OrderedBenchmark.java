@@ -0,0 +1,161 @@
+package com.hydra.framework.event.benchmark;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.EventDispatcher;
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.core.EventReceiver;
+import com.hydra.framework.event.core.IEventThread;
+import com.hydra.framework.event.utils.EventUtils;
+import java.lang.reflect.Method;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Created by Hydra.
+ * 优先级最高的receiver在线程A上，收到就done；后面receivers个receiver在线程B上，每个都做一点计算
+ * <p>
+ * unordered是普通派发，B上的批在done之前就post出去了，拦不住；ordered是有序派发，A上done了以后B一个都不会执行
+ * 通知完依次往A和B各post一个信号，都执行了说明这次通知已经处理完
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderedBenchmark {
+
+    private static final long RECEIVER_WORK_TOKENS = 200;
+
+    @Param({"10"})
+    public int receivers;
+
+    public static class DoneTarget {
+
+        static final Method ON_EVENT;
+
+        static {
+            try {
+                ON_EVENT = DoneTarget.class.getMethod("onEvent", EventIntent.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public void onEvent(EventIntent intent) {
+            intent.done();
+        }
+    }
+
+    public static class WorkTarget {
+
+        static final Method ON_EVENT;
+
+        static {
+            try {
+                ON_EVENT = WorkTarget.class.getMethod("onEvent", EventIntent.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public void onEvent(EventIntent intent) {
+            Blackhole.consumeCPU(RECEIVER_WORK_TOKENS);
+        }
+    }
+
+    private HandlerThread mThreadA;
+    private HandlerThread mThreadB;
+
+    private Handler mHandlerA;
+    private Handler mHandlerB;
+
+    private final Semaphore mDelivered = new Semaphore(0);
+
+    private final Runnable mSignal = mDelivered::release;
+
+    private EventDispatcher mDispatcher;
+
+    private EventAction mAction;
+    private EventAction mOrderedAction;
+
+    private DoneTarget mDoneTarget;
+
+    private WorkTarget[] mWorkTargets;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mThreadA = new HandlerThread("OrderedBenchmark-A", 0);
+        mThreadA.start();
+        mThreadB = new HandlerThread("OrderedBenchmark-B", 0);
+        mThreadB.start();
+
+        mHandlerA = new Handler(mThreadA.getLooper());
+        mHandlerB = new Handler(mThreadB.getLooper());
+
+        IEventThread threadA = r -> mHandlerA.post(r);
+        IEventThread threadB = r -> mHandlerB.post(r);
+
+        mDispatcher = new EventDispatcher();
+        mAction = new EventAction("OrderedBenchmark");
+        mOrderedAction = new EventAction("OrderedBenchmark-ordered", EventAction.EVENTACTION_FLAG_ORDERED);
+
+        mDoneTarget = new DoneTarget();
+        mWorkTargets = new WorkTarget[receivers];
+
+        for (EventAction action : new EventAction[]{mAction, mOrderedAction}) {
+            mDispatcher.addBinding(action, new EventReceiver(mDoneTarget, DoneTarget.ON_EVENT, threadA, 1, 0));
+
+            for (int i = 0; i < receivers; i++) {
+                if (mWorkTargets[i] == null) {
+                    mWorkTargets[i] = new WorkTarget();
+                }
+
+                mDispatcher.addBinding(action, new EventReceiver(mWorkTargets[i], WorkTarget.ON_EVENT, threadB,
+                        EventReceiver.DEFAULT_EVENT_RECEIVER_PRIORITY, 0));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mThreadA.getLooper().quitSafely();
+        mThreadB.getLooper().quitSafely();
+    }
+
+    @Benchmark
+    public EventIntent unordered() throws InterruptedException {
+        return notifyAndWait(mAction);
+    }
+
+    @Benchmark
+    public EventIntent ordered() throws InterruptedException {
+        return notifyAndWait(mOrderedAction);
+    }
+
+    private EventIntent notifyAndWait(EventAction action) throws InterruptedException {
+        EventIntent intent = new EventIntent(null, action, false);
+
+        mDispatcher.notifyEvent(intent);
+
+        //A上的signal执行时，A上的receiver已经执行完，有序派发时要post到B的也已经post了
+        mHandlerA.post(mSignal);
+        mDelivered.acquire();
+
+        mHandlerB.post(mSignal);
+        mDelivered.acquire();
+
+        return intent;
+    }
+}
@@ -0,0 +1,83 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.kvo.Kvo;
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import com.hydra.framework.event.kvo.KvoFieldAnnotation;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+import com.hydra.framework.event.kvo.KvoSource;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * long类型的kvo field，一个同步receiver，每次都在两个不在Long缓存里的值之间切换，保证每次都会通知
+ * <p>
+ * setValue是原来的写法，调用时装箱；setLong是不装箱的写法，receiver用newLong()取值
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrimitiveKvoBenchmark {
+
+    private static final long VALUE_A = 1000L;
+    private static final long VALUE_B = 2000L;
+
+    public static class Source extends KvoSource {
+
+        public static final String KVO_OFFSET = "offset";
+
+        @KvoFieldAnnotation(name = KVO_OFFSET)
+        public long offset = 0L;
+    }
+
+    public static class Receiver {
+
+        public long sum;
+
+        @KvoMethodAnnotation(name = Source.KVO_OFFSET, sourceClass = Source.class)
+        public void onOffsetChanged(KvoEventIntent intent) {
+            sum += intent.newLong();
+        }
+    }
+
+    private Source mSource;
+
+    private Receiver mReceiver;
+
+    private boolean mFlip;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mSource = new Source();
+        mReceiver = new Receiver();
+
+        Kvo.autoBindingTo(mSource, mReceiver);
+    }
+
+    @Benchmark
+    public Receiver setValue() {
+        mFlip = !mFlip;
+
+        mSource.setValue(Source.KVO_OFFSET, mFlip ? VALUE_A : VALUE_B);
+
+        return mReceiver;
+    }
+
+    @Benchmark
+    public Receiver setLong() {
+        mFlip = !mFlip;
+
+        mSource.setLong(Source.KVO_OFFSET, mFlip ? VALUE_A : VALUE_B);
+
+        return mReceiver;
+    }
+}
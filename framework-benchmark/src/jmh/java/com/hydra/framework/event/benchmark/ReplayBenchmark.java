@@ -0,0 +1,86 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.EventDispatcher;
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.core.EventReceiver;
+import com.hydra.framework.event.core.EventReplayPolicy;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * 带重放策略(最近8个)的action，一个同步receiver，intent是池子里的，带一个参数
+ * <p>
+ * notifyReplay是一直在发、中间没有人绑定的情况，每次都要记进环里(环早就满了，每次挤掉最老的)；
+ * notifyThenLateBind每次通知后都有一个receiver绑定再解绑，绑定时补发环里的8个
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReplayBenchmark {
+
+    private static final int REPLAY_CAPACITY = 8;
+
+    private static final Integer ARG_0 = 1000;
+
+    private EventDispatcher mDispatcher;
+
+    private EventAction mAction;
+
+    private BenchEventTarget mTarget;
+
+    private BenchEventTarget mLateTarget;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mDispatcher = new EventDispatcher();
+        mAction = new EventAction("ReplayBenchmark", 0, EventReplayPolicy.last(REPLAY_CAPACITY));
+
+        mTarget = new BenchEventTarget();
+        mLateTarget = new BenchEventTarget();
+
+        mDispatcher.addBinding(mAction, newReceiver(mTarget));
+    }
+
+    @Benchmark
+    public BenchEventTarget notifyReplay() {
+        notifyOnce();
+
+        return mTarget;
+    }
+
+    @Benchmark
+    public BenchEventTarget notifyThenLateBind() {
+        notifyOnce();
+
+        mDispatcher.addBinding(mAction, newReceiver(mLateTarget));
+        mDispatcher.removeBinding(mAction, newReceiver(mLateTarget));
+
+        return mLateTarget;
+    }
+
+    private void notifyOnce() {
+        EventIntent intent = EventIntent.obtain(null, mAction);
+
+        intent.addArgs(ARG_0);
+
+        mDispatcher.notifyEvent(intent);
+
+        intent.release();
+    }
+
+    private static EventReceiver newReceiver(BenchEventTarget target) {
+        return new EventReceiver(target, BenchEventTarget.ON_EVENT, null,
+                EventReceiver.DEFAULT_EVENT_RECEIVER_PRIORITY, 0);
+    }
+}
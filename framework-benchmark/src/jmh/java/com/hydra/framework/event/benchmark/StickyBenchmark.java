@@ -0,0 +1,83 @@
+package com.hydra.framework.event.benchmark;
+
+import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.EventDispatcher;
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.core.EventReceiver;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Created by Hydra.
+ * sticky action的通知和晚绑定，一个同步receiver，intent带一个参数和一个key参数
+ * <p>
+ * notifySticky是高频发sticky事件、中间没有人绑定的情况；
+ * notifyThenLateBind每次通知后都有一个receiver绑定再解绑，会用到带sticky标志的那份拷贝
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StickyBenchmark {
+
+    private static final Integer ARG_0 = 1000;
+    private static final String KEY = "key";
+
+    private EventDispatcher mDispatcher;
+
+    private EventAction mAction;
+
+    private BenchEventTarget mTarget;
+
+    private BenchEventTarget mLateTarget;
+
+    @Setup
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mDispatcher = new EventDispatcher();
+        mAction = new EventAction("StickyBenchmark", EventAction.EVENTACTION_FLAG_STICKY);
+
+        mTarget = new BenchEventTarget();
+        mLateTarget = new BenchEventTarget();
+
+        mDispatcher.addBinding(mAction, newReceiver(mTarget));
+    }
+
+    @Benchmark
+    public EventIntent notifySticky() {
+        return notifyOnce();
+    }
+
+    @Benchmark
+    public EventIntent notifyThenLateBind() {
+        EventIntent intent = notifyOnce();
+
+        mDispatcher.addBinding(mAction, newReceiver(mLateTarget));
+        mDispatcher.removeBinding(mAction, newReceiver(mLateTarget));
+
+        return intent;
+    }
+
+    private EventIntent notifyOnce() {
+        EventIntent intent = new EventIntent(null, mAction, false);
+
+        intent.addArgs(ARG_0);
+        intent.putArg(KEY, ARG_0);
+
+        mDispatcher.notifyEvent(intent);
+
+        return intent;
+    }
+
+    private static EventReceiver newReceiver(BenchEventTarget target) {
+        return new EventReceiver(target, BenchEventTarget.ON_EVENT, null,
+                EventReceiver.DEFAULT_EVENT_RECEIVER_PRIORITY, 0);
+    }
+}
@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * 只给benchmark在普通JVM上编译framework源码用，按minSdk来
+ */
+public class Build {
+
+    public static class VERSION {
+        public static final int SDK_INT = VERSION_CODES.LOLLIPOP;
+    }
+
+    public static class VERSION_CODES {
+        public static final int LOLLIPOP = 21;
+        public static final int N = 24;
+    }
+}
@@ -0,0 +1,41 @@
+package android.os;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 只给benchmark在普通JVM上用，直接丢到Looper的executor里执行，不支持延时和取消
+ */
+public class Handler {
+
+    private final Looper mLooper;
+
+    public Handler(Looper looper) {
+        mLooper = looper;
+    }
+
+    public final boolean post(Runnable r) {
+        try {
+            mLooper.mExecutor.execute(r);
+
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public final boolean postDelayed(Runnable r, long delayMillis) {
+        throw new UnsupportedOperationException("postDelayed");
+    }
+
+    public final boolean postAtTime(Runnable r, long uptimeMillis) {
+        throw new UnsupportedOperationException("postAtTime");
+    }
+
+    public final void removeCallbacks(Runnable r, Object token) {
+        throw new UnsupportedOperationException("removeCallbacks");
+    }
+
+    public final Looper getLooper() {
+        return mLooper;
+    }
+}
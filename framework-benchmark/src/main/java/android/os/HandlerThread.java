@@ -0,0 +1,19 @@
+package android.os;
+
+/**
+ * 只给benchmark在普通JVM上用，线程本身什么都不做，真正执行的是Looper里的executor
+ */
+public class HandlerThread extends Thread {
+
+    private final Looper mLooper;
+
+    public HandlerThread(String name, int priority) {
+        super(name);
+
+        mLooper = new Looper(name);
+    }
+
+    public Looper getLooper() {
+        return mLooper;
+    }
+}
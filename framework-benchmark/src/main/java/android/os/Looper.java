@@ -0,0 +1,44 @@
+package android.os;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 只给benchmark在普通JVM上用的Looper，每个Looper就是一个单线程的executor，没有MessageQueue
+ * <p>
+ * benchmark里的receiver都是同步的，这里只保证ThreadBus这些类能正常加载和投递
+ */
+public final class Looper {
+
+    private static final ThreadLocal<Looper> sThreadLocal = new ThreadLocal<>();
+
+    private static final Looper sMainLooper = new Looper("main");
+
+    final ExecutorService mExecutor;
+
+    Looper(String name) {
+        mExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(() -> {
+                sThreadLocal.set(this);
+
+                r.run();
+            }, name);
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    public static Looper getMainLooper() {
+        return sMainLooper;
+    }
+
+    public static Looper myLooper() {
+        return sThreadLocal.get();
+    }
+
+    public void quitSafely() {
+        mExecutor.shutdown();
+    }
+}
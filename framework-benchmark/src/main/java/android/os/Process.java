@@ -0,0 +1,14 @@
+package android.os;
+
+/**
+ * 只给benchmark在普通JVM上用，JVM上不调整线程优先级
+ */
+public class Process {
+
+    public static final int THREAD_PRIORITY_DEFAULT = 0;
+    public static final int THREAD_PRIORITY_BACKGROUND = 10;
+    public static final int THREAD_PRIORITY_MORE_FAVORABLE = -1;
+
+    public static void setThreadPriority(int priority) {
+    }
+}
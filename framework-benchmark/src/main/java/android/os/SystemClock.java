@@ -0,0 +1,11 @@
+package android.os;
+
+/**
+ * 只给benchmark在普通JVM上用
+ */
+public final class SystemClock {
+
+    public static long uptimeMillis() {
+        return System.nanoTime() / 1000000L;
+    }
+}
@@ -0,0 +1,45 @@
+package android.util;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * 只给benchmark在普通JVM上用，只有error打到stderr，其他的都丢掉，免得日志影响测量结果
+ * (比如100个receiver时，EventReceiverList每次add都会打一条too many connections的warn)
+ */
+public final class Log {
+
+    public static int e(String tag, String msg) {
+        System.err.println("E/" + tag + ": " + msg);
+
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        return 0;
+    }
+
+    public static int i(String tag, String msg) {
+        return 0;
+    }
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int v(String tag, String msg) {
+        return 0;
+    }
+
+    public static String getStackTraceString(Throwable tr) {
+        if (tr == null) {
+            return "";
+        }
+
+        StringWriter writer = new StringWriter();
+
+        tr.printStackTrace(new PrintWriter(writer));
+
+        return writer.toString();
+    }
+}
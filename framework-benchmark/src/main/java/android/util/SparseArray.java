@@ -0,0 +1,19 @@
+package android.util;
+
+import java.util.HashMap;
+
+/**
+ * 只给benchmark在普通JVM上用，用HashMap实现
+ */
+public class SparseArray<E> {
+
+    private final HashMap<Integer, E> mValues = new HashMap<>();
+
+    public E get(int key) {
+        return mValues.get(key);
+    }
+
+    public void put(int key, E value) {
+        mValues.put(key, value);
+    }
+}
@@ -0,0 +1,507 @@
+package com.hydra.framework.event.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Created by Hydra.
+ * 给带有 KvoMethodAnnotation / FWEventAnnotation / KvoFieldAnnotation 的类生成订阅索引
+ * <p>
+ * 每个类生成一个 原类名 + "_EventIndex" 的类，继承framework里的EventClassIndex，包含：
+ * 1、这个类和所有非系统父类里带注解的函数，以及可以直接调用这个函数的invoker
+ * 2、这个类和所有非系统父类里带注解的field，以及可以直接读写这个field的accessor
+ * 顺序和EventHelper里反射遍历的顺序一样，从子类到父类
+ * <p>
+ * 注解的值直接生成一个实现了注解接口的匿名类，运行时就不用再getAnnotation了
+ * <p>
+ * 注意：只有自己声明了注解的类才会生成索引，子类自己没有注解的，运行时还是走反射
+ */
+public class EventIndexProcessor extends AbstractProcessor {
+
+    private static final String KVO_METHOD_ANNOTATION = "com.hydra.framework.event.kvo.KvoMethodAnnotation";
+    private static final String KVO_FIELD_ANNOTATION = "com.hydra.framework.event.kvo.KvoFieldAnnotation";
+    private static final String FW_EVENT_ANNOTATION = "com.hydra.framework.event.fw.FWEventAnnotation";
+
+    private static final String EVENT_CLASS_INDEX = "com.hydra.framework.event.core.helper.EventClassIndex";
+    private static final String EVENT_INVOKER = "com.hydra.framework.event.core.IEventInvoker";
+    private static final String EVENT_INTENT = "com.hydra.framework.event.core.EventIntent";
+    private static final String FIELD_ACCESSOR = "com.hydra.framework.event.core.IFieldAccessor";
+
+    //要和EventClassIndex.INDEX_CLASS_SUFFIX保持一致
+    private static final String INDEX_CLASS_SUFFIX = "_EventIndex";
+
+    //和EventHelper里过滤的系统类保持一致
+    private static final List<String> SYSTEM_PACKAGE_PREFIXES = Arrays.asList("android.", "androidx.",
+            "java.", "javax.");
+
+    private static final Set<String> METHOD_ANNOTATIONS = new HashSet<>(Arrays.asList(KVO_METHOD_ANNOTATION,
+            FW_EVENT_ANNOTATION));
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(KVO_METHOD_ANNOTATION, KVO_FIELD_ANNOTATION, FW_EVENT_ANNOTATION));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element enclosing = element.getEnclosingElement();
+
+                if (enclosing instanceof TypeElement) {
+                    types.add((TypeElement) enclosing);
+                }
+            }
+        }
+
+        for (TypeElement type : types) {
+            if (!canBeIndexed(type)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "skip event index for " + type + ", it will fall back to reflection", type);
+                continue;
+            }
+
+            try {
+                writeIndex(type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "write event index failed : " + e, type);
+            }
+        }
+
+        //不消费这些注解，别的processor也可以处理
+        return false;
+    }
+
+    //索引类和原类在同一个包里，原类(包括外部类)不能是private的，也不能是匿名类和局部类
+    private boolean canBeIndexed(TypeElement type) {
+        Element element = type;
+
+        while (element instanceof TypeElement) {
+            TypeElement typeElement = (TypeElement) element;
+
+            if (typeElement.getModifiers().contains(Modifier.PRIVATE)
+                    || typeElement.getNestingKind() == NestingKind.ANONYMOUS
+                    || typeElement.getNestingKind() == NestingKind.LOCAL) {
+                return false;
+            }
+
+            element = typeElement.getEnclosingElement();
+        }
+
+        return true;
+    }
+
+    private void writeIndex(TypeElement type) throws IOException {
+        String packageName = packageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String indexSimpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                + INDEX_CLASS_SUFFIX;
+
+        List<String> methodEntries = new ArrayList<>();
+        List<String> fieldEntries = new ArrayList<>();
+
+        TypeElement cls = type;
+
+        while (cls != null && !isSystemClass(cls)) {
+            for (Element member : cls.getEnclosedElements()) {
+                if (member.getKind() == ElementKind.METHOD) {
+                    String entry = methodEntry(cls, (ExecutableElement) member, packageName);
+
+                    if (entry != null) {
+                        methodEntries.add(entry);
+                    }
+                } else if (member.getKind() == ElementKind.FIELD) {
+                    String entry = fieldEntry(cls, (VariableElement) member, packageName);
+
+                    if (entry != null) {
+                        fieldEntries.add(entry);
+                    }
+                }
+            }
+
+            cls = superClassOf(cls);
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("// Generated by EventIndexProcessor, do not edit.\n");
+
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+
+        sb.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        sb.append("public final class ").append(indexSimpleName).append(" extends ")
+                .append(EVENT_CLASS_INDEX).append(" {\n\n");
+
+        sb.append("    private final MethodEntry[] mMethods = new MethodEntry[] {\n");
+        appendEntries(sb, methodEntries);
+        sb.append("    };\n\n");
+
+        sb.append("    private final FieldEntry[] mFields = new FieldEntry[] {\n");
+        appendEntries(sb, fieldEntries);
+        sb.append("    };\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public MethodEntry[] methods() {\n");
+        sb.append("        return mMethods;\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public FieldEntry[] fields() {\n");
+        sb.append("        return mFields;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        String indexName = packageName.isEmpty() ? indexSimpleName : packageName + "." + indexSimpleName;
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(indexName, type).openWriter()) {
+            writer.write(sb.toString());
+        }
+    }
+
+    private static void appendEntries(StringBuilder sb, List<String> entries) {
+        for (String entry : entries) {
+            sb.append(entry).append(",\n");
+        }
+    }
+
+    private String methodEntry(TypeElement declaringType, ExecutableElement method, String packageName) {
+        Set<Modifier> modifiers = method.getModifiers();
+
+        //和EventHelper里一样，过滤掉static native abstract的
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.NATIVE)
+                || modifiers.contains(Modifier.ABSTRACT) || method.getParameters().size() != 1) {
+            return null;
+        }
+
+        AnnotationMirror annotation = findAnnotation(method, METHOD_ANNOTATIONS);
+
+        if (annotation == null) {
+            return null;
+        }
+
+        TypeMirror paramType = erasure(method.getParameters().get(0).asType());
+        String methodName = method.getSimpleName().toString();
+
+        String invoker = "null";
+
+        //invoker会按Method注册到EventInvokerHelper里，所有绑定这个Method的receiver共用，
+        //所以强转成声明这个函数的类，而不是当前索引的类
+        if (canInvokeDirectly(declaringType, method, paramType, packageName)) {
+            invoker = "new " + EVENT_INVOKER + "() {\n"
+                    + "                @Override\n"
+                    + "                public void invoke(Object target, " + EVENT_INTENT + " eventIntent) {\n"
+                    + "                    ((" + erasure(declaringType.asType()) + ") target)." + methodName
+                    + "(" + castTo(paramType.toString(), EVENT_INTENT) + "eventIntent);\n"
+                    + "                }\n"
+                    + "            }";
+        }
+
+        return "        new MethodEntry(" + erasure(declaringType.asType()) + ".class, \"" + methodName + "\", "
+                + paramType + ".class,\n"
+                + "            " + annotationLiteral(annotation) + ",\n"
+                + "            " + invoker + ")";
+    }
+
+    //类型一样的不生成强转，不然javac -Xlint会报redundant cast
+    private static String castTo(String targetType, String sourceType) {
+        return targetType.equals(sourceType) ? "" : "(" + targetType + ") ";
+    }
+
+    private String fieldEntry(TypeElement declaringType, VariableElement field, String packageName) {
+        Set<Modifier> modifiers = field.getModifiers();
+
+        if (modifiers.contains(Modifier.STATIC)) {
+            return null;
+        }
+
+        AnnotationMirror annotation = findAnnotation(field, new HashSet<>(Arrays.asList(KVO_FIELD_ANNOTATION)));
+
+        if (annotation == null) {
+            return null;
+        }
+
+        String accessor = "null";
+
+        //和invoker一样，强转成声明这个field的类；基本类型的field，get/set时自动装箱拆箱
+        if (canAccessDirectly(declaringType, field, packageName)) {
+            String target = "((" + erasure(declaringType.asType()) + ") target)." + field.getSimpleName();
+
+            accessor = "new " + FIELD_ACCESSOR + "() {\n"
+                    + "                @Override\n"
+                    + "                public Object get(Object target) {\n"
+                    + "                    return " + target + ";\n"
+                    + "                }\n\n"
+                    + "                @Override\n"
+                    + "                public void set(Object target, Object value) {\n"
+                    + "                    " + target + " = " + castTo(boxedType(field.asType()),
+                    "java.lang.Object") + "value;\n"
+                    + "                }\n"
+                    + primitiveAccessors(field.asType(), target)
+                    + "            }";
+        }
+
+        return "        new FieldEntry(" + erasure(declaringType.asType()) + ".class, \""
+                + field.getSimpleName() + "\",\n"
+                + "            " + annotationLiteral(annotation) + ",\n"
+                + "            " + accessor + ")";
+    }
+
+    //final的field不能直接赋值，private的，或者其他包里的非public field(类)，索引类都访问不到，留给反射
+    private boolean canAccessDirectly(TypeElement declaringType, VariableElement field, String packageName) {
+        if (field.getModifiers().contains(Modifier.FINAL) || !isAccessible(field, packageName)
+                || !isAccessible(declaringType, packageName)) {
+            return false;
+        }
+
+        TypeMirror type = erasure(field.asType());
+
+        while (type.getKind() == TypeKind.ARRAY) {
+            type = ((ArrayType) type).getComponentType();
+        }
+
+        return type.getKind() != TypeKind.DECLARED || isAccessible(((DeclaredType) type).asElement(), packageName);
+    }
+
+    //IFieldAccessor里有不装箱读写的几个基本类型，生成对应的getXxx/setXxx
+    private static String primitiveAccessors(TypeMirror type, String target) {
+        String suffix;
+
+        switch (type.getKind()) {
+            case INT:
+                suffix = "Int";
+                break;
+            case LONG:
+                suffix = "Long";
+                break;
+            case BOOLEAN:
+                suffix = "Boolean";
+                break;
+            case DOUBLE:
+                suffix = "Double";
+                break;
+            default:
+                return "";
+        }
+
+        return "\n"
+                + "                @Override\n"
+                + "                public " + type + " get" + suffix + "(Object target) {\n"
+                + "                    return " + target + ";\n"
+                + "                }\n\n"
+                + "                @Override\n"
+                + "                public void set" + suffix + "(Object target, " + type + " value) {\n"
+                + "                    " + target + " = value;\n"
+                + "                }\n";
+    }
+
+    private String boxedType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+
+        return erasure(type).toString();
+    }
+
+    //private的，或者其他包里的非public函数(类)，索引类都调不到，留给反射
+    private boolean canInvokeDirectly(TypeElement declaringType, ExecutableElement method, TypeMirror paramType,
+                                      String packageName) {
+        if (!isAccessible(method, packageName) || !isAccessible(declaringType, packageName)
+                || paramType.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+
+        return isAccessible(((DeclaredType) paramType).asElement(), packageName);
+    }
+
+    //element和它外层的类都要能在packageName里访问到
+    private static boolean isAccessible(Element element, String packageName) {
+        boolean samePackage = packageName.equals(packageOf(element).getQualifiedName().toString());
+
+        Element e = element;
+
+        while (!(e instanceof PackageElement)) {
+            Set<Modifier> modifiers = e.getModifiers();
+
+            if (modifiers.contains(Modifier.PRIVATE) || (!samePackage && !modifiers.contains(Modifier.PUBLIC))) {
+                return false;
+            }
+
+            e = e.getEnclosingElement();
+        }
+
+        return true;
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, Set<String> annotationNames) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+
+            if (annotationNames.contains(annotationType.getQualifiedName().toString())) {
+                return mirror;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 生成一个实现了注解接口的匿名类，包括没有写出来的默认值
+     */
+    private String annotationLiteral(AnnotationMirror annotation) {
+        String annotationType = ((TypeElement) annotation.getAnnotationType().asElement())
+                .getQualifiedName().toString();
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("new ").append(annotationType).append("() {\n");
+
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            ExecutableElement key = entry.getKey();
+
+            sb.append("                @Override\n");
+            sb.append("                public ").append(key.getReturnType()).append(" ")
+                    .append(key.getSimpleName()).append("() {\n");
+            sb.append("                    return ").append(valueLiteral(entry.getValue().getValue()))
+                    .append(";\n");
+            sb.append("                }\n\n");
+        }
+
+        sb.append("                @Override\n");
+        sb.append("                public Class<? extends java.lang.annotation.Annotation> annotationType() {\n");
+        sb.append("                    return ").append(annotationType).append(".class;\n");
+        sb.append("                }\n");
+        sb.append("            }");
+
+        return sb.toString();
+    }
+
+    //目前这几个注解里只有 String int boolean Class 和 enum
+    private String valueLiteral(Object value) {
+        if (value instanceof String) {
+            return "\"" + escape((String) value) + "\"";
+        }
+
+        if (value instanceof TypeMirror) {
+            return erasure((TypeMirror) value) + ".class";
+        }
+
+        if (value instanceof VariableElement) {
+            VariableElement constant = (VariableElement) value;
+
+            return erasure(constant.getEnclosingElement().asType()) + "." + constant.getSimpleName();
+        }
+
+        if (value instanceof Long) {
+            return value + "L";
+        }
+
+        if (value instanceof Character) {
+            return "'" + escape(String.valueOf(value)) + "'";
+        }
+
+        return String.valueOf(value);
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder();
+
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\'':
+                    sb.append("\\'");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private TypeMirror erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type);
+    }
+
+    private static TypeElement superClassOf(TypeElement type) {
+        TypeMirror superType = type.getSuperclass();
+
+        if (superType.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        return (TypeElement) ((DeclaredType) superType).asElement();
+    }
+
+    private static boolean isSystemClass(TypeElement type) {
+        String name = type.getQualifiedName().toString();
+
+        for (String prefix : SYSTEM_PACKAGE_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static PackageElement packageOf(Element element) {
+        Element e = element;
+
+        while (!(e instanceof PackageElement)) {
+            e = e.getEnclosingElement();
+        }
+
+        return (PackageElement) e;
+    }
+}
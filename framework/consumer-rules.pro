@@ -0,0 +1,10 @@
+# 编译期生成的订阅索引，运行时通过 原类名 + "_EventIndex" 反射加载
+-keep class **_EventIndex { public <init>(); }
+
+# 没有索引的类还是走反射找注解，索引里也是按原名直接调用，订阅的方法和字段不能被删掉或者改名
+-keepattributes *Annotation*
+-keepclassmembers class * {
+    @com.hydra.framework.event.fw.FWEventAnnotation <methods>;
+    @com.hydra.framework.event.kvo.KvoMethodAnnotation <methods>;
+    @com.hydra.framework.event.kvo.KvoFieldAnnotation <fields>;
+}
@@ -1,33 +1,49 @@
 package com.hydra.framework.event.core;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.hydra.framework.utils.JFlagUtil;
 import com.hydra.framework.utils.StringUtils;
 
 /**
  * Created by Hydra.
  * 保证在一个dispatcher内的action唯一
+ * <p>
+ * 每个EventAction在构造时会去EventActionRegistry里拿一个唯一的int id，
+ * class相同并且action相同的EventAction拿到的id是一样的，hashCode和equals都只用这个id
  */
 public class EventAction {
 
     //EventAction的flag范围是 1 ~ 1<<15 一共15个标志位，其他继承自EventAction的要从 1<<16 开始
     public static final int EVENTACTION_FLAG_STICKY = 1;
 
+    //有序派发，receiver按优先级一个接一个执行，跨线程也保证顺序和done，见EventReceiverChain
+    public static final int EVENTACTION_FLAG_ORDERED = 1 << 1;
+
     private final Object mAction;
 
     private final int mFlag;
 
-    private final String mHashCodeStr;
+    private final int mId;
+
+    //不参与equals和hashCode，同一个action在各处构造时要用同样的策略
+    @Nullable
+    private final EventReplayPolicy mReplayPolicy;
 
     public EventAction(@NonNull Object action) {
         this(action, 0);
     }
 
     public EventAction(@NonNull Object action, int flag) {
+        this(action, flag, null);
+    }
+
+    public EventAction(@NonNull Object action, int flag, @Nullable EventReplayPolicy replayPolicy) {
         mAction = action;
         mFlag = flag;
+        mReplayPolicy = replayPolicy;
 
-        mHashCodeStr = StringUtils.combineStr(getClass(), "-", mFlag, "-", mAction);
+        mId = EventActionRegistry.idFor(getClass(), action);
     }
 
     @SuppressWarnings("unchecked")
@@ -41,18 +57,26 @@ public class EventAction {
             return false;
         }
 
-        return getAction().equals(((EventAction) o).getAction());
+        return mId == ((EventAction) o).mId;
     }
 
     @NonNull
     @Override
     public String toString() {
-        return mHashCodeStr;
+        //只在打日志时用到，不缓存了
+        return StringUtils.combineStr(getClass(), "-", mFlag, "-", mAction);
     }
 
     @Override
     public int hashCode() {
-        return toString().hashCode();
+        return mId;
+    }
+
+    /**
+     * 注册表分配的id，从0开始连续，可以直接当数组下标
+     */
+    public int id() {
+        return mId;
     }
 
     public int flag() {
@@ -62,4 +86,20 @@ public class EventAction {
     public boolean isSticky() {
         return JFlagUtil.isFlag(mFlag, EVENTACTION_FLAG_STICKY);
     }
+
+    public boolean isOrdered() {
+        return JFlagUtil.isFlag(mFlag, EVENTACTION_FLAG_ORDERED);
+    }
+
+    @Nullable
+    public EventReplayPolicy replayPolicy() {
+        return mReplayPolicy;
+    }
+
+    /**
+     * sticky或者带重放的action，没有receiver时也要保留receiverList，里面存着要补发的intent
+     */
+    public boolean keepsIntents() {
+        return mReplayPolicy != null || isSticky();
+    }
 }
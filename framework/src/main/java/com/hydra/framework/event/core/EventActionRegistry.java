@@ -0,0 +1,66 @@
+package com.hydra.framework.event.core;
+
+import androidx.annotation.NonNull;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by Hydra.
+ * EventAction的注册表，给每一个EventAction分配一个从0开始连续的int id
+ * <p>
+ * 两个EventAction的class相同并且action equals，就会拿到同一个id，和EventAction.equals的语义一致
+ * 这样EventAction的hashCode和equals都只是比较一个int，Dispatcher也可以直接用id当数组下标
+ * <p>
+ * 注意：注册表里的id是永远不会回收的，所以action要是一个有限的集合(kvo的field name，FWEventActionKey这种)，
+ * 不要拿用户id之类无限增长的东西来当action
+ */
+final class EventActionRegistry {
+
+    private static final AtomicInteger sNextId = new AtomicInteger(0);
+
+    //两层map，避免每次查找都要生成一个 class + action 的组合key
+    private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Object, Integer>> sActionIds =
+            new ConcurrentHashMap<>();
+
+    private EventActionRegistry() {
+    }
+
+    static int idFor(@NonNull Class<?> actionClass, @NonNull Object action) {
+        ConcurrentHashMap<Object, Integer> ids = sActionIds.get(actionClass);
+
+        if (ids == null) {
+            ConcurrentHashMap<Object, Integer> newIds = new ConcurrentHashMap<>();
+
+            ids = sActionIds.putIfAbsent(actionClass, newIds);
+
+            if (ids == null) {
+                ids = newIds;
+            }
+        }
+
+        Integer id = ids.get(action);
+
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (ids) {
+            id = ids.get(action);
+
+            if (id == null) {
+                id = sNextId.getAndIncrement();
+
+                ids.put(action, id);
+            }
+        }
+
+        return id;
+    }
+
+    /**
+     * 目前已经分配出去的id个数
+     */
+    static int size() {
+        return sNextId.get();
+    }
+}
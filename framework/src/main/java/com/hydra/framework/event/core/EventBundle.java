@@ -1,18 +1,27 @@
 package com.hydra.framework.event.core;
 
-import android.nfc.Tag;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.hydra.framework.event.utils.EventLog;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * Created by Hydra.
  * 如果后续需要支持跨进程调用，需要添加序列化支持
+ * <p>
+ * 一个intent的参数一般只有几个，所以没有用ArrayList + HashMap，而是用数组来存：
+ * 1、所有参数(带key和不带key的)放在mArgs里，按添加的顺序
+ * 2、带key的参数放在mKeys/mKeyValues两个平行数组里，第一次putArg时才创建，查找时线性比较
+ *    (key一般都是常量，先比较==再equals)，个数很少时比hash更快，也不用Entry对象
+ * allArgs()和keyArgs()返回的是只读的视图，调用时才创建
  */
 @SuppressWarnings("unchecked")
 public class EventBundle {
@@ -21,15 +30,21 @@ public class EventBundle {
 
     public static final int EVENT_BUNDLE_FLAG_NONE = 0;
 
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    private static final int DEFAULT_ARG_CAPACITY = 4;
+
     private int mFlag;  //for extend
 
-    private List<Object> mAllArgs; //all args, include named and no-key args
-    private Map<String, Object> mKeyArgs; //args which has a key
+    private Object[] mArgs = EMPTY_ARGS; //all args, include named and no-key args
+    private int mArgCount;
 
-    public EventBundle() {
-        mAllArgs = new ArrayList<>();
-        mKeyArgs = new HashMap<>();
+    //args which has a key, mKeys[i] -> mKeyValues[i]
+    private String[] mKeys;
+    private Object[] mKeyValues;
+    private int mKeyCount;
 
+    public EventBundle() {
         mFlag = EVENT_BUNDLE_FLAG_NONE;
     }
 
@@ -39,20 +54,101 @@ public class EventBundle {
         putAll(other);
     }
 
+    /**
+     * 只读视图
+     */
     @NonNull
     public List<Object> allArgs() {
-        return mAllArgs;
+        return new AbstractList<Object>() {
+            @Override
+            public Object get(int index) {
+                if (index < 0 || index >= mArgCount) {
+                    throw new IndexOutOfBoundsException("index : " + index + " size : " + mArgCount);
+                }
+
+                return mArgs[index];
+            }
+
+            @Override
+            public int size() {
+                return mArgCount;
+            }
+        };
     }
 
+    /**
+     * 只读视图
+     */
     @NonNull
     public Map<String, Object> keyArgs() {
-        return mKeyArgs;
+        return new AbstractMap<String, Object>() {
+            @Override
+            public Object get(Object key) {
+                int index = key instanceof String ? indexOfKey((String) key) : -1;
+
+                return index < 0 ? null : mKeyValues[index];
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof String && indexOfKey((String) key) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return mKeyCount;
+            }
+
+            @NonNull
+            @Override
+            public Set<Entry<String, Object>> entrySet() {
+                return new AbstractSet<Entry<String, Object>>() {
+                    @NonNull
+                    @Override
+                    public Iterator<Entry<String, Object>> iterator() {
+                        return new Iterator<Entry<String, Object>>() {
+                            private int mIndex = 0;
+
+                            @Override
+                            public boolean hasNext() {
+                                return mIndex < mKeyCount;
+                            }
+
+                            @Override
+                            public Entry<String, Object> next() {
+                                if (mIndex >= mKeyCount) {
+                                    throw new NoSuchElementException();
+                                }
+
+                                Entry<String, Object> entry = new SimpleImmutableEntry<>(mKeys[mIndex],
+                                        mKeyValues[mIndex]);
+
+                                mIndex++;
+
+                                return entry;
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return mKeyCount;
+                    }
+                };
+            }
+        };
     }
 
     @Nullable
     public <T> T getArgWithKey(String key) {
+        int index = indexOfKey(key);
+
+        if (index < 0) {
+            return null;
+        }
+
         try {
-            return (T) mKeyArgs.get(key);
+            return (T) mKeyValues[index];
         } catch (ClassCastException e) {
             EventLog.error(TAG, "EventBundle getArgWithKey failed : " + e.toString());
         }
@@ -61,14 +157,14 @@ public class EventBundle {
     }
 
     public boolean hasArg(String key) {
-        return mKeyArgs.containsKey(key);
+        return indexOfKey(key) >= 0;
     }
 
     @Nullable
     public <T> T getArgWithIndex(int index) {
-        if (mAllArgs.size() > index && index >= 0) {
+        if (mArgCount > index && index >= 0) {
             try {
-                return (T) mAllArgs.get(index);
+                return (T) mArgs[index];
             } catch (ClassCastException e) {
                 EventLog.error(TAG, "EventBundle getArgWithIndex failed : " + e.toString());
             }
@@ -78,29 +174,176 @@ public class EventBundle {
 
     //add an arg, maybe has key or no-key
     public void addArg(Object arg) {
-        mAllArgs.add(arg);
+        ensureArgCapacity(mArgCount + 1);
+
+        mArgs[mArgCount++] = arg;
     }
 
     /**
      * add some args with no key
      */
     public void addArgs(Object... args) {
-        Collections.addAll(mAllArgs, args);
+        ensureArgCapacity(mArgCount + args.length);
+
+        System.arraycopy(args, 0, mArgs, mArgCount, args.length);
+
+        mArgCount += args.length;
     }
 
     /**
      * put a arg with key, with no duplicated
+     * 和之前HashMap的写法保持一致：key之前不存在(或者之前的值是null)时，才会加到allArgs里
      */
     public void putArg(@NonNull String key, @Nullable Object arg) {
-        if (mKeyArgs.put(key, arg) == null) {
+        int index = indexOfKey(key);
+
+        Object preArg = null;
+
+        if (index >= 0) {
+            preArg = mKeyValues[index];
+
+            mKeyValues[index] = arg;
+        } else {
+            ensureKeyCapacity(mKeyCount + 1);
+
+            mKeys[mKeyCount] = key;
+            mKeyValues[mKeyCount] = arg;
+
+            mKeyCount++;
+        }
+
+        if (preArg == null) {
             addArg(arg);
         }
     }
 
+    /**
+     * 和putArg一样，只是key之前不存在时，参数插到allArgs的index位置(后面的往后挪)，而不是加在最后
+     * 给KvoEventIntent用的，它的source和新旧值是晚写到bundle里的，要保持在最前面的几个位置
+     */
+    public void putArgAt(int index, @NonNull String key, @Nullable Object arg) {
+        int keyIndex = indexOfKey(key);
+
+        Object preArg = null;
+
+        if (keyIndex >= 0) {
+            preArg = mKeyValues[keyIndex];
+
+            mKeyValues[keyIndex] = arg;
+        } else {
+            ensureKeyCapacity(mKeyCount + 1);
+
+            mKeys[mKeyCount] = key;
+            mKeyValues[mKeyCount] = arg;
+
+            mKeyCount++;
+        }
+
+        if (preArg != null) {
+            return;
+        }
+
+        if (index < 0 || index > mArgCount) {
+            index = mArgCount;
+        }
+
+        ensureArgCapacity(mArgCount + 1);
+
+        System.arraycopy(mArgs, index, mArgs, index + 1, mArgCount - index);
+
+        mArgs[index] = arg;
+        mArgCount++;
+    }
+
+    /**
+     * 给回收的EventIntent复用
+     */
+    public void clear() {
+        Arrays.fill(mArgs, 0, mArgCount, null);
+        mArgCount = 0;
+
+        if (mKeys != null) {
+            Arrays.fill(mKeys, 0, mKeyCount, null);
+            Arrays.fill(mKeyValues, 0, mKeyCount, null);
+        }
+        mKeyCount = 0;
+
+        mFlag = EVENT_BUNDLE_FLAG_NONE;
+    }
+
     public void putAll(@NonNull EventBundle other) {
-        mAllArgs.addAll(other.mAllArgs);
-        mKeyArgs.putAll(other.mKeyArgs);
+        ensureArgCapacity(mArgCount + other.mArgCount);
+
+        System.arraycopy(other.mArgs, 0, mArgs, mArgCount, other.mArgCount);
+
+        mArgCount += other.mArgCount;
+
+        for (int i = 0; i < other.mKeyCount; i++) {
+            String key = other.mKeys[i];
+            int index = indexOfKey(key);
+
+            if (index >= 0) {
+                mKeyValues[index] = other.mKeyValues[i];
+            } else {
+                ensureKeyCapacity(mKeyCount + 1);
+
+                mKeys[mKeyCount] = key;
+                mKeyValues[mKeyCount] = other.mKeyValues[i];
+
+                mKeyCount++;
+            }
+        }
 
         mFlag |= other.mFlag;
     }
+
+    private int indexOfKey(String key) {
+        String[] keys = mKeys;
+
+        for (int i = 0; i < mKeyCount; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+
+        if (key == null) {
+            return -1;
+        }
+
+        for (int i = 0; i < mKeyCount; i++) {
+            if (key.equals(keys[i])) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void ensureArgCapacity(int capacity) {
+        if (capacity <= mArgs.length) {
+            return;
+        }
+
+        mArgs = Arrays.copyOf(mArgs, Math.max(capacity, Math.max(DEFAULT_ARG_CAPACITY, mArgs.length * 2)));
+    }
+
+    private void ensureKeyCapacity(int capacity) {
+        if (mKeys == null) {
+            int size = Math.max(capacity, DEFAULT_ARG_CAPACITY);
+
+            mKeys = new String[size];
+            mKeyValues = new Object[size];
+
+            return;
+        }
+
+        if (capacity <= mKeys.length) {
+            return;
+        }
+
+        int size = Math.max(capacity, mKeys.length * 2);
+
+        mKeys = Arrays.copyOf(mKeys, size);
+        mKeyValues = Arrays.copyOf(mKeyValues, size);
+    }
 }
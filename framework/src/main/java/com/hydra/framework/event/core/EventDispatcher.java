@@ -1,7 +1,8 @@
 package com.hydra.framework.event.core;
 
 import androidx.annotation.NonNull;
-import java.util.HashMap;
+import com.hydra.framework.event.metrics.EventMetrics;
+import com.hydra.framework.event.metrics.IEventMetricsSink;
 
 /**
  * Created by Hydra.
@@ -28,6 +29,12 @@ import java.util.HashMap;
  * ---------------------------------------------------------------------
  * 更新，去掉读写锁的写法，转为synchronize，因为在addBinding后的一次通知里，可能会有二次绑定，造成同一线程的读写锁重入死锁，
  * 如果针对这种情形去设计一个更复杂的锁，感觉性价比不高，这个复杂的点就在于是一个map，可能有其他的key造成重入，就用synchronize吧
+ * ---------------------------------------------------------------------
+ * 再更新，mConnections换成以EventAction.id()为下标的copy on write数组，读(notifyEvent和removeBinding里的第一次get)不再加锁，
+ * 也不用再对EventAction做hash；写(put和trim)仍然全部在mLock里，所以上面add和trim的互斥关系不变：
+ * 1、addBinding的get、put、receiverList.add都在mLock里，trim也在mLock里，被trim掉的receiverList不可能再被add
+ * 2、notifyEvent无锁读到一个刚被trim掉的receiverList，它已经是空的了，通知不到任何人，和之前加锁读的结果是一样的
+ * 3、mLock还是synchronize，所以sticky通知里的二次绑定依然可以重入
  */
 public class EventDispatcher {
 
@@ -35,17 +42,34 @@ public class EventDispatcher {
 
     private transient final Object mLock = new Object();
 
-    private final transient HashMap<EventAction, EventReceiverList> mConnections = new HashMap<>();
+    //action id是全局连续分配的，一个dispatcher只会用到其中很少一部分，所以分页存，没用到的页是null
+    private static final int CONNECTION_PAGE_SHIFT = 4;
+    private static final int CONNECTION_PAGE_SIZE = 1 << CONNECTION_PAGE_SHIFT;
+    private static final int CONNECTION_PAGE_MASK = CONNECTION_PAGE_SIZE - 1;
+
+    private static final EventReceiverList[][] EMPTY_CONNECTIONS = new EventReceiverList[0][];
+
+    //只有读是无锁的，写都要在mLock里；发布出去的数组(包括每一页)不会再被修改，修改时拷贝一份再重新发布
+    private transient volatile EventReceiverList[][] mConnections = EMPTY_CONNECTIONS;
+
+    private transient volatile int mConnectionCount = 0;
+
+    //这个dispatcher下所有重放缓冲区一共最多保留的intent数
+    public static final int DEFAULT_REPLAY_BUDGET = 64;
+
+    private transient final EventReplayBudget mReplayBudget = new EventReplayBudget(DEFAULT_REPLAY_BUDGET);
 
     public void addBinding(@NonNull final EventAction eventAction, @NonNull final EventReceiver receiver) {
+        EventReceiverReaper.reclaim();
+
         EventReceiverList receiverList;
 
         synchronized (mLock) {
-            receiverList = mConnections.get(eventAction);
+            receiverList = getConnection(eventAction);
 
             if (receiverList == null) {
-                receiverList = buildEventReceiverList(eventAction);
-                mConnections.put(eventAction, receiverList);
+                receiverList = newReceiverList(eventAction);
+                putConnection(eventAction, receiverList);
             }
 
             receiverList.add(receiver); //操作要在锁内，为了保证sticky(比如kvo绑定时的那次)通知的时序是最早的
@@ -56,13 +80,29 @@ public class EventDispatcher {
         return new EventReceiverList(eventAction);
     }
 
-    public void removeBinding(@NonNull final EventAction eventAction, @NonNull final EventReceiver receiver) {
-        EventReceiverList receiverList;
+    //调用者需要持有mLock
+    private EventReceiverList newReceiverList(final EventAction eventAction) {
+        EventReceiverList receiverList = buildEventReceiverList(eventAction);
 
-        synchronized (mLock) {
-            receiverList = mConnections.get(eventAction);
+        if (eventAction.replayPolicy() != null) {
+            receiverList.attachReplayBudget(mReplayBudget);
         }
 
+        return receiverList;
+    }
+
+    /**
+     * 重放缓冲区的总预算，按intent个数算；调小了不会立即清理，之后每次记录时先挤掉那个action自己最老的
+     */
+    public void setReplayBudget(int maxIntents) {
+        mReplayBudget.setLimit(maxIntents);
+    }
+
+    public void removeBinding(@NonNull final EventAction eventAction, @NonNull final EventReceiver receiver) {
+        EventReceiverReaper.reclaim();
+
+        EventReceiverList receiverList = getConnection(eventAction);
+
         if (receiverList == null) {
             return;
         }
@@ -70,45 +110,163 @@ public class EventDispatcher {
         receiverList.remove(receiver);
 
         //在这里判断size，不在下面的二次get加锁里面判断是因为trim操作是一个不要求很严格的操作
-        if (eventAction.isSticky() || receiverList.size() > 0) {
+        if (eventAction.keepsIntents() || receiverList.size() > 0) {
             return;
         }
 
         synchronized (mLock) {
-            receiverList = mConnections.get(eventAction);
+            receiverList = getConnection(eventAction);
 
             if (receiverList != null) {
-                receiverList.onTrim(mConnections);
+                receiverList.onTrim(this);
             }
         }
     }
 
-    public void notifyEvent(@NonNull final EventIntent eventIntent) {
-        EventAction eventAction = eventIntent.eventAction();
+    /**
+     * 批量绑定，eventActions[i]绑定receivers[i]，结果和按顺序调用addBinding一样，区别在于：
+     * 1、mLock只拿一次，缺少的receiverList一起创建，mConnections只重新发布一次
+     * 2、先把所有receiver都登记好，再按传入的顺序补发sticky和onAddBinding(kvo绑定时的那次)的通知，
+     *    所以在任何一个通知的回调里，这一批的绑定都已经全部生效了
+     */
+    public void addBindings(@NonNull final EventAction[] eventActions, @NonNull final EventReceiver[] receivers) {
+        if (eventActions.length != receivers.length) {
+            throw new IllegalArgumentException("actions count " + eventActions.length
+                    + " not equal to receivers count " + receivers.length);
+        }
 
-        EventReceiverList receiverList;
+        EventReceiverReaper.reclaim();
+
+        int count = receivers.length;
+
+        if (count == 0) {
+            return;
+        }
+
+        EventReceiverList[] receiverLists = new EventReceiverList[count];
+        long[] notifyVersions = new long[count];
+
+        synchronized (mLock) {
+            EventReceiverList[] newLists = null;
+            int newCount = 0;
+
+            for (int i = 0; i < count; i++) {
+                EventAction eventAction = eventActions[i];
+
+                EventReceiverList receiverList = getConnection(eventAction);
+
+                //同一批里可能有多个receiver绑定同一个action
+                for (int j = 0; receiverList == null && j < newCount; j++) {
+                    if (newLists[j].mEventAction.equals(eventAction)) {
+                        receiverList = newLists[j];
+                    }
+                }
+
+                if (receiverList == null) {
+                    if (newLists == null) {
+                        newLists = new EventReceiverList[count];
+                    }
+
+                    receiverList = newReceiverList(eventAction);
+                    newLists[newCount++] = receiverList;
+                }
+
+                receiverLists[i] = receiverList;
+            }
+
+            if (newCount > 0) {
+                putConnections(newLists, newCount);
+            }
+
+            for (int i = 0; i < count; i++) {
+                notifyVersions[i] = receiverLists[i].register(receivers[i]);
+            }
+
+            //和addBinding一样，通知也在锁内
+            for (int i = 0; i < count; i++) {
+                if (notifyVersions[i] >= 0) {
+                    receiverLists[i].notifyRegistered(receivers[i], notifyVersions[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 批量解绑，eventActions[i]解绑receivers[i]，空了的receiverList最后在一次mLock里一起trim
+     */
+    public void removeBindings(@NonNull final EventAction[] eventActions, @NonNull final EventReceiver[] receivers) {
+        if (eventActions.length != receivers.length) {
+            throw new IllegalArgumentException("actions count " + eventActions.length
+                    + " not equal to receivers count " + receivers.length);
+        }
+
+        EventReceiverReaper.reclaim();
+
+        boolean needTrim = false;
+
+        for (int i = 0; i < receivers.length; i++) {
+            EventReceiverList receiverList = getConnection(eventActions[i]);
+
+            if (receiverList == null) {
+                continue;
+            }
+
+            receiverList.remove(receivers[i]);
+
+            if (!eventActions[i].keepsIntents() && receiverList.size() == 0) {
+                needTrim = true;
+            }
+        }
+
+        if (!needTrim) {
+            return;
+        }
 
         synchronized (mLock) {
-            receiverList = mConnections.get(eventAction);
+            for (EventAction eventAction : eventActions) {
+                if (eventAction.keepsIntents()) {
+                    continue;
+                }
+
+                EventReceiverList receiverList = getConnection(eventAction);
+
+                if (receiverList != null) {
+                    receiverList.onTrim(this);
+                }
+            }
         }
+    }
+
+    public void notifyEvent(@NonNull final EventIntent eventIntent) {
+        EventReceiverReaper.reclaimOnNotify();
+
+        EventAction eventAction = eventIntent.eventAction();
+
+        EventReceiverList receiverList = getConnection(eventAction);
 
         if (receiverList != null) {
             receiverList.invokeToReceivers(eventIntent);
             return;
         }
 
-        //虽然receiverList是空的，但是因为是sticky的，为了把最后一次的intent记录在ReceiverList中
-        if (!eventAction.isSticky()) {
+        //虽然receiverList是空的，但是因为是sticky或者重放的，为了把intent记录在ReceiverList中
+        if (!eventAction.keepsIntents()) {
+            IEventMetricsSink metricsSink = EventMetrics.sink();
+
+            if (metricsSink != null) {
+                metricsSink.onNotify(eventAction, 0);
+            }
+
             return;
         }
 
         synchronized (mLock) {
-            receiverList = mConnections.get(eventAction);
+            receiverList = getConnection(eventAction);
 
             if (receiverList == null) {
-                receiverList = buildEventReceiverList(eventAction);
+                receiverList = newReceiverList(eventAction);
 
-                mConnections.put(eventAction, receiverList);
+                putConnection(eventAction, receiverList);
 
                 //invoke nothing, only for save the last sticky intent
                 receiverList.invokeToReceivers(eventIntent);
@@ -117,8 +275,113 @@ public class EventDispatcher {
     }
 
     public boolean hasConnections() {
-        synchronized (mLock) {
-            return !mConnections.isEmpty();
+        return mConnectionCount > 0;
+    }
+
+    private EventReceiverList getConnection(@NonNull EventAction eventAction) {
+        EventReceiverList[][] connections = mConnections;
+
+        int id = eventAction.id();
+        int pageIndex = id >>> CONNECTION_PAGE_SHIFT;
+
+        if (pageIndex >= connections.length) {
+            return null;
+        }
+
+        EventReceiverList[] page = connections[pageIndex];
+
+        return page == null ? null : page[id & CONNECTION_PAGE_MASK];
+    }
+
+    //调用者需要持有mLock
+    private void putConnection(@NonNull EventAction eventAction, @NonNull EventReceiverList receiverList) {
+        int id = eventAction.id();
+        int pageIndex = id >>> CONNECTION_PAGE_SHIFT;
+
+        EventReceiverList[][] connections = mConnections;
+
+        EventReceiverList[][] newConnections = new EventReceiverList[Math.max(connections.length,
+                pageIndex + 1)][];
+        System.arraycopy(connections, 0, newConnections, 0, connections.length);
+
+        EventReceiverList[] page = newConnections[pageIndex];
+
+        EventReceiverList[] newPage = new EventReceiverList[CONNECTION_PAGE_SIZE];
+
+        if (page != null) {
+            System.arraycopy(page, 0, newPage, 0, CONNECTION_PAGE_SIZE);
         }
+
+        newPage[id & CONNECTION_PAGE_MASK] = receiverList;
+        newConnections[pageIndex] = newPage;
+
+        mConnections = newConnections;
+        mConnectionCount++;
+    }
+
+    //调用者需要持有mLock，receiverLists里的action互不相同，并且都还没有connection
+    private void putConnections(@NonNull EventReceiverList[] receiverLists, int count) {
+        EventReceiverList[][] connections = mConnections;
+
+        int maxPageIndex = connections.length - 1;
+
+        for (int i = 0; i < count; i++) {
+            maxPageIndex = Math.max(maxPageIndex, receiverLists[i].mEventAction.id() >>> CONNECTION_PAGE_SHIFT);
+        }
+
+        EventReceiverList[][] newConnections = new EventReceiverList[maxPageIndex + 1][];
+        System.arraycopy(connections, 0, newConnections, 0, connections.length);
+
+        for (int i = 0; i < count; i++) {
+            int id = receiverLists[i].mEventAction.id();
+            int pageIndex = id >>> CONNECTION_PAGE_SHIFT;
+
+            EventReceiverList[] page = newConnections[pageIndex];
+
+            //已经发布出去的页不能改，每页最多拷贝一次
+            if (page == null) {
+                page = new EventReceiverList[CONNECTION_PAGE_SIZE];
+                newConnections[pageIndex] = page;
+            } else if (pageIndex < connections.length && page == connections[pageIndex]) {
+                page = page.clone();
+                newConnections[pageIndex] = page;
+            }
+
+            page[id & CONNECTION_PAGE_MASK] = receiverLists[i];
+        }
+
+        mConnections = newConnections;
+        mConnectionCount += count;
+    }
+
+    //调用者需要持有mLock，由EventReceiverList.onTrim回调
+    void removeConnection(@NonNull EventAction eventAction) {
+        int id = eventAction.id();
+        int pageIndex = id >>> CONNECTION_PAGE_SHIFT;
+
+        EventReceiverList[][] connections = mConnections;
+
+        if (pageIndex >= connections.length || connections[pageIndex] == null
+                || connections[pageIndex][id & CONNECTION_PAGE_MASK] == null) {
+            return;
+        }
+
+        EventReceiverList[] newPage = connections[pageIndex].clone();
+        newPage[id & CONNECTION_PAGE_MASK] = null;
+
+        boolean emptyPage = true;
+
+        for (EventReceiverList receiverList : newPage) {
+            if (receiverList != null) {
+                emptyPage = false;
+                break;
+            }
+        }
+
+        EventReceiverList[][] newConnections = connections.clone();
+        newConnections[pageIndex] = emptyPage ? null : newPage;
+
+        mConnections = newConnections;
+        mConnectionCount--;
     }
 }
@@ -2,31 +2,59 @@ package com.hydra.framework.event.core;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.hydra.framework.event.utils.EventUtils;
 import com.hydra.framework.utils.JFlagUtil;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * Created by Hydra.
  * 可以后续加入Action/Scheme等过滤条件，相应的dispatcher也要更复杂
  * 如果需要支持跨进程调用，添加序列化支持
  * EventIntent和EventBundle是模仿系统的Intent和Bundle来写的
+ * <p>
+ * 对象池：高频的事件可以用obtain从池子里取intent，参考系统Message的obtain/recycle
+ * 池子里的intent带引用计数，obtain时是1(发送者持有)，每个切线程的receiver在post前retain，执行完release，
+ * 发送者通知完release，计数归0时回收到池子里；new出来的intent不受影响，retain/release什么都不做
+ * <p>
+ * 所以接收池子里的intent的receiver，不能在接收函数返回后继续持有这个intent(比如存起来或者再post到别的线程)，
+ * 需要的话自己retain/release，或者把参数拷贝出来
+ * debug模式下回收的intent不会再放回池子里，并且回收后再访问会直接抛异常，方便发现这种问题
  */
 public class EventIntent {
 
     // TODO: hydra add more flag
     public static final int EVENT_INTENT_DONE_FLAG = 1;
 
-    private final EventAction mEventAction;
-    private final EventSender mSender;
+    private static final int MAX_POOL_SIZE = 20;
 
-    private final AtomicInteger mFlag;
+    private static final Object sPoolSync = new Object();
+    private static EventIntent sPool;
+    private static int sPoolSize = 0;
+
+    //用FieldUpdater，省掉每个intent一个AtomicInteger对象
+    private static final AtomicIntegerFieldUpdater<EventIntent> FLAG_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(EventIntent.class, "mFlag");
+    private static final AtomicIntegerFieldUpdater<EventIntent> REF_COUNT_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(EventIntent.class, "mRefCount");
+
+    //下面三个只有从池子里取出来时会被重新赋值
+    private EventAction mEventAction;
+    private EventSender mSender;
 
     /**
      * 此次事件是否是sticky类型的通知
      */
-    private final boolean mIsStickyNotify;
+    private boolean mIsStickyNotify;
+
+    private volatile int mFlag;
 
-    private EventBundle mBundle;
+    private final EventBundle mBundle;
+
+    //池子相关
+    private EventIntent mNext;
+    private boolean mRecyclable;
+    private volatile int mRefCount;
+    private volatile boolean mRecycled;
 
     public EventIntent(@Nullable EventSender sender, @NonNull EventAction eventAction, boolean isStickyNotify) {
         mBundle = new EventBundle();
@@ -34,23 +62,117 @@ public class EventIntent {
         mSender = sender;
         mEventAction = eventAction;
 
-        mFlag = new AtomicInteger(0);
+        mFlag = 0;
 
         mIsStickyNotify = isStickyNotify;
     }
 
+    /**
+     * 从池子里取一个intent，用完(通知完)以后发送者要调用release
+     */
+    @NonNull
+    public static EventIntent obtain(@Nullable EventSender sender, @NonNull EventAction eventAction) {
+        EventIntent eventIntent = null;
+
+        synchronized (sPoolSync) {
+            if (sPool != null) {
+                eventIntent = sPool;
+                sPool = eventIntent.mNext;
+
+                eventIntent.mNext = null;
+                sPoolSize--;
+            }
+        }
+
+        if (eventIntent == null) {
+            eventIntent = new EventIntent(sender, eventAction, false);
+        } else {
+            eventIntent.mSender = sender;
+            eventIntent.mEventAction = eventAction;
+            eventIntent.mIsStickyNotify = false;
+            eventIntent.mFlag = 0;
+        }
+
+        eventIntent.mRecyclable = true;
+        eventIntent.mRecycled = false;
+        eventIntent.mRefCount = 1;
+
+        return eventIntent;
+    }
+
+    /**
+     * 池子里的intent要跨线程使用时，先retain，用完后release
+     */
+    public void retain() {
+        if (mRecyclable) {
+            checkNotRecycled();
+
+            REF_COUNT_UPDATER.incrementAndGet(this);
+        }
+    }
+
+    public void release() {
+        if (!mRecyclable) {
+            return;
+        }
+
+        int refCount = REF_COUNT_UPDATER.decrementAndGet(this);
+
+        if (refCount == 0) {
+            recycle();
+        } else if (refCount < 0 && EventUtils.sIsDebuggable) {
+            throw new IllegalStateException("EventIntent released too many times : " + mEventAction);
+        }
+    }
+
+    public boolean isRecyclable() {
+        return mRecyclable;
+    }
+
+    private void recycle() {
+        mRecycled = true;
+
+        mBundle.clear();
+        mSender = null;
+
+        //debug模式下不放回池子，这样回收后的访问都能被checkNotRecycled发现
+        if (EventUtils.sIsDebuggable) {
+            return;
+        }
+
+        synchronized (sPoolSync) {
+            if (sPoolSize < MAX_POOL_SIZE) {
+                mNext = sPool;
+                sPool = this;
+                sPoolSize++;
+            }
+        }
+    }
+
+    private void checkNotRecycled() {
+        if (mRecycled && EventUtils.sIsDebuggable) {
+            throw new IllegalStateException("EventIntent is used after recycled : " + mEventAction);
+        }
+    }
+
     @NonNull
     public EventAction eventAction() {
+        checkNotRecycled();
+
         return mEventAction;
     }
 
     @Nullable
     public EventSender eventSender() {
+        checkNotRecycled();
+
         return mSender;
     }
 
     @NonNull
     public EventBundle eventBundle() {
+        checkNotRecycled();
+
         return mBundle;
     }
 
@@ -60,10 +182,14 @@ public class EventIntent {
 
     @Nullable
     public <T> T getArgWithIndex(int index) {
+        checkNotRecycled();
+
         return mBundle.getArgWithIndex(index);
     }
 
     public void putBundle(@NonNull EventBundle eventBundle) {
+        checkNotRecycled();
+
         mBundle.putAll(eventBundle);
     }
 
@@ -84,14 +210,20 @@ public class EventIntent {
     }
 
     public void putArg(@NonNull String name, @Nullable Object arg) {
+        checkNotRecycled();
+
         mBundle.putArg(name, arg);
     }
 
     public <T> T getArgWithKey(@NonNull String key) {
+        checkNotRecycled();
+
         return mBundle.getArgWithKey(key);
     }
 
     public void addArgs(@NonNull Object... args) {
+        checkNotRecycled();
+
         mBundle.addArgs(args);
     }
 
@@ -100,14 +232,14 @@ public class EventIntent {
         int nextFlag;
 
         do {
-            current = mFlag.get();
+            current = mFlag;
 
             nextFlag = current | newFlag;
-        } while (!mFlag.compareAndSet(current, nextFlag));
+        } while (!FLAG_UPDATER.compareAndSet(this, current, nextFlag));
     }
 
     public int flag() {
-        return mFlag.get();
+        return mFlag;
     }
 
     public void done() {
@@ -115,11 +247,11 @@ public class EventIntent {
     }
 
     /**
-     * TODO 对于接受者不在同一线程中的情况，done的标志位还需要再加一些处理
-     * 目前这里是和eventbus一样的写法，但是我觉得这样写不太好
-     * 可以后面加入专门的interceptor来同步回调拦截
+     * 普通派发时，done只能拦住排在后面的同步receiver，和同一个线程批里排在后面的receiver，
+     * 已经post到其他线程的拦不住，这里是和eventbus一样的写法
+     * 需要跨线程也能拦住的，action加上EVENTACTION_FLAG_ORDERED走有序派发，见EventReceiverChain
      */
     public boolean haveDone() {
-        return JFlagUtil.isFlag(mFlag.get(), EVENT_INTENT_DONE_FLAG);
+        return JFlagUtil.isFlag(mFlag, EVENT_INTENT_DONE_FLAG);
     }
 }
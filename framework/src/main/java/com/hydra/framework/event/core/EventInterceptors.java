@@ -0,0 +1,64 @@
+package com.hydra.framework.event.core;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * Created by Hydra.
+ * 拦截器的安装入口，全局生效，按安装的顺序调用，前一个的返回值传给后一个，有一个返回null就拦截了
+ * <p>
+ * 目前只有有序派发的action会走拦截器，普通的派发不受影响
+ */
+public final class EventInterceptors {
+
+    private static final IEventInterceptor[] EMPTY_INTERCEPTORS = new IEventInterceptor[0];
+
+    private static final Object sLock = new Object();
+
+    //copy on write，派发时直接读
+    private static volatile IEventInterceptor[] sInterceptors = EMPTY_INTERCEPTORS;
+
+    private EventInterceptors() {
+    }
+
+    public static void add(@NonNull IEventInterceptor interceptor) {
+        synchronized (sLock) {
+            IEventInterceptor[] interceptors = sInterceptors;
+
+            for (IEventInterceptor exist : interceptors) {
+                if (exist == interceptor) {
+                    return;
+                }
+            }
+
+            IEventInterceptor[] newInterceptors = Arrays.copyOf(interceptors, interceptors.length + 1);
+            newInterceptors[interceptors.length] = interceptor;
+
+            sInterceptors = newInterceptors;
+        }
+    }
+
+    public static void remove(@NonNull IEventInterceptor interceptor) {
+        synchronized (sLock) {
+            IEventInterceptor[] interceptors = sInterceptors;
+
+            for (int i = 0; i < interceptors.length; i++) {
+                if (interceptors[i] != interceptor) {
+                    continue;
+                }
+
+                IEventInterceptor[] newInterceptors = new IEventInterceptor[interceptors.length - 1];
+                System.arraycopy(interceptors, 0, newInterceptors, 0, i);
+                System.arraycopy(interceptors, i + 1, newInterceptors, i, interceptors.length - i - 1);
+
+                sInterceptors = newInterceptors;
+                return;
+            }
+        }
+    }
+
+    @NonNull
+    static IEventInterceptor[] interceptors() {
+        return sInterceptors;
+    }
+}
@@ -3,15 +3,26 @@ package com.hydra.framework.event.core;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.hydra.framework.event.core.helper.EventInvokerHelper;
+import com.hydra.framework.event.metrics.EventMetrics;
+import com.hydra.framework.event.metrics.IEventMetricsSink;
 import com.hydra.framework.event.utils.EventLog;
 import com.hydra.framework.event.utils.EventUtils;
 import com.hydra.framework.utils.StringUtils;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
-import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by Hydra.
+ * <p>
+ * receiver的身份是 method id + target对象本身(==)，method id是第一次用到这个method时分配的，
+ * 不再用字符串拼接后的hash，所以也不会因为hash冲突把两个不同的receiver当成同一个
+ * <p>
+ * 派发顺序只看priority和加入list的先后，见EventReceiverBuckets
+ * <p>
+ * 接收函数通过IEventInvoker来调用，不指定的话用EventInvokerHelper里缓存的(注册的直接调用或者反射)
  */
 public class EventReceiver {
 
@@ -19,16 +30,35 @@ public class EventReceiver {
 
     public static final int DEFAULT_EVENT_RECEIVER_PRIORITY = 0;
 
-    static Comparator<EventReceiver> sEventReceiverComparator = (lhs, rhs) -> {
-        if (lhs.mReceiverHashCode == rhs.mReceiverHashCode) {
-            return 0;
+    private static final ConcurrentHashMap<Method, Integer> sMethodIds = new ConcurrentHashMap<>();
+    private static final AtomicInteger sNextMethodId = new AtomicInteger(0);
+
+    /**
+     * target的弱引用，注册在EventReceiverReaper的队列上；
+     * receiver被加到list里时记下所在的list，target被回收后reaper通过它把receiver从list里删掉
+     * <p>
+     * 同一个receiver对象只应该加到一个list里，加到多个list的话只记最后一个，其他list里的等通知时再删
+     */
+    static final class TargetReference extends WeakReference<Object> {
+
+        private final EventReceiver mReceiver;
+
+        private volatile EventReceiverList mOwner;
+
+        TargetReference(Object target, EventReceiver receiver) {
+            super(target, EventReceiverReaper.sDeadTargets);
+
+            mReceiver = receiver;
         }
 
-        int priorityResult = Integer.compare(rhs.priority, lhs.priority);
+        void onTargetCollected() {
+            EventReceiverList owner = mOwner;
 
-        return priorityResult > 0 ? 1 : (priorityResult < 0 ? -1 :
-                Integer.compare(rhs.mReceiverHashCode, lhs.mReceiverHashCode));
-    };
+            if (owner != null) {
+                owner.onTargetCollected(mReceiver);
+            }
+        }
+    }
 
     @Nullable
     protected final IEventThread thread;  //if null 同步调用
@@ -36,19 +66,80 @@ public class EventReceiver {
     protected final int flag;
     protected final WeakReference<Object> target;
     protected final Method entry;
+    protected final IEventInvoker invoker;
+    protected final int mMethodId;
     protected final int mReceiverHashCode;
 
+    private final TargetReference mTargetReference;
+
     public EventReceiver(Object target, Method entry, @Nullable IEventThread thread, int priority, int flag) {
-        this.target = new WeakReference<>(target);
+        this(target, entry, EventInvokerHelper.invokerFor(entry), thread, priority, flag);
+    }
+
+    public EventReceiver(Object target, Method entry, @NonNull IEventInvoker invoker,
+                         @Nullable IEventThread thread, int priority, int flag) {
+        mTargetReference = new TargetReference(target, this);
+
+        this.target = mTargetReference;
         this.entry = entry;
+        this.invoker = invoker;
         this.thread = thread;
         this.flag = flag;
         this.priority = priority;
 
-        mReceiverHashCode = StringUtils.combineStr(target.getClass(), entry, target.hashCode()).hashCode();
+        mMethodId = methodId(entry);
+        mReceiverHashCode = 31 * mMethodId + System.identityHashCode(target);
+    }
+
+    private static int methodId(@NonNull Method method) {
+        Integer id = sMethodIds.get(method);
+
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (sMethodIds) {
+            id = sMethodIds.get(method);
+
+            if (id == null) {
+                id = sNextMethodId.getAndIncrement();
+
+                sMethodIds.put(method, id);
+            }
+        }
+
+        return id;
     }
 
     public boolean invoke(final EventIntent eventIntent) {
+        final Object targetObj = aliveTarget();
+
+        if (targetObj == null) {
+            return false;
+        }
+
+        scheduleInvoke(targetObj, eventIntent);
+
+        return true;
+    }
+
+    //调用者持有list的锁
+    void attach(EventReceiverList owner) {
+        mTargetReference.mOwner = owner;
+    }
+
+    //调用者持有list的锁
+    void detach(EventReceiverList owner) {
+        if (mTargetReference.mOwner == owner) {
+            mTargetReference.mOwner = null;
+        }
+    }
+
+    /**
+     * target被回收了返回null
+     */
+    @Nullable
+    Object aliveTarget() {
         final Object targetObj = target.get();
 
         if (targetObj == null) {
@@ -59,26 +150,58 @@ public class EventReceiver {
                 EventLog.error(TAG, "invoke failed target has been recycled, method is : "
                     + entry + ", error: " + e);
             }
-
-            return false;
         }
 
-        scheduleInvoke(targetObj, eventIntent);
+        return targetObj;
+    }
 
-        return true;
+    /**
+     * 这次通知要投递到哪个线程，null就是在派发线程里同步调用
+     * <p>
+     * EventReceiverList批量派发时，会把投递到同一个线程的receiver合成一次post，
+     * 所以子类要改线程行为的话，覆盖这个，不要只覆盖scheduleInvoke
+     */
+    @Nullable
+    protected IEventThread deliveryThread(@NonNull EventIntent eventIntent) {
+        return thread;
     }
 
     protected void scheduleInvoke(@NonNull Object targetObj, final EventIntent eventIntent) {
-        if (thread != null) {
-            thread.post(() -> doInvoke(targetObj, eventIntent));
+        IEventThread deliveryThread = deliveryThread(eventIntent);
+
+        if (deliveryThread != null) {
+            //池子里的intent，切线程时要多持有一次，执行完再释放
+            eventIntent.retain();
+
+            final long postNanos = EventMetrics.sink() != null ? System.nanoTime() : 0;
+
+            boolean posted = deliveryThread.post(() -> {
+                try {
+                    if (postNanos != 0) {
+                        recordDeliveryDelay(eventIntent, postNanos);
+                    }
+
+                    doInvoke(targetObj, eventIntent);
+                } finally {
+                    eventIntent.release();
+                }
+            });
+
+            if (!posted) {
+                eventIntent.release();
+            }
         } else {
             doInvoke(targetObj, eventIntent);
         }
     }
 
     protected void doInvoke(Object target, EventIntent eventIntent) {
+        IEventMetricsSink metricsSink = EventMetrics.sink();
+
+        long startNanos = metricsSink != null ? System.nanoTime() : 0;
+
         try {
-            entry.invoke(target, eventIntent);
+            invoker.invoke(target, eventIntent);
         } catch (Throwable e) {
             EventLog.error(TAG, "invoke failed target error : " + Log.getStackTraceString(e) +
                             " cause : " + e.getCause() + " method : " + entry.toString());
@@ -87,19 +210,46 @@ public class EventReceiver {
                 throw new RuntimeException(e);
             }
         }
+
+        if (metricsSink != null) {
+            metricsSink.onInvoke(eventIntent.eventAction(), entry, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 切线程的receiver开始执行时调用，postNanos是post时的System.nanoTime()
+     */
+    void recordDeliveryDelay(EventIntent eventIntent, long postNanos) {
+        IEventMetricsSink metricsSink = EventMetrics.sink();
+
+        if (metricsSink != null) {
+            metricsSink.onDeliveryDelay(eventIntent.eventAction(), entry, System.nanoTime() - postNanos);
+        }
     }
 
+    /**
+     * target被回收了以后，只有和自己比较才是相等的
+     */
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
         if (!(obj instanceof EventReceiver)) {
             return false;
         }
 
         EventReceiver other = (EventReceiver) obj;
 
-        return other.mReceiverHashCode == mReceiverHashCode && other.entry == entry
-                && thread == other.thread && priority == other.priority
-                && flag == other.flag;
+        if (other.mReceiverHashCode != mReceiverHashCode || other.mMethodId != mMethodId
+                || thread != other.thread || priority != other.priority || flag != other.flag) {
+            return false;
+        }
+
+        Object targetObj = target.get();
+
+        return targetObj != null && targetObj == other.target.get();
     }
 
     /**
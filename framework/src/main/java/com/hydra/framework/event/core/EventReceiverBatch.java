@@ -0,0 +1,96 @@
+package com.hydra.framework.event.core;
+
+import androidx.annotation.NonNull;
+import com.hydra.framework.event.metrics.EventMetrics;
+import java.util.Arrays;
+
+/**
+ * Created by Hydra.
+ * 一次通知里，所有投递到同一个线程的receiver合成一个Runnable，只post一次，
+ * 不用每个receiver都post一个lambda(一个Message，一次looper唤醒)
+ * <p>
+ * 批里receiver的顺序就是EventReceiverList快照里的顺序，即优先级顺序
+ * <p>
+ * 关于haveDone：
+ * 1、post的时候intent已经done了，说明是排在批里所有receiver后面的同步receiver done的，
+ * 按原来一个一个post的行为，批里的receiver都要调用，所以不再检查
+ * 2、否则批里每调用一个receiver前都检查一次，某个receiver done了以后，后面的就不再调用
+ */
+final class EventReceiverBatch implements Runnable {
+
+    private static final int DEFAULT_BATCH_CAPACITY = 4;
+
+    private final IEventThread mThread;
+
+    private final EventIntent mEventIntent;
+
+    private EventReceiver[] mReceivers = new EventReceiver[DEFAULT_BATCH_CAPACITY];
+
+    //切线程时要持有target的强引用，和原来lambda里捕获targetObj一样
+    private Object[] mTargets = new Object[DEFAULT_BATCH_CAPACITY];
+
+    private int mCount;
+
+    private boolean mIgnoreDone;
+
+    //装了统计的时候是post时的System.nanoTime()，否则是0
+    private long mPostNanos;
+
+    EventReceiverBatch(@NonNull IEventThread thread, @NonNull EventIntent eventIntent) {
+        mThread = thread;
+        mEventIntent = eventIntent;
+    }
+
+    IEventThread thread() {
+        return mThread;
+    }
+
+    void add(@NonNull EventReceiver receiver, @NonNull Object targetObj) {
+        if (mCount == mReceivers.length) {
+            mReceivers = Arrays.copyOf(mReceivers, mCount * 2);
+            mTargets = Arrays.copyOf(mTargets, mCount * 2);
+        }
+
+        mReceivers[mCount] = receiver;
+        mTargets[mCount] = targetObj;
+
+        mCount++;
+    }
+
+    void post() {
+        mIgnoreDone = mEventIntent.haveDone();
+
+        mPostNanos = EventMetrics.sink() != null ? System.nanoTime() : 0;
+
+        //池子里的intent，一个批只多持有一次，整个批执行完再释放
+        mEventIntent.retain();
+
+        if (!mThread.post(this)) {
+            mEventIntent.release();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (int i = 0; i < mCount; i++) {
+                if (!mIgnoreDone && mEventIntent.haveDone()) {
+                    break;
+                }
+
+                EventReceiver receiver = mReceivers[i];
+
+                //排队时间包括了批里排在前面的receiver的执行时间，和一个一个post时是一样的
+                if (mPostNanos != 0) {
+                    receiver.recordDeliveryDelay(mEventIntent, mPostNanos);
+                }
+
+                receiver.doInvoke(mTargets[i], mEventIntent);
+            }
+        } finally {
+            Arrays.fill(mTargets, 0, mCount, null);
+
+            mEventIntent.release();
+        }
+    }
+}
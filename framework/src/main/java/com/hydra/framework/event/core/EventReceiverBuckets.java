@@ -0,0 +1,164 @@
+package com.hydra.framework.event.core;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * Created by Hydra.
+ * EventReceiverList里receiver的存储，按优先级分桶，每个桶是一个按加入顺序排列的数组
+ * <p>
+ * 派发顺序：优先级高的桶在前，同一个桶里先加入这个list的在前；
+ * 解绑再绑定的receiver算新加入的，排到同优先级的最后
+ * <p>
+ * 绝大多数receiver都是默认优先级，一般只有一个桶，加入是直接追加到数组最后，删除是找到下标后往前挪，
+ * 桶本身也很少，找桶直接线性找；不是线程安全的，由EventReceiverList的锁保护
+ */
+final class EventReceiverBuckets {
+
+    private static final int DEFAULT_BUCKET_CAPACITY = 4;
+
+    //下面三个数组下标一一对应，按优先级从高到低排
+    private int[] mPriorities = new int[1];
+    private EventReceiver[][] mBuckets = new EventReceiver[1][];
+    private int[] mBucketSizes = new int[1];
+
+    private int mBucketCount;
+
+    private int mSize;
+
+    void add(@NonNull EventReceiver receiver) {
+        int bucketIndex = bucketIndexFor(receiver.priority);
+
+        if (bucketIndex < 0) {
+            bucketIndex = insertBucket(-(bucketIndex + 1), receiver.priority);
+        }
+
+        EventReceiver[] bucket = mBuckets[bucketIndex];
+        int bucketSize = mBucketSizes[bucketIndex];
+
+        if (bucketSize == bucket.length) {
+            bucket = Arrays.copyOf(bucket, bucketSize * 2);
+
+            mBuckets[bucketIndex] = bucket;
+        }
+
+        bucket[bucketSize] = receiver;
+
+        mBucketSizes[bucketIndex] = bucketSize + 1;
+        mSize++;
+    }
+
+    /**
+     * 按引用删除，传进来的要是add进来的那个对象
+     */
+    boolean remove(@NonNull EventReceiver receiver) {
+        int bucketIndex = bucketIndexFor(receiver.priority);
+
+        if (bucketIndex < 0) {
+            return false;
+        }
+
+        EventReceiver[] bucket = mBuckets[bucketIndex];
+        int bucketSize = mBucketSizes[bucketIndex];
+
+        for (int i = 0; i < bucketSize; i++) {
+            if (bucket[i] != receiver) {
+                continue;
+            }
+
+            //往前挪，保持加入的顺序
+            System.arraycopy(bucket, i + 1, bucket, i, bucketSize - i - 1);
+            bucket[bucketSize - 1] = null;
+
+            mBucketSizes[bucketIndex] = bucketSize - 1;
+            mSize--;
+
+            if (bucketSize == 1) {
+                removeBucket(bucketIndex);
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * 按派发顺序拷贝出来
+     */
+    @NonNull
+    EventReceiver[] toArray() {
+        EventReceiver[] receivers = new EventReceiver[mSize];
+
+        int offset = 0;
+
+        for (int i = 0; i < mBucketCount; i++) {
+            System.arraycopy(mBuckets[i], 0, receivers, offset, mBucketSizes[i]);
+
+            offset += mBucketSizes[i];
+        }
+
+        return receivers;
+    }
+
+    //找到了返回下标，找不到返回 -(应该插入的位置 + 1)
+    private int bucketIndexFor(int priority) {
+        for (int i = 0; i < mBucketCount; i++) {
+            int bucketPriority = mPriorities[i];
+
+            if (bucketPriority == priority) {
+                return i;
+            }
+
+            if (bucketPriority < priority) {
+                return -(i + 1);
+            }
+        }
+
+        return -(mBucketCount + 1);
+    }
+
+    private int insertBucket(int index, int priority) {
+        if (mBucketCount == mPriorities.length) {
+            int capacity = mBucketCount * 2;
+
+            mPriorities = Arrays.copyOf(mPriorities, capacity);
+            mBuckets = Arrays.copyOf(mBuckets, capacity);
+            mBucketSizes = Arrays.copyOf(mBucketSizes, capacity);
+        }
+
+        int moved = mBucketCount - index;
+
+        System.arraycopy(mPriorities, index, mPriorities, index + 1, moved);
+        System.arraycopy(mBuckets, index, mBuckets, index + 1, moved);
+        System.arraycopy(mBucketSizes, index, mBucketSizes, index + 1, moved);
+
+        mPriorities[index] = priority;
+        mBuckets[index] = new EventReceiver[DEFAULT_BUCKET_CAPACITY];
+        mBucketSizes[index] = 0;
+
+        mBucketCount++;
+
+        return index;
+    }
+
+    private void removeBucket(int index) {
+        int moved = mBucketCount - index - 1;
+
+        System.arraycopy(mPriorities, index + 1, mPriorities, index, moved);
+        System.arraycopy(mBuckets, index + 1, mBuckets, index, moved);
+        System.arraycopy(mBucketSizes, index + 1, mBucketSizes, index, moved);
+
+        mBucketCount--;
+
+        mBuckets[mBucketCount] = null;
+    }
+}
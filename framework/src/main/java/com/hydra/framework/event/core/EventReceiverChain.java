@@ -0,0 +1,183 @@
+package com.hydra.framework.event.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.hydra.framework.event.metrics.EventMetrics;
+
+/**
+ * Created by Hydra.
+ * 有序派发(EventAction.EVENTACTION_FLAG_ORDERED)：一次通知的所有receiver按优先级串成一条链，一个执行完才轮到下一个，
+ * 下一个receiver的线程和链当前所在的线程不一样时，post过去，在那个线程里接着往下走
+ * <p>
+ * 和EventReceiverBatch的区别：
+ * 1、批是每个线程各自一次post，不同线程之间没有先后；链是严格按优先级顺序的，前面的receiver done了，后面的不管在哪个线程都不会再收到
+ * 2、每个receiver投递前(切线程前)都会走一遍EventInterceptors，切过去以后执行前再检查一次done
+ * 3、没有指定线程的receiver，在链当前所在的线程里调用，不一定是派发线程；
+ * 连着几个receiver在同一个线程上的，只post一次；已经在receiver的线程里的(IEventThread.isCurrentThread)，直接调用，不post
+ * <p>
+ * 链从头到尾只持有intent一次，走完(或者done了)才release；链同一时间只在一个线程上走，所以下面的状态不用加锁，
+ * post之前写、post之后在另一个线程读，由IEventThread的队列保证可见性
+ */
+final class EventReceiverChain implements Runnable {
+
+    private final EventReceiverList mReceiverList;
+
+    private final EventReceiver[] mReceivers;
+
+    private final IEventInterceptor[] mInterceptors;
+
+    private final EventIntent mEventIntent;
+
+    //下一个要处理的receiver
+    private int mIndex;
+
+    //链当前所在的线程，null是派发线程
+    @Nullable
+    private IEventThread mCurrentThread;
+
+    //post出去、还没执行的receiver，和投递给它的intent(拦截器可能换过)
+    private EventReceiver mPendingReceiver;
+    private Object mPendingTarget;
+    private EventIntent mPendingIntent;
+
+    //装了统计的时候是post时的System.nanoTime()，否则是0
+    private long mPostNanos;
+
+    EventReceiverChain(@NonNull EventReceiverList receiverList, @NonNull EventReceiver[] receivers,
+                       @NonNull EventIntent eventIntent) {
+        mReceiverList = receiverList;
+        mReceivers = receivers;
+        mEventIntent = eventIntent;
+
+        //一条链用同一组拦截器，中途安装卸载的不影响已经开始的链
+        mInterceptors = EventInterceptors.interceptors();
+    }
+
+    void start() {
+        mEventIntent.retain();
+
+        boolean posted = false;
+
+        try {
+            posted = proceed();
+        } finally {
+            if (!posted) {
+                mEventIntent.release();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        boolean posted = false;
+
+        try {
+            EventReceiver receiver = mPendingReceiver;
+            Object targetObj = mPendingTarget;
+            EventIntent eventIntent = mPendingIntent;
+
+            mPendingReceiver = null;
+            mPendingTarget = null;
+            mPendingIntent = null;
+
+            //排队的这段时间里可能被别的线程done了
+            if (!mEventIntent.haveDone()) {
+                if (mPostNanos != 0) {
+                    receiver.recordDeliveryDelay(eventIntent, mPostNanos);
+                }
+
+                invoke(receiver, targetObj, eventIntent);
+
+                posted = proceed();
+            }
+        } finally {
+            if (!posted) {
+                mEventIntent.release();
+            }
+        }
+    }
+
+    /**
+     * 在当前线程里尽量往下走，遇到要切线程的receiver就post出去
+     *
+     * @return post出去了返回true，链由那个线程接着走；走完了或者done了返回false
+     */
+    private boolean proceed() {
+        while (mIndex < mReceivers.length) {
+            if (mEventIntent.haveDone()) {
+                return false;
+            }
+
+            EventReceiver receiver = mReceivers[mIndex++];
+
+            Object targetObj = receiver.aliveTarget();
+
+            if (targetObj == null) {
+                mReceiverList.reclaim(receiver);
+                continue;
+            }
+
+            EventIntent eventIntent = intercept(receiver);
+
+            if (eventIntent == null) {
+                continue;
+            }
+
+            IEventThread thread = receiver.deliveryThread(eventIntent);
+
+            //比如在主线程里派发，receiver也要求主线程
+            if (thread != null && thread != mCurrentThread && thread.isCurrentThread()) {
+                mCurrentThread = thread;
+            }
+
+            if (thread == null || thread == mCurrentThread) {
+                invoke(receiver, targetObj, eventIntent);
+                continue;
+            }
+
+            IEventThread preThread = mCurrentThread;
+
+            mCurrentThread = thread;
+            mPendingReceiver = receiver;
+            mPendingTarget = targetObj;
+            mPendingIntent = eventIntent;
+            mPostNanos = EventMetrics.sink() != null ? System.nanoTime() : 0;
+
+            if (thread.post(this)) {
+                return true;
+            }
+
+            //post失败和普通派发一样，这个receiver收不到，链在当前线程接着走
+            mCurrentThread = preThread;
+            mPendingReceiver = null;
+            mPendingTarget = null;
+            mPendingIntent = null;
+        }
+
+        return false;
+    }
+
+    @Nullable
+    private EventIntent intercept(@NonNull EventReceiver receiver) {
+        EventIntent eventIntent = mEventIntent;
+
+        for (IEventInterceptor interceptor : mInterceptors) {
+            eventIntent = interceptor.intercept(eventIntent, receiver);
+
+            if (eventIntent == null) {
+                return null;
+            }
+        }
+
+        return eventIntent;
+    }
+
+    private void invoke(@NonNull EventReceiver receiver, @NonNull Object targetObj, @NonNull EventIntent eventIntent) {
+        receiver.doInvoke(targetObj, eventIntent);
+
+        //拦截器换过的intent，receiver在上面done了也要停掉整条链
+        if (eventIntent != mEventIntent && eventIntent.haveDone()) {
+            mEventIntent.done();
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.hydra.framework.event.core;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.hydra.framework.event.metrics.EventMetrics;
+import com.hydra.framework.event.metrics.IEventMetricsSink;
 import com.hydra.framework.event.utils.EventLog;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Created by Hydra.
@@ -14,16 +18,70 @@ public class EventReceiverList {
 
     public static final int DEFAULT_RECEIVER_COUNT_THRESHOLD = 60;
 
-    protected final TreeSet<EventReceiver> mReceivers;
+    private static final EventReceiver[] EMPTY_RECEIVERS = new EventReceiver[0];
+
+    //只负责顺序(优先级高的在前，同优先级按加入的先后)，去重和查找用下面的mReceiverIndex
+    private final EventReceiverBuckets mReceivers = new EventReceiverBuckets();
+
+    //receiver的身份(method + target)到存在mReceivers里的那个receiver对象
+    private final HashMap<EventReceiver, EventReceiver> mReceiverIndex = new HashMap<>();
+
+    /**
+     * mReceivers的一份有序快照，copy on write
+     * 只在持有锁修改mReceivers后重新发布，通知时直接读这个数组，不需要加锁也不需要每次都拷贝一份
+     * 数组一旦发布就不会再被修改
+     */
+    private volatile EventReceiver[] mReceiversSnapshot = EMPTY_RECEIVERS;
+
+    //target已经被回收、等着删除的receiver，EventReceiverReaper无锁地往上挂，list自己在锁里删
+    private static final class DeadReceiver {
+        final EventReceiver receiver;
+        final DeadReceiver next;
+
+        DeadReceiver(EventReceiver receiver, DeadReceiver next) {
+            this.receiver = receiver;
+            this.next = next;
+        }
+    }
+
+    private static final AtomicReferenceFieldUpdater<EventReceiverList, DeadReceiver> DEAD_RECEIVERS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(EventReceiverList.class, DeadReceiver.class, "mDeadReceivers");
+
+    private volatile DeadReceiver mDeadReceivers;
 
     protected final EventAction mEventAction;
 
-    private volatile EventIntent mLastStickyIntent;  //保证可见性
+    /**
+     * sticky状态，都只在持有锁时读写：
+     * mLastStickySource是最后一次通知的intent本身，通知时只记下引用(池子里的intent会retain住)，不拷贝参数
+     * mLastStickyIntent是带sticky标志的拷贝，只有在有新的receiver绑定、需要补发时才创建，之后的绑定复用同一个，
+     * 下一次通知时作废
+     * <p>
+     * 所以sticky的intent通知出去以后，发送者不能再改它的参数(切线程的receiver本来也要求这样)
+     */
+    private EventIntent mLastStickySource;
+    private EventIntent mLastStickyIntent;
 
-    public EventReceiverList(EventAction eventAction) {
-        mReceivers = new TreeSet<>(EventReceiver.sEventReceiverComparator);
+    //sticky和重放的action每次通知加一，批量绑定时用来判断登记之后有没有新的通知
+    private long mNotifyVersion;
 
+    //带重放策略的action才有，只在持有锁时读写
+    @Nullable
+    private final EventReplayBuffer mReplayBuffer;
+
+    public EventReceiverList(EventAction eventAction) {
         mEventAction = eventAction;
+
+        EventReplayPolicy replayPolicy = eventAction.replayPolicy();
+
+        mReplayBuffer = replayPolicy != null ? new EventReplayBuffer(replayPolicy) : null;
+    }
+
+    //EventDispatcher创建list后调用，还没有通知过
+    synchronized void attachReplayBudget(@NonNull EventReplayBudget budget) {
+        if (mReplayBuffer != null) {
+            mReplayBuffer.attachBudget(budget);
+        }
     }
 
     /**
@@ -33,97 +91,278 @@ public class EventReceiverList {
      * 所有最好的方法是在每个Receiver list内部去做
      */
     public synchronized void add(EventReceiver eventReceiver) {
-        boolean preExist = !mReceivers.add(eventReceiver);
+        long notifyVersion = register(eventReceiver);
+
+        if (notifyVersion >= 0) {
+            notifyRegistered(eventReceiver, notifyVersion);
+        }
+    }
+
+    /**
+     * 只登记receiver，不补发sticky和onAddBinding的通知
+     * add = register + notifyRegistered，批量绑定时先把所有receiver都register，再挨个notifyRegistered
+     *
+     * @return 已经绑定过了返回-1，否则返回当前的通知版本，要原样传给notifyRegistered
+     */
+    synchronized long register(EventReceiver eventReceiver) {
+        removeDeadReceivers();
 
-        //event receiver的hashcode是通过里面的string的hash，理论上在同一个事件派发域内是不会重复的
+        boolean preExist = mReceiverIndex.containsKey(eventReceiver);
+
+        //同一个target的同一个method只能绑定一次
         if (preExist) {
             EventLog.warn(TAG,
                     "add event destination warning, destination already exist : " + eventReceiver.toString());
             //不走下面的流程了
+            return -1;
+        }
+
+        mReceiverIndex.put(eventReceiver, eventReceiver);
+        mReceivers.add(eventReceiver);
+
+        eventReceiver.attach(this);
+
+        publishSnapshot();
+
+        if (mReceivers.size() > DEFAULT_RECEIVER_COUNT_THRESHOLD) {
+            EventLog.warn(TAG, "too many connections: " + mReceivers.size() + " add to: " + mEventAction);
+        }
+
+        return mNotifyVersion;
+    }
+
+    /**
+     * register之后补发重放/sticky和onAddBinding的通知，和通知互斥
+     * <p>
+     * 批量绑定时register和这里之间隔着别的receiver的通知，这期间可能：
+     * 1、有了新的通知，因为receiver已经登记了，它一定在那次通知的快照里，已经收到了更新的intent，
+     *    所以sticky版本变了就不补发；重放只补发版本不大于登记时版本的那些
+     * 2、receiver在别的通知回调里被解绑了，那就什么都不发
+     */
+    synchronized void notifyRegistered(EventReceiver eventReceiver, long notifyVersion) {
+        if (mReceiverIndex.get(eventReceiver) != eventReceiver) {
             return;
         }
 
-        if (mEventAction.isSticky() && mLastStickyIntent != null) {
-            invokeEventToReceiver(mLastStickyIntent, eventReceiver);
+        if (mReplayBuffer != null) {
+            EventIntent[] replayIntents = mReplayBuffer.replayIntents(notifyVersion);
+
+            if (replayIntents != null) {
+                for (EventIntent replayIntent : replayIntents) {
+                    invokeEventToReceiver(replayIntent, eventReceiver);
+                }
+            }
+        } else if (mEventAction.isSticky() && mLastStickySource != null && notifyVersion == mNotifyVersion) {
+            invokeEventToReceiver(stickyIntent(), eventReceiver);
         }
 
         onAddBinding(eventReceiver);
-
-        removeUnusedReceivers();
     }
 
     public void invokeToReceivers(EventIntent eventIntent) {
-        TreeSet<EventReceiver> copiedReceivers;
+        if (mDeadReceivers != null) {
+            synchronized (this) {
+                removeDeadReceivers();
+            }
+        }
 
-        synchronized (this) {
-            copiedReceivers = new TreeSet<>(mReceivers);
+        EventReceiver[] receivers;
 
-            //为什么这个操作放到这里，不放到通知完之后，因为通知的列表是一个copy列表，不用加锁
-            //但是如果在for循环和refreshsticky操作之间，有一个Receiver被add了，这个时候通知的就是旧的sticky intent了
-            //refresh后的新sticky intent永远不会被通知到
-            if (mEventAction.isSticky()) {
-                refreshStickyEventIntent(eventIntent);
+        if (mEventAction.keepsIntents()) {
+            synchronized (this) {
+                receivers = mReceiversSnapshot;
+
+                //为什么这个操作放到这里，不放到通知完之后，因为通知的列表是一个快照，不用加锁
+                //但是如果在取快照和refreshsticky操作之间，有一个Receiver被add了，这个时候通知的就是旧的sticky intent了
+                //refresh后的新sticky intent永远不会被通知到
+                //所以sticky的action取快照和refresh要在同一个锁里，和add互斥，重放的记录也是一样
+                //register返回-1表示已绑定，版本号不能是负数，long不用担心溢出
+                mNotifyVersion++;
+
+                if (mEventAction.isSticky()) {
+                    refreshStickyEventIntent(eventIntent);
+                }
+
+                if (mReplayBuffer != null) {
+                    mReplayBuffer.record(eventIntent, mNotifyVersion);
+                }
             }
+        } else {
+            //非sticky的不需要和add互斥，直接读volatile的快照
+            receivers = mReceiversSnapshot;
+        }
+
+        IEventMetricsSink metricsSink = EventMetrics.sink();
+
+        if (metricsSink != null) {
+            metricsSink.onNotify(mEventAction, receivers.length);
         }
 
-        for (EventReceiver receiver : copiedReceivers) {
-            invokeEventToReceiver(eventIntent, receiver);
+        if (mEventAction.isOrdered()) {
+            if (receivers.length > 0) {
+                new EventReceiverChain(this, receivers, eventIntent).start();
+            }
+
+            return;
+        }
+
+        //同步的receiver直接调用；切线程的按线程分组，循环完以后每个线程只post一次
+        //线程一般只有一两个，用list线性找就够了，全是同步receiver时不会创建
+        ArrayList<EventReceiverBatch> batches = null;
+
+        for (EventReceiver receiver : receivers) {
+            IEventThread thread = receiver.deliveryThread(eventIntent);
+
+            if (thread == null) {
+                invokeEventToReceiver(eventIntent, receiver);
+            } else {
+                Object targetObj = receiver.aliveTarget();
+
+                if (targetObj == null) {
+                    reclaim(receiver);
+                } else {
+                    if (batches == null) {
+                        batches = new ArrayList<>(2);
+                    }
+
+                    batchFor(batches, thread, eventIntent).add(receiver, targetObj);
+                }
+            }
 
             if (eventIntent.haveDone()) {
                 break;
             }
         }
+
+        if (batches != null) {
+            for (int i = 0, size = batches.size(); i < size; i++) {
+                batches.get(i).post();
+            }
+        }
     }
 
+    private static EventReceiverBatch batchFor(ArrayList<EventReceiverBatch> batches, IEventThread thread,
+                                               EventIntent eventIntent) {
+        for (int i = 0, size = batches.size(); i < size; i++) {
+            EventReceiverBatch batch = batches.get(i);
+
+            if (batch.thread() == thread) {
+                return batch;
+            }
+        }
+
+        EventReceiverBatch batch = new EventReceiverBatch(thread, eventIntent);
+
+        batches.add(batch);
+
+        return batch;
+    }
+
+    //调用者需要持有锁
     private void refreshStickyEventIntent(EventIntent eventIntent) {
-        //a copy but sticky flag set true
-        EventIntent stickyIntent = new EventIntent(eventIntent.eventSender(), mEventAction, true);
-        stickyIntent.putBundle(eventIntent.eventBundle());
+        EventIntent preSource = mLastStickySource;
 
-        mLastStickyIntent = stickyIntent;
+        if (preSource == eventIntent) {
+            return;
+        }
+
+        eventIntent.retain();
+
+        mLastStickySource = eventIntent;
+        mLastStickyIntent = null;
+
+        if (preSource != null) {
+            preSource.release();
+        }
+    }
+
+    //调用者需要持有锁
+    private EventIntent stickyIntent() {
+        EventIntent stickyIntent = mLastStickyIntent;
+
+        if (stickyIntent == null && mLastStickySource != null) {
+            //a copy but sticky flag set true
+            stickyIntent = new EventIntent(mLastStickySource.eventSender(), mEventAction, true);
+            stickyIntent.putBundle(mLastStickySource.eventBundle());
+
+            mLastStickyIntent = stickyIntent;
+        }
+
+        return stickyIntent;
     }
 
     public void invokeEventToReceiver(EventIntent eventIntent, EventReceiver receiver) {
         if (!receiver.invoke(eventIntent)) {
-            remove(receiver);
+            reclaim(receiver);
         }
     }
 
-    private void removeUnusedReceivers() {
-        int size = size();
+    public synchronized boolean remove(EventReceiver object) {
+        //传进来的可能是重新构造的receiver，要先找到存着的那个
+        EventReceiver stored = mReceiverIndex.remove(object);
 
-        if (size > DEFAULT_RECEIVER_COUNT_THRESHOLD) {
-            EventLog.warn(TAG, "too many connections: " + size + " add to: " + mEventAction);
+        if (stored == null) {
+            return false;
+        }
 
-            Iterator<EventReceiver> iterator = mReceivers.iterator();
+        mReceivers.remove(stored);
 
-            while (iterator.hasNext()) {
-                EventReceiver receiver = iterator.next();
+        stored.detach(this);
 
-                if (receiver == null || !receiver.isValid()) {
-                    iterator.remove();
-                }
-            }
+        publishSnapshot();
+
+        return true;
+    }
+
+    /**
+     * target已经被回收的receiver，从list里删掉并计数
+     */
+    void reclaim(EventReceiver receiver) {
+        if (remove(receiver)) {
+            EventReceiverReaper.onReclaimed();
         }
     }
 
-    public synchronized boolean remove(EventReceiver object) {
-        return mReceivers.remove(object);
+    /**
+     * EventReceiverReaper调用，可能在任何线程，不拿锁，只挂到待删除链表上
+     */
+    void onTargetCollected(EventReceiver receiver) {
+        DeadReceiver head;
+
+        do {
+            head = mDeadReceivers;
+        } while (!DEAD_RECEIVERS_UPDATER.compareAndSet(this, head, new DeadReceiver(receiver, head)));
+    }
+
+    //调用者需要持有锁
+    private void removeDeadReceivers() {
+        DeadReceiver dead = DEAD_RECEIVERS_UPDATER.getAndSet(this, null);
+
+        while (dead != null) {
+            reclaim(dead.receiver);
+
+            dead = dead.next;
+        }
+    }
+
+    //调用者需要持有锁
+    private void publishSnapshot() {
+        mReceiversSnapshot = mReceivers.isEmpty() ? EMPTY_RECEIVERS : mReceivers.toArray();
     }
 
     //double lock
-    synchronized void onTrim(HashMap<EventAction, EventReceiverList> connections) {
+    synchronized void onTrim(EventDispatcher dispatcher) {
         if (size() == 0) {
-            connections.remove(mEventAction);
+            dispatcher.removeConnection(mEventAction);
         }
     }
 
-    public synchronized int size() {
-        return mReceivers.size();
+    public int size() {
+        return mReceiversSnapshot.length;
     }
 
-    public EventIntent getLastStickyIntent() {
-        return mLastStickyIntent;
+    public synchronized EventIntent getLastStickyIntent() {
+        return stickyIntent();
     }
 
     protected void onAddBinding(EventReceiver receiver) {
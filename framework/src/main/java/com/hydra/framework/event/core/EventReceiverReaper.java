@@ -0,0 +1,67 @@
+package com.hydra.framework.event.core;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by Hydra.
+ * 回收target已经被gc掉的receiver
+ * <p>
+ * 每个receiver的target弱引用都注册在这里的ReferenceQueue上，target被回收后引用会进队列，
+ * 再通过引用找到receiver和它所在的EventReceiverList，交给list去删；不再需要遍历整个list去找死掉的receiver
+ * <p>
+ * 这里不会去拿list的锁，只是把receiver挂到list的待删除链表上(无锁)，list在下一次自己的add/remove/通知里再删，
+ * 因为回收可能发生在嵌套的绑定里(比如kvo绑定时那次通知的回调里又去绑定)，这时候去拿一个不相干的list的锁，容易死锁
+ * <p>
+ * 回收是分摊在dispatcher的操作里做的：addBinding/removeBinding每次都会回收，notifyEvent每NOTIFY_RECLAIM_INTERVAL次回收一次
+ * (Android的ReferenceQueue.poll是加锁的，不想在每次通知里都多一次加锁)，每次最多回收MAX_RECLAIM_PER_DRAIN个
+ */
+public final class EventReceiverReaper {
+
+    private static final int MAX_RECLAIM_PER_DRAIN = 16;
+
+    private static final int NOTIFY_RECLAIM_INTERVAL = 64;
+
+    static final ReferenceQueue<Object> sDeadTargets = new ReferenceQueue<>();
+
+    private static final AtomicLong sReclaimedCount = new AtomicLong(0);
+
+    //不需要精确，多线程下少加几次也没关系，所以不用原子操作
+    private static int sNotifyTick;
+
+    private EventReceiverReaper() {
+    }
+
+    /**
+     * 到目前为止，因为target被回收而从list里删掉的receiver个数
+     * (包括这里回收的，和通知时发现target已经没了直接删掉的)
+     */
+    public static long reclaimedCount() {
+        return sReclaimedCount.get();
+    }
+
+    static void onReclaimed() {
+        sReclaimedCount.incrementAndGet();
+    }
+
+    static void reclaimOnNotify() {
+        if (++sNotifyTick % NOTIFY_RECLAIM_INTERVAL == 0) {
+            reclaim();
+        }
+    }
+
+    static void reclaim() {
+        for (int i = 0; i < MAX_RECLAIM_PER_DRAIN; i++) {
+            Reference<?> reference = sDeadTargets.poll();
+
+            if (reference == null) {
+                return;
+            }
+
+            if (reference instanceof EventReceiver.TargetReference) {
+                ((EventReceiver.TargetReference) reference).onTargetCollected();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.hydra.framework.event.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by Hydra.
+ * 一个EventDispatcher下所有重放缓冲区共用的预算，按保留的intent个数算
+ * intent的参数是任意对象，在android上没办法算出实际占了多少内存，所以只限制个数
+ */
+final class EventReplayBudget {
+
+    private final AtomicInteger mUsed = new AtomicInteger();
+
+    private volatile int mLimit;
+
+    EventReplayBudget(int limit) {
+        mLimit = limit;
+    }
+
+    void setLimit(int limit) {
+        mLimit = limit;
+    }
+
+    boolean tryAcquire() {
+        int used;
+
+        do {
+            used = mUsed.get();
+
+            if (used >= mLimit) {
+                return false;
+            }
+        } while (!mUsed.compareAndSet(used, used + 1));
+
+        return true;
+    }
+
+    void release() {
+        mUsed.decrementAndGet();
+    }
+
+    //调小了limit以后可能会超
+    boolean isOverLimit() {
+        return mUsed.get() > mLimit;
+    }
+}
@@ -0,0 +1,142 @@
+package com.hydra.framework.event.core;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.hydra.framework.event.utils.EventLog;
+
+/**
+ * Created by Hydra.
+ * 一个action的重放缓冲区，固定大小的环，存intent的引用(池子里的会retain住)和记录时的版本号、时间
+ * <p>
+ * 没有锁，由所在的EventReceiverList的锁保护
+ * <p>
+ * 空间的来源：环满了挤掉自己最老的；预算不够了也是先挤掉自己最老的，自己一个都没有的这次就不记了，
+ * 这样一个action记得再多也不会超过预算，也不会去动别的action的缓冲区(那要拿别的list的锁)
+ */
+final class EventReplayBuffer {
+
+    private static final String TAG = "EventReplayBuffer";
+
+    private final EventReplayPolicy mPolicy;
+
+    private final EventIntent[] mIntents;
+    private final long[] mVersions;
+    private final long[] mTimes;
+
+    //最老的一个的下标
+    private int mHead;
+
+    private int mCount;
+
+    @Nullable
+    private EventReplayBudget mBudget;
+
+    EventReplayBuffer(@NonNull EventReplayPolicy policy) {
+        mPolicy = policy;
+
+        mIntents = new EventIntent[policy.capacity];
+        mVersions = new long[policy.capacity];
+        mTimes = new long[policy.capacity];
+    }
+
+    void attachBudget(@NonNull EventReplayBudget budget) {
+        mBudget = budget;
+    }
+
+    void record(@NonNull EventIntent eventIntent, long version) {
+        long now = 0;
+
+        //不限时间的不用取时间
+        if (mPolicy.maxAgeMillis > 0) {
+            now = SystemClock.uptimeMillis();
+
+            dropExpired(now);
+        }
+
+        if (mCount == mIntents.length && (mBudget == null || !mBudget.isOverLimit())) {
+            //环满了，新的直接占用挤掉的那个的预算
+            removeOldest(false);
+        } else {
+            while (mBudget != null && !mBudget.tryAcquire()) {
+                if (mCount == 0) {
+                    EventLog.warn(TAG, "replay budget exhausted, skip recording : " + eventIntent.eventAction());
+                    return;
+                }
+
+                removeOldest(true);
+            }
+        }
+
+        eventIntent.retain();
+
+        int tail = (mHead + mCount) % mIntents.length;
+
+        mIntents[tail] = eventIntent;
+        mVersions[tail] = version;
+        mTimes[tail] = now;
+
+        mCount++;
+    }
+
+    /**
+     * 版本号不大于version的(即receiver登记之前就通知过的)，按先后拷贝出带sticky标志的intent
+     * 先全部拷贝出来再由调用者去通知，回调里再发同一个action的事件会改这个环
+     */
+    @Nullable
+    EventIntent[] replayIntents(long version) {
+        if (mPolicy.maxAgeMillis > 0) {
+            dropExpired(SystemClock.uptimeMillis());
+        }
+
+        int replayCount = 0;
+
+        while (replayCount < mCount && mVersions[(mHead + replayCount) % mIntents.length] <= version) {
+            replayCount++;
+        }
+
+        if (replayCount == 0) {
+            return null;
+        }
+
+        EventIntent[] replayIntents = new EventIntent[replayCount];
+
+        for (int i = 0; i < replayCount; i++) {
+            EventIntent source = mIntents[(mHead + i) % mIntents.length];
+
+            //a copy but sticky flag set true
+            EventIntent replayIntent = new EventIntent(source.eventSender(), source.eventAction(), true);
+            replayIntent.putBundle(source.eventBundle());
+
+            replayIntents[i] = replayIntent;
+        }
+
+        return replayIntents;
+    }
+
+    int size() {
+        return mCount;
+    }
+
+    private void dropExpired(long now) {
+        long maxAgeMillis = mPolicy.maxAgeMillis;
+
+        while (mCount > 0 && now - mTimes[mHead] > maxAgeMillis) {
+            removeOldest(true);
+        }
+    }
+
+    private void removeOldest(boolean releaseBudget) {
+        EventIntent eventIntent = mIntents[mHead];
+
+        mIntents[mHead] = null;
+        mHead = (mHead + 1) % mIntents.length;
+        mCount--;
+
+        if (releaseBudget && mBudget != null) {
+            mBudget.release();
+        }
+
+        eventIntent.release();
+    }
+}
@@ -0,0 +1,43 @@
+package com.hydra.framework.event.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Created by Hydra.
+ * action的重放策略：保留最近的capacity个intent，新绑定的receiver按发送的先后补发一遍
+ * maxAgeMillis大于0时，超过这个时间的不再补发，也会被提前清掉
+ * <p>
+ * 和sticky的区别：sticky只保留最后一个，而且一直保留；同一个action两个都配了的，只按重放来补发
+ * 保留的intent数受所在EventDispatcher的重放预算限制，见EventDispatcher.setReplayBudget
+ */
+public final class EventReplayPolicy {
+
+    public final int capacity;
+
+    public final long maxAgeMillis;
+
+    private EventReplayPolicy(int capacity, long maxAgeMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("replay capacity must be positive : " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    @NonNull
+    public static EventReplayPolicy last(int capacity) {
+        return new EventReplayPolicy(capacity, 0);
+    }
+
+    @NonNull
+    public static EventReplayPolicy last(int capacity, long maxAgeMillis) {
+        return new EventReplayPolicy(capacity, maxAgeMillis);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "EventReplayPolicy{capacity=" + capacity + ", maxAgeMillis=" + maxAgeMillis + "}";
+    }
+}
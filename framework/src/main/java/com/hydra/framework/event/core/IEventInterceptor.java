@@ -0,0 +1,21 @@
+package com.hydra.framework.event.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Created by Hydra.
+ * 有序派发(EventAction.EVENTACTION_FLAG_ORDERED)的拦截器，用EventInterceptors.add安装
+ * <p>
+ * 链上每个receiver投递之前调用一次，在切线程之前、链当前所在的线程里执行，所以不要做耗时的事情
+ */
+public interface IEventInterceptor {
+
+    /**
+     * @return 原样返回eventIntent就是放行；返回null就是拦截，这个receiver不投递，链接着往后走；
+     * 也可以返回一个新的intent，只投递给这个receiver，后面的receiver还是拿到原来的intent，
+     * 新的intent要是new出来的，不能是池子里obtain的，链不会管它的retain/release
+     */
+    @Nullable
+    EventIntent intercept(@NonNull EventIntent eventIntent, @NonNull EventReceiver receiver);
+}
@@ -0,0 +1,15 @@
+package com.hydra.framework.event.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 事件接收函数的调用接口，EventReceiver不直接用Method.invoke，而是通过这个接口来调用
+ * <p>
+ * 默认的实现是反射(ReflectEventInvoker)，编译期生成的或者业务自己写的invoker可以直接调用接收函数，
+ * 省掉反射的参数数组、装箱和InvocationTargetException的包装
+ * <p>
+ * 实现类需要是无状态的，同一个method的invoker会被所有receiver共享
+ */
+public interface IEventInvoker {
+    void invoke(@NonNull Object target, @NonNull EventIntent eventIntent) throws Throwable;
+}
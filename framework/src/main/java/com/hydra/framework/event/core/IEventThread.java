@@ -5,4 +5,12 @@ package com.hydra.framework.event.core;
  */
 public interface IEventThread {
     boolean post(Runnable r);
+
+    /**
+     * 当前是不是已经在这个线程里了，有序派发时在的话就直接调用，不再post
+     * 判断不了的默认返回false，总是post
+     */
+    default boolean isCurrentThread() {
+        return false;
+    }
 }
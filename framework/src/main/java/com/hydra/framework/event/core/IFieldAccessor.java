@@ -0,0 +1,55 @@
+package com.hydra.framework.event.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 成员变量的读写接口，KvoSource读写kvo field时不直接用Field.get/set，而是通过这个接口
+ * <p>
+ * 默认的实现是反射(ReflectFieldAccessor)，编译期生成的accessor直接读写field，省掉反射的访问检查和基本类型的装箱
+ * 没有在运行时生成accessor，因为minSdk是21，没有MethodHandle，ART上也不能直接生成字节码
+ * <p>
+ * 基本类型的读写(getInt/setInt这些)要和field的类型完全一致，默认实现是通过get/set装箱拆箱的，
+ * 实现类对自己支持的类型覆盖掉就不会装箱了
+ * <p>
+ * 和IEventInvoker一样，实现类需要是无状态的，同一个field的accessor会被这个类所有的对象共享
+ */
+public interface IFieldAccessor {
+
+    @Nullable
+    Object get(@NonNull Object target) throws IllegalAccessException;
+
+    void set(@NonNull Object target, @Nullable Object value) throws IllegalAccessException;
+
+    default int getInt(@NonNull Object target) throws IllegalAccessException {
+        return (Integer) get(target);
+    }
+
+    default void setInt(@NonNull Object target, int value) throws IllegalAccessException {
+        set(target, value);
+    }
+
+    default long getLong(@NonNull Object target) throws IllegalAccessException {
+        return (Long) get(target);
+    }
+
+    default void setLong(@NonNull Object target, long value) throws IllegalAccessException {
+        set(target, value);
+    }
+
+    default boolean getBoolean(@NonNull Object target) throws IllegalAccessException {
+        return (Boolean) get(target);
+    }
+
+    default void setBoolean(@NonNull Object target, boolean value) throws IllegalAccessException {
+        set(target, value);
+    }
+
+    default double getDouble(@NonNull Object target) throws IllegalAccessException {
+        return (Double) get(target);
+    }
+
+    default void setDouble(@NonNull Object target, double value) throws IllegalAccessException {
+        set(target, value);
+    }
+}
@@ -4,6 +4,7 @@ import android.util.SparseArray;
 import androidx.annotation.Nullable;
 import com.hydra.framework.event.core.IEventThread;
 import com.hydra.framework.thread.ThreadBus;
+import com.hydra.framework.thread.core.ThreadAsyncAdapter;
 
 /**
  * 辅助类，默认框架不带线程，只带线程接口IEventThread
@@ -17,7 +18,19 @@ public class DefaultEventThreadWrapper {
         for (int i = ThreadBus.Main; i < ThreadBus.Inherent_Thread_Index; i++) {
             final int idx = i;
 
-            sEventThreadMap.put(i, r -> ThreadBus.post(idx, r));
+            sEventThreadMap.put(i, new IEventThread() {
+                @Override
+                public boolean post(Runnable r) {
+                    return ThreadBus.post(idx, r);
+                }
+
+                @Override
+                public boolean isCurrentThread() {
+                    ThreadAsyncAdapter adapter = ThreadBus.threadAdapter(idx);
+
+                    return adapter != null && adapter.isCurrentThread();
+                }
+            });
         }
     }
 
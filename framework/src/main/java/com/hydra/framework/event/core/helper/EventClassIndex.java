@@ -0,0 +1,134 @@
+package com.hydra.framework.event.core.helper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.hydra.framework.event.core.IEventInvoker;
+import com.hydra.framework.event.core.IFieldAccessor;
+import com.hydra.framework.event.utils.EventLog;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Created by Hydra.
+ * 编译期生成的订阅索引的基类，由framework-compiler里的EventIndexProcessor生成，类名是 原类名 + "_EventIndex"
+ * <p>
+ * 一个索引包含了这个类和它所有非系统父类里带注解(KvoMethodAnnotation/FWEventAnnotation/KvoFieldAnnotation)的
+ * 函数和field，顺序和EventHelper.getExcludeSystemMethods/getExcludeSystemFields一样，是从子类到父类的
+ * <p>
+ * 有了索引，就不用在第一次绑定时getDeclaredMethods/getDeclaredFields遍历整个继承链再挨个取注解了，
+ * 只会按名字取一次用到的Method/Field；没有生成索引的类还是走反射
+ * <p>
+ * 能直接访问的函数和field，索引里还带了直接调用的IEventInvoker和直接读写的IFieldAccessor
+ */
+public abstract class EventClassIndex {
+
+    private static final String TAG = "EventClassIndex";
+
+    public static final String INDEX_CLASS_SUFFIX = "_EventIndex";
+
+    public static final class MethodEntry {
+        public final Class<?> declaringClass;
+        public final String name;
+        public final Class<?> parameterType;
+        public final Annotation annotation;
+
+        //函数不能直接调用时(private，或者是其他包里的非public函数)是null
+        @Nullable
+        public final IEventInvoker invoker;
+
+        private volatile Method mMethod;
+
+        public MethodEntry(@NonNull Class<?> declaringClass, @NonNull String name,
+                           @NonNull Class<?> parameterType, @NonNull Annotation annotation,
+                           @Nullable IEventInvoker invoker) {
+            this.declaringClass = declaringClass;
+            this.name = name;
+            this.parameterType = parameterType;
+            this.annotation = annotation;
+            this.invoker = invoker;
+        }
+
+        /**
+         * receiver的身份和日志还是要用Method，这里只按名字取一次，不会遍历所有函数
+         */
+        @Nullable
+        public Method method() {
+            Method method = mMethod;
+
+            if (method != null) {
+                return method;
+            }
+
+            try {
+                method = declaringClass.getDeclaredMethod(name, parameterType);
+
+                //canAccess要API 33，minSdk 21只能用isAccessible
+                @SuppressWarnings("deprecation")
+                boolean accessible = method.isAccessible();
+
+                if (!accessible) {
+                    method.setAccessible(true);
+                }
+
+                mMethod = method;
+            } catch (NoSuchMethodException | SecurityException e) {
+                EventLog.error(TAG, "index method not found : " + declaringClass.getName() + "." + name
+                        + ", error : " + e.toString());
+            }
+
+            return method;
+        }
+    }
+
+    public static final class FieldEntry {
+        public final Class<?> declaringClass;
+        public final String name;
+        public final Annotation annotation;
+
+        //field不能直接读写时(private，final，或者其他包里的非public field)是null
+        @Nullable
+        public final IFieldAccessor accessor;
+
+        private volatile Field mField;
+
+        public FieldEntry(@NonNull Class<?> declaringClass, @NonNull String name,
+                          @NonNull Annotation annotation) {
+            this(declaringClass, name, annotation, null);
+        }
+
+        public FieldEntry(@NonNull Class<?> declaringClass, @NonNull String name,
+                          @NonNull Annotation annotation, @Nullable IFieldAccessor accessor) {
+            this.declaringClass = declaringClass;
+            this.name = name;
+            this.annotation = annotation;
+            this.accessor = accessor;
+        }
+
+        @Nullable
+        public Field field() {
+            Field field = mField;
+
+            if (field != null) {
+                return field;
+            }
+
+            try {
+                field = declaringClass.getDeclaredField(name);
+
+                mField = field;
+            } catch (NoSuchFieldException | SecurityException e) {
+                EventLog.error(TAG, "index field not found : " + declaringClass.getName() + "." + name
+                        + ", error : " + e.toString());
+            }
+
+            return field;
+        }
+    }
+
+    @NonNull
+    public abstract MethodEntry[] methods();
+
+    @NonNull
+    public abstract FieldEntry[] fields();
+}
@@ -1,12 +1,14 @@
 package com.hydra.framework.event.core.helper;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.hydra.framework.event.utils.EventLog;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 辅助类，遍历获取当前类和父类的绑定的(过滤了系统父类)函数和field信息
@@ -31,6 +33,8 @@ import java.util.List;
  * <p>
  * 对于接收event的来说(eventbus也是这么做的)，方法参数都是eventIntent，返回值都是void
  * 所以这两种情况暂时不用考虑，如果其他地方要使用这种方法，需要更多的条件判断！
+ * <p>
+ * 如果类在编译期生成了索引(EventClassIndex)，优先用索引，上面的遍历只是兜底
  */
 public class EventHelper {
 
@@ -54,6 +58,56 @@ public class EventHelper {
     private static final int NOT_SUPPORT_FIELD_MODIFIERS = Modifier.STATIC | Modifier.NATIVE
         | Modifier.ABSTRACT;
 
+    //没有生成索引的类也缓存下来，不要每次都去Class.forName
+    private static final EventClassIndex NO_INDEX = new EventClassIndex() {
+        @NonNull
+        @Override
+        public MethodEntry[] methods() {
+            return new MethodEntry[0];
+        }
+
+        @NonNull
+        @Override
+        public FieldEntry[] fields() {
+            return new FieldEntry[0];
+        }
+    };
+
+    private static final ConcurrentHashMap<Class<?>, EventClassIndex> sClassIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * 取编译期生成的索引，没有的话返回null，调用者走反射
+     */
+    @Nullable
+    public static EventClassIndex getClassIndex(@NonNull Class<?> clazz) {
+        EventClassIndex index = sClassIndexes.get(clazz);
+
+        if (index == null) {
+            index = loadClassIndex(clazz);
+
+            sClassIndexes.put(clazz, index);
+        }
+
+        return index == NO_INDEX ? null : index;
+    }
+
+    @NonNull
+    private static EventClassIndex loadClassIndex(@NonNull Class<?> clazz) {
+        try {
+            Class<?> indexClass = Class.forName(clazz.getName() + EventClassIndex.INDEX_CLASS_SUFFIX,
+                true, clazz.getClassLoader());
+
+            return (EventClassIndex) indexClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return NO_INDEX;
+        } catch (Throwable e) {
+            EventLog.error(TAG, "load class index failed clazz : " + clazz.getName()
+                + " exception : " + e.toString());
+
+            return NO_INDEX;
+        }
+    }
+
     public static List<Method> getExcludeSystemMethods(Class<?> clazz) {
         try {
             return getMethodRecursive(clazz);
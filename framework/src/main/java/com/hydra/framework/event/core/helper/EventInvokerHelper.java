@@ -0,0 +1,41 @@
+package com.hydra.framework.event.core.helper;
+
+import androidx.annotation.NonNull;
+import com.hydra.framework.event.core.IEventInvoker;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 辅助类，缓存每个接收函数对应的invoker
+ * <p>
+ * 先用注册进来的invoker(编译期生成的或者业务自己写的直接调用)，没有的话才用反射
+ * 这里没有用MethodHandle，因为minSdk是21，invokeExact要26以上，而且d8在minApi 26以下会直接编译失败
+ */
+public class EventInvokerHelper {
+
+    private static final ConcurrentHashMap<Method, IEventInvoker> sInvokers = new ConcurrentHashMap<>();
+
+    /**
+     * 注册一个直接调用的invoker，会覆盖掉之前的(包括已经缓存的反射invoker)
+     * 注意：已经构造出来的receiver还是用的旧的invoker
+     */
+    public static void register(@NonNull Method method, @NonNull IEventInvoker invoker) {
+        sInvokers.put(method, invoker);
+    }
+
+    @NonNull
+    public static IEventInvoker invokerFor(@NonNull Method method) {
+        IEventInvoker invoker = sInvokers.get(method);
+
+        if (invoker != null) {
+            return invoker;
+        }
+
+        //并发时最多多构造几个反射invoker，没有影响，以先放进去的为准
+        invoker = new ReflectEventInvoker(method);
+
+        IEventInvoker preInvoker = sInvokers.putIfAbsent(method, invoker);
+
+        return preInvoker == null ? invoker : preInvoker;
+    }
+}
@@ -0,0 +1,31 @@
+package com.hydra.framework.event.core.helper;
+
+import androidx.annotation.NonNull;
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.core.IEventInvoker;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 反射调用，没有其他invoker时的兜底实现
+ * 把InvocationTargetException拆开，抛出接收函数自己的异常，和直接调用时的表现保持一致
+ */
+public class ReflectEventInvoker implements IEventInvoker {
+
+    private final Method mMethod;
+
+    public ReflectEventInvoker(@NonNull Method method) {
+        mMethod = method;
+    }
+
+    @Override
+    public void invoke(@NonNull Object target, @NonNull EventIntent eventIntent) throws Throwable {
+        try {
+            mMethod.invoke(target, eventIntent);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+
+            throw cause == null ? e : cause;
+        }
+    }
+}
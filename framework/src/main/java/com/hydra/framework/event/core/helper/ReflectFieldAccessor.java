@@ -0,0 +1,70 @@
+package com.hydra.framework.event.core.helper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.hydra.framework.event.core.IFieldAccessor;
+import java.lang.reflect.Field;
+
+/**
+ * 反射读写，没有生成的accessor时的兜底实现，field需要已经setAccessible过
+ * 基本类型用Field.getInt/setInt这些，不装箱
+ */
+public class ReflectFieldAccessor implements IFieldAccessor {
+
+    private final Field mField;
+
+    public ReflectFieldAccessor(@NonNull Field field) {
+        mField = field;
+    }
+
+    @Nullable
+    @Override
+    public Object get(@NonNull Object target) throws IllegalAccessException {
+        return mField.get(target);
+    }
+
+    @Override
+    public void set(@NonNull Object target, @Nullable Object value) throws IllegalAccessException {
+        mField.set(target, value);
+    }
+
+    @Override
+    public int getInt(@NonNull Object target) throws IllegalAccessException {
+        return mField.getInt(target);
+    }
+
+    @Override
+    public void setInt(@NonNull Object target, int value) throws IllegalAccessException {
+        mField.setInt(target, value);
+    }
+
+    @Override
+    public long getLong(@NonNull Object target) throws IllegalAccessException {
+        return mField.getLong(target);
+    }
+
+    @Override
+    public void setLong(@NonNull Object target, long value) throws IllegalAccessException {
+        mField.setLong(target, value);
+    }
+
+    @Override
+    public boolean getBoolean(@NonNull Object target) throws IllegalAccessException {
+        return mField.getBoolean(target);
+    }
+
+    @Override
+    public void setBoolean(@NonNull Object target, boolean value) throws IllegalAccessException {
+        mField.setBoolean(target, value);
+    }
+
+    @Override
+    public double getDouble(@NonNull Object target) throws IllegalAccessException {
+        return mField.getDouble(target);
+    }
+
+    @Override
+    public void setDouble(@NonNull Object target, double value) throws IllegalAccessException {
+        mField.setDouble(target, value);
+    }
+}
@@ -8,6 +8,9 @@ import com.hydra.framework.event.core.EventIntent;
 import com.hydra.framework.event.core.EventReceiver;
 import com.hydra.framework.event.core.EventSender;
 import com.hydra.framework.event.core.helper.DefaultEventThreadWrapper;
+import com.hydra.framework.event.core.helper.EventClassIndex;
+import com.hydra.framework.event.core.helper.EventClassIndex.MethodEntry;
+import com.hydra.framework.event.core.helper.EventInvokerHelper;
 import com.hydra.framework.event.utils.EventLog;
 import com.hydra.framework.thread.ThreadBus;
 import java.lang.reflect.Method;
@@ -17,6 +20,7 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 
+import static com.hydra.framework.event.core.helper.EventHelper.getClassIndex;
 import static com.hydra.framework.event.core.helper.EventHelper.getExcludeSystemMethods;
 
 /**
@@ -71,10 +75,34 @@ public class FWEvent {
     private static ArrayList<FWMethodNode> getDstClassFWMethodNodes(@NonNull Class<?> dstClass) {
         ArrayList<FWMethodNode> methodList = new ArrayList<>();
 
-        List<Method> methods = getExcludeSystemMethods(dstClass);
-
         HashMap<FWEventActionKey, Method> nameMethodMap = new HashMap<>();
 
+        EventClassIndex index = getClassIndex(dstClass);
+
+        //有编译期索引的，直接用索引里的注解，不用遍历所有函数
+        if (index != null) {
+            for (MethodEntry entry : index.methods()) {
+                if (!(entry.annotation instanceof FWEventAnnotation)) {
+                    continue;
+                }
+
+                Method method = entry.method();
+
+                if (method == null) {
+                    continue;
+                }
+
+                if (addFWMethodNode(method, (FWEventAnnotation) entry.annotation, methodList, nameMethodMap)
+                        && entry.invoker != null) {
+                    EventInvokerHelper.register(method, entry.invoker);
+                }
+            }
+
+            return methodList;
+        }
+
+        List<Method> methods = getExcludeSystemMethods(dstClass);
+
         for (Method method : methods) {
             FWEventAnnotation annotation = method.getAnnotation(FWEventAnnotation.class);
 
@@ -82,28 +110,36 @@ public class FWEvent {
                 continue;
             }
 
-            Method preMethod = nameMethodMap.get(annotation.name());
-
-            //这里的判断只需要判断名字，因为参数都是EventIntent类型，返回值也都是void
-            //所以不存在 重载 的情况；在覆盖时，preMethod也是子类的method，保留即可
-            if (preMethod != null && preMethod.getName().equals(method.getName())) {
-                continue;
-            }
+            addFWMethodNode(method, annotation, methodList, nameMethodMap);
+        }
 
-            if (!method.isAccessible()) {
-                method.setAccessible(true);
-            }
+        return methodList;
+    }
 
-            FWMethodNode node = new FWMethodNode();
-            node.method = method;
-            node.methodAnnotation = annotation;
+    private static boolean addFWMethodNode(@NonNull Method method, @NonNull FWEventAnnotation annotation,
+                                           @NonNull ArrayList<FWMethodNode> methodList,
+                                           @NonNull HashMap<FWEventActionKey, Method> nameMethodMap) {
+        Method preMethod = nameMethodMap.get(annotation.name());
 
-            methodList.add(node);
+        //这里的判断只需要判断名字，因为参数都是EventIntent类型，返回值也都是void
+        //所以不存在 重载 的情况；在覆盖时，preMethod也是子类的method，保留即可
+        if (preMethod != null && preMethod.getName().equals(method.getName())) {
+            return false;
+        }
 
-            nameMethodMap.put(annotation.name(), method);
+        if (!method.isAccessible()) {
+            method.setAccessible(true);
         }
 
-        return methodList;
+        FWMethodNode node = new FWMethodNode();
+        node.method = method;
+        node.methodAnnotation = annotation;
+
+        methodList.add(node);
+
+        nameMethodMap.put(annotation.name(), method);
+
+        return true;
     }
 
     //因为FWEvent的action都是固定的，所以可以cache起来，减少生成很多对象
@@ -125,7 +161,7 @@ public class FWEvent {
             }
 
             fwEventAction = new EventAction(fwEventActionKey, fwEventActionKey.sticky ?
-                    EventAction.EVENTACTION_FLAG_STICKY : 0);
+                    EventAction.EVENTACTION_FLAG_STICKY : 0, fwEventActionKey.replayPolicy);
 
             fwEventActionCache.put(fwEventActionKey, fwEventAction);
         }
@@ -136,19 +172,37 @@ public class FWEvent {
     public static void autoBindingEvent(@NonNull Object target) {
         ArrayList<FWMethodNode> nodes = getFWEventMethods(target);
 
-        for (FWMethodNode node : nodes) {
-            sFWEventDispatcher.addBinding(fwEventAction(node.methodAnnotation.name()),
-                    buildFWEventReceiver(node.methodAnnotation, target, node.method));
+        int count = nodes.size();
+
+        EventAction[] eventActions = new EventAction[count];
+        EventReceiver[] receivers = new EventReceiver[count];
+
+        for (int i = 0; i < count; i++) {
+            FWMethodNode node = nodes.get(i);
+
+            eventActions[i] = fwEventAction(node.methodAnnotation.name());
+            receivers[i] = buildFWEventReceiver(node.methodAnnotation, target, node.method);
         }
+
+        sFWEventDispatcher.addBindings(eventActions, receivers);
     }
 
     public static void autoRemoveEvent(@NonNull Object target) {
         ArrayList<FWMethodNode> nodes = getFWEventMethods(target);
 
-        for (FWMethodNode node : nodes) {
-            sFWEventDispatcher.removeBinding(fwEventAction(node.methodAnnotation.name()),
-                    buildFWEventReceiver(node.methodAnnotation, target, node.method));
+        int count = nodes.size();
+
+        EventAction[] eventActions = new EventAction[count];
+        EventReceiver[] receivers = new EventReceiver[count];
+
+        for (int i = 0; i < count; i++) {
+            FWMethodNode node = nodes.get(i);
+
+            eventActions[i] = fwEventAction(node.methodAnnotation.name());
+            receivers[i] = buildFWEventReceiver(node.methodAnnotation, target, node.method);
         }
+
+        sFWEventDispatcher.removeBindings(eventActions, receivers);
     }
 
     /**
@@ -216,9 +270,14 @@ public class FWEvent {
                                  @Nullable Object... args) {
         EventIntent eventIntent = buildFWEventIntent(senderObj, fwEventActionKey);
 
-        eventIntent.addArgs(args);
+        if (args != null) {
+            eventIntent.addArgs(args);
+        }
 
         sFWEventDispatcher.notifyEvent(eventIntent);
+
+        //池子里的intent在所有同步和切线程的receiver都执行完以后回收，new出来的什么都不做
+        eventIntent.release();
     }
 
     private static EventReceiver buildFWEventReceiver(@NonNull FWEventAnnotation annotation,
@@ -229,9 +288,13 @@ public class FWEvent {
 
     private static EventIntent buildFWEventIntent(@Nullable Object senderObj,
                                                   @NonNull FWEventActionKey fwEventActionKey) {
-        EventSender eventSender = new EventSender(senderObj);
+        EventSender eventSender = senderObj == null ? null : new EventSender(senderObj);
         EventAction fwEventAction = fwEventAction(fwEventActionKey);
 
+        if (fwEventActionKey.recyclable) {
+            return EventIntent.obtain(eventSender, fwEventAction);
+        }
+
         return new EventIntent(eventSender, fwEventAction, false);
     }
 }
@@ -1,24 +1,42 @@
 package com.hydra.framework.event.fw;
 
+import com.hydra.framework.event.core.EventReplayPolicy;
+
 /**
  * Created by Hydra.
  *
  * 后续对event加入模块属性
+ *
+ * recyclable：高频的事件发送时用EventIntent的对象池，接收者不能在接收函数返回后继续持有intent，参考EventIntent.obtain
+ *
+ * replayPolicy：晚绑定的模块也要收到最近几次的事件，参考EventReplayPolicy，不需要的传null
  */
 public enum FWEventActionKey {
 
     FWAction_On_Module_Launch_Finished("app", false),
     FWAction_On_AppDb_Created("datacenter", false),
-    FWAction_On_WebSocket_State_Change("websocket", false),
+    FWAction_On_WebSocket_State_Change("websocket", false, true),
     FWAction_On_Login_Success("login", false),
-    FWAction_On_NetState_Changed("net", false),
+    FWAction_On_NetState_Changed("net", false, true),
     ;
 
     public final String module;
     public final boolean sticky;
+    public final boolean recyclable;
+    public final EventReplayPolicy replayPolicy;
 
     FWEventActionKey(String module, boolean sticky) {
+        this(module, sticky, false);
+    }
+
+    FWEventActionKey(String module, boolean sticky, boolean recyclable) {
+        this(module, sticky, recyclable, null);
+    }
+
+    FWEventActionKey(String module, boolean sticky, boolean recyclable, EventReplayPolicy replayPolicy) {
         this.sticky = sticky;
         this.module = module;
+        this.recyclable = recyclable;
+        this.replayPolicy = replayPolicy;
     }
 }
@@ -2,6 +2,7 @@ package com.hydra.framework.event.kvo;
 
 import androidx.annotation.NonNull;
 
+import com.hydra.framework.event.core.EventAction;
 import com.hydra.framework.event.core.EventReceiver;
 import com.hydra.framework.event.core.helper.DefaultEventThreadWrapper;
 import com.hydra.framework.event.kvo.KvoEventIntent;
@@ -37,12 +38,20 @@ public class Kvo {
     public static void autoBindingTo(@NonNull KvoSource source, @NonNull Object dst) {
         ArrayList<KvoMethodNode> nodes = getKvoMethods(source, dst);
 
-        for (KvoMethodNode node : nodes) {
+        int count = nodes.size();
+
+        EventAction[] eventActions = new EventAction[count];
+        EventReceiver[] receivers = new EventReceiver[count];
+
+        for (int i = 0; i < count; i++) {
+            KvoMethodNode node = nodes.get(i);
             KvoMethodAnnotation annotation = node.methodAnnotation;
 
-            source.addBinding(source.declaredKvoField(annotation.name()).eventAction,
-                    buildKvoEventReceiver(annotation, dst, node.method));
+            eventActions[i] = source.declaredKvoField(annotation.name()).eventAction;
+            receivers[i] = buildKvoEventReceiver(annotation, dst, node.method);
         }
+
+        source.addBindings(eventActions, receivers);
     }
 
     /**
@@ -59,14 +68,25 @@ public class Kvo {
     public static void autoBindingTo(@NonNull KvoSource source, @NonNull Object dst, int flag) {
         ArrayList<KvoMethodNode> nodes = getKvoMethods(source, dst);
 
+        int count = flagMethodCount(nodes, flag);
+
+        EventAction[] eventActions = new EventAction[count];
+        EventReceiver[] receivers = new EventReceiver[count];
+
+        int index = 0;
+
         for (KvoMethodNode node : nodes) {
             KvoMethodAnnotation annotation = node.methodAnnotation;
 
             if (annotation.flag() == flag) {
-                source.addBinding(source.declaredKvoField(annotation.name()).eventAction,
-                        buildKvoEventReceiver(annotation, dst, node.method));
+                eventActions[index] = source.declaredKvoField(annotation.name()).eventAction;
+                receivers[index] = buildKvoEventReceiver(annotation, dst, node.method);
+
+                index++;
             }
         }
+
+        source.addBindings(eventActions, receivers);
     }
 
     /**
@@ -77,12 +97,20 @@ public class Kvo {
     public static void autoUnbindingFrom(@NonNull KvoSource source, @NonNull Object dst) {
         ArrayList<KvoMethodNode> nodes = getKvoMethods(source, dst);
 
-        for (KvoMethodNode node : nodes) {
+        int count = nodes.size();
+
+        EventAction[] eventActions = new EventAction[count];
+        EventReceiver[] receivers = new EventReceiver[count];
+
+        for (int i = 0; i < count; i++) {
+            KvoMethodNode node = nodes.get(i);
             KvoMethodAnnotation annotation = node.methodAnnotation;
 
-            source.removeBinding(source.declaredKvoField(annotation.name()).eventAction,
-                    buildKvoEventReceiver(annotation, dst, node.method));
+            eventActions[i] = source.declaredKvoField(annotation.name()).eventAction;
+            receivers[i] = buildKvoEventReceiver(annotation, dst, node.method);
         }
+
+        source.removeBindings(eventActions, receivers);
     }
 
     /**
@@ -91,14 +119,25 @@ public class Kvo {
     public static void autoUnbindingFrom(@NonNull KvoSource source, @NonNull Object dst, int flag) {
         ArrayList<KvoMethodNode> nodes = getKvoMethods(source, dst);
 
+        int count = flagMethodCount(nodes, flag);
+
+        EventAction[] eventActions = new EventAction[count];
+        EventReceiver[] receivers = new EventReceiver[count];
+
+        int index = 0;
+
         for (KvoMethodNode node : nodes) {
             KvoMethodAnnotation annotation = node.methodAnnotation;
 
             if (annotation.flag() == flag) {
-                source.removeBinding(source.declaredKvoField(annotation.name()).eventAction,
-                        buildKvoEventReceiver(annotation, dst, node.method));
+                eventActions[index] = source.declaredKvoField(annotation.name()).eventAction;
+                receivers[index] = buildKvoEventReceiver(annotation, dst, node.method);
+
+                index++;
             }
         }
+
+        source.removeBindings(eventActions, receivers);
     }
 
     public static void addKvoBinding(@NonNull KvoSource source, @NonNull Object target, @NonNull String methodName) {
@@ -144,6 +183,18 @@ public class Kvo {
         }
     }
 
+    private static int flagMethodCount(@NonNull ArrayList<KvoMethodNode> nodes, int flag) {
+        int count = 0;
+
+        for (KvoMethodNode node : nodes) {
+            if (node.methodAnnotation.flag() == flag) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
     private static EventReceiver buildKvoEventReceiver(@NonNull KvoMethodAnnotation annotation,
                                                        @NonNull Object target, @NonNull Method method) {
         return new KvoEventReceiver(target, method, DefaultEventThreadWrapper.thread(annotation.thread()),
@@ -3,6 +3,7 @@ package com.hydra.framework.event.kvo;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.EventBundle;
 import com.hydra.framework.event.core.EventIntent;
 import com.hydra.framework.event.core.EventSender;
 
@@ -10,13 +11,49 @@ import com.hydra.framework.event.core.EventSender;
 /**
  * Created by Hydra.
  * 其实这里也可以直接继承EventBundle
+ * <p>
+ * source和新旧值都直接存在intent的成员里，不放到bundle里，省掉bundle里key和参数的数组
+ * 基本类型的field(KvoSource.setInt/setLong/setBoolean/setDouble)，新旧值按位存在mOldBits/mNewBits两个long里，
+ * receiver用newLong()/oldLong()这些直接取，整个过程不装箱；这时newValue()/oldValue()还是可以用的，第一次调用时装箱，之后复用
+ * 反过来，Object的值也可以用newLong()这些取，会拆箱，值是null时返回0/false
+ * <p>
+ * 原来这几个值是按kvo_from/kvo_old_value/kvo_new_value这几个key放在bundle里的，现在还是可以这样读写：
+ * 1、getArgWithKey/putArg用这几个key的，直接读写成员
+ * 2、第一次拿整个bundle(eventBundle/getArgWithIndex/putBundle)时，把这几个值写到bundle里，之后再改值也会同步过去，
+ *    所以用putBundle拷贝出来的intent(比如sticky的补发)，和原来一样能拿到这几个值；
+ *    写的时候插在bundle的最前面，和原来一样是arg0/arg1/arg2，已经有的别的参数(比如KvoList通知里的range)排在它们后面
  */
 public class KvoEventIntent extends EventIntent {
 
+    static final int VALUE_TYPE_OBJECT = 0;
+    static final int VALUE_TYPE_INT = 1;
+    static final int VALUE_TYPE_LONG = 2;
+    static final int VALUE_TYPE_BOOLEAN = 3;
+    static final int VALUE_TYPE_DOUBLE = 4;
+
     private static final String OLD_VALUE_KEY = "kvo_old_value";
     private static final String NEW_VALUE_KEY = "kvo_new_value";
     private static final String FROM_KEY = "kvo_from";
 
+    private KvoSource mKvoSource;
+
+    private int mValueType = VALUE_TYPE_OBJECT;
+
+    //VALUE_TYPE_OBJECT时用
+    private Object mOldValue;
+    private Object mNewValue;
+
+    //基本类型时用，int/long直接存，boolean存0/1，double存doubleToRawLongBits
+    private long mOldBits;
+    private long mNewBits;
+
+    //基本类型装箱以后的值，第一次newValue()/oldValue()时才创建
+    private Object mOldBoxed;
+    private Object mNewBoxed;
+
+    //上面的值是否已经写到bundle里了，写过以后set的时候也要同步写到bundle里
+    private volatile boolean mBundleSynced;
+
     public static KvoEventIntent build(KvoSource source, String name) {
         return build(source, name, false);
     }
@@ -37,30 +74,316 @@ public class KvoEventIntent extends EventIntent {
     }
 
     public void setKvoSource(KvoSource kvoSource) {
-        putArg(FROM_KEY, kvoSource);
+        mKvoSource = kvoSource;
+
+        if (mBundleSynced) {
+            super.putArg(FROM_KEY, kvoSource);
+        }
     }
 
     public void setOldValue(Object oldValue) {
-        putArg(OLD_VALUE_KEY, oldValue);
+        toObjectValues();
+
+        mOldValue = oldValue;
+
+        if (mBundleSynced) {
+            super.putArg(OLD_VALUE_KEY, oldValue);
+        }
     }
 
     public void setNewValue(Object newValue) {
-        putArg(NEW_VALUE_KEY, newValue);
+        toObjectValues();
+
+        mNewValue = newValue;
+
+        if (mBundleSynced) {
+            super.putArg(NEW_VALUE_KEY, newValue);
+        }
+    }
+
+    public void setIntValues(int oldValue, int newValue) {
+        setPrimitiveValues(VALUE_TYPE_INT, oldValue, newValue);
+    }
+
+    public void setLongValues(long oldValue, long newValue) {
+        setPrimitiveValues(VALUE_TYPE_LONG, oldValue, newValue);
+    }
+
+    public void setBooleanValues(boolean oldValue, boolean newValue) {
+        setPrimitiveValues(VALUE_TYPE_BOOLEAN, oldValue ? 1L : 0L, newValue ? 1L : 0L);
+    }
+
+    public void setDoubleValues(double oldValue, double newValue) {
+        setPrimitiveValues(VALUE_TYPE_DOUBLE, Double.doubleToRawLongBits(oldValue),
+                Double.doubleToRawLongBits(newValue));
+    }
+
+    //KvoSource在batch里按位记下来的基本类型值，commit时直接用这个通知
+    void setPrimitiveValues(int valueType, long oldBits, long newBits) {
+        mValueType = valueType;
+        mOldBits = oldBits;
+        mNewBits = newBits;
+
+        mOldBoxed = null;
+        mNewBoxed = null;
+
+        if (mBundleSynced) {
+            putValuesToBundle();
+        }
+    }
+
+    //单独一个方法，set的时候没同步过bundle的不用管，让set这些保持够小，方便内联
+    private void putValuesToBundle() {
+        super.putArg(OLD_VALUE_KEY, oldValue());
+        super.putArg(NEW_VALUE_KEY, newValue());
+    }
+
+    //从基本类型换成Object时，另一个值也要换过去，不然只set了一个的时候另一个就丢了
+    private void toObjectValues() {
+        if (mValueType != VALUE_TYPE_OBJECT) {
+            mOldValue = oldValue();
+            mNewValue = newValue();
+
+            mValueType = VALUE_TYPE_OBJECT;
+        }
+    }
+
+    /**
+     * 把source和新旧值写到bundle里，只写一次，可能在多个receiver的线程里同时调用
+     */
+    private void syncBundle() {
+        if (mBundleSynced) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!mBundleSynced) {
+                //和原来一样，from/old/new固定是arg0/arg1/arg2，bundle里已经有的参数排在它们后面
+                EventBundle bundle = super.eventBundle();
+
+                bundle.putArgAt(0, FROM_KEY, mKvoSource);
+                bundle.putArgAt(1, OLD_VALUE_KEY, oldValue());
+                bundle.putArgAt(2, NEW_VALUE_KEY, newValue());
+
+                mBundleSynced = true;
+            }
+        }
     }
 
     @NonNull
+    @Override
+    public EventBundle eventBundle() {
+        syncBundle();
+
+        return super.eventBundle();
+    }
+
+    @Nullable
+    @Override
+    public <T> T getArgWithIndex(int index) {
+        syncBundle();
+
+        return super.getArgWithIndex(index);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getArgWithKey(@NonNull String key) {
+        if (FROM_KEY.equals(key)) {
+            return (T) mKvoSource;
+        } else if (OLD_VALUE_KEY.equals(key)) {
+            return oldValue();
+        } else if (NEW_VALUE_KEY.equals(key)) {
+            return newValue();
+        }
+
+        return super.getArgWithKey(key);
+    }
+
+    @Override
+    public void putArg(@NonNull String name, @Nullable Object arg) {
+        if (FROM_KEY.equals(name)) {
+            setKvoSource((KvoSource) arg);
+        } else if (OLD_VALUE_KEY.equals(name)) {
+            setOldValue(arg);
+        } else if (NEW_VALUE_KEY.equals(name)) {
+            setNewValue(arg);
+        } else {
+            super.putArg(name, arg);
+        }
+    }
+
+    /**
+     * 拷贝过来的bundle里有这三个key的，也写到成员里
+     */
+    @Override
+    public void putBundle(@NonNull EventBundle eventBundle) {
+        syncBundle();
+
+        super.putBundle(eventBundle);
+
+        if (eventBundle.hasArg(FROM_KEY)) {
+            mKvoSource = eventBundle.getArgWithKey(FROM_KEY);
+        }
+
+        if (eventBundle.hasArg(OLD_VALUE_KEY) || eventBundle.hasArg(NEW_VALUE_KEY)) {
+            toObjectValues();
+
+            if (eventBundle.hasArg(OLD_VALUE_KEY)) {
+                mOldValue = eventBundle.getArgWithKey(OLD_VALUE_KEY);
+            }
+
+            if (eventBundle.hasArg(NEW_VALUE_KEY)) {
+                mNewValue = eventBundle.getArgWithKey(NEW_VALUE_KEY);
+            }
+        }
+    }
+
+    @NonNull
+    @SuppressWarnings("unchecked")
     public <T extends KvoSource> T source() {
-        return getArgWithKey(FROM_KEY);
+        return (T) mKvoSource;
     }
 
     @Nullable
+    @SuppressWarnings("unchecked")
     public <T> T newValue() {
-        return getArgWithKey(NEW_VALUE_KEY);
+        if (mValueType == VALUE_TYPE_OBJECT) {
+            return (T) mNewValue;
+        }
+
+        Object boxed = mNewBoxed;
+
+        if (boxed == null) {
+            mNewBoxed = boxed = box(mValueType, mNewBits);
+        }
+
+        return (T) boxed;
     }
 
     @Nullable
+    @SuppressWarnings("unchecked")
     public <T> T oldValue() {
-        return getArgWithKey(OLD_VALUE_KEY);
+        if (mValueType == VALUE_TYPE_OBJECT) {
+            return (T) mOldValue;
+        }
+
+        Object boxed = mOldBoxed;
+
+        if (boxed == null) {
+            mOldBoxed = boxed = box(mValueType, mOldBits);
+        }
+
+        return (T) boxed;
+    }
+
+    public int newInt() {
+        return mValueType == VALUE_TYPE_INT ? (int) mNewBits : toInt(mNewBits, true);
+    }
+
+    public int oldInt() {
+        return mValueType == VALUE_TYPE_INT ? (int) mOldBits : toInt(mOldBits, false);
+    }
+
+    public long newLong() {
+        return mValueType == VALUE_TYPE_LONG ? mNewBits : toLong(mNewBits, true);
+    }
+
+    public long oldLong() {
+        return mValueType == VALUE_TYPE_LONG ? mOldBits : toLong(mOldBits, false);
+    }
+
+    public boolean newBoolean() {
+        return mValueType == VALUE_TYPE_BOOLEAN ? mNewBits != 0 : toBoolean(mNewBits, true);
+    }
+
+    public boolean oldBoolean() {
+        return mValueType == VALUE_TYPE_BOOLEAN ? mOldBits != 0 : toBoolean(mOldBits, false);
+    }
+
+    public double newDouble() {
+        return mValueType == VALUE_TYPE_DOUBLE ? Double.longBitsToDouble(mNewBits) : toDouble(mNewBits, true);
+    }
+
+    public double oldDouble() {
+        return mValueType == VALUE_TYPE_DOUBLE ? Double.longBitsToDouble(mOldBits) : toDouble(mOldBits, false);
+    }
+
+    //类型对不上的，按数值转换(和Number.intValue这些一样)，不是直接把位拿来用；boolean当成0/1
+
+    private int toInt(long bits, boolean isNew) {
+        switch (mValueType) {
+            case VALUE_TYPE_OBJECT:
+                return unboxInt(isNew ? newValue() : oldValue());
+            case VALUE_TYPE_DOUBLE:
+                return (int) Double.longBitsToDouble(bits);
+            default:
+                return (int) bits;
+        }
+    }
+
+    private long toLong(long bits, boolean isNew) {
+        switch (mValueType) {
+            case VALUE_TYPE_OBJECT:
+                return unboxLong(isNew ? newValue() : oldValue());
+            case VALUE_TYPE_DOUBLE:
+                return (long) Double.longBitsToDouble(bits);
+            default:
+                return bits;
+        }
+    }
+
+    private boolean toBoolean(long bits, boolean isNew) {
+        switch (mValueType) {
+            case VALUE_TYPE_OBJECT:
+                return unboxBoolean(isNew ? newValue() : oldValue());
+            case VALUE_TYPE_DOUBLE:
+                return Double.longBitsToDouble(bits) != 0;
+            default:
+                return bits != 0;
+        }
+    }
+
+    private double toDouble(long bits, boolean isNew) {
+        switch (mValueType) {
+            case VALUE_TYPE_OBJECT:
+                return unboxDouble(isNew ? newValue() : oldValue());
+            case VALUE_TYPE_DOUBLE:
+                return Double.longBitsToDouble(bits);
+            default:
+                return bits;
+        }
+    }
+
+    static Object box(int valueType, long bits) {
+        switch (valueType) {
+            case VALUE_TYPE_INT:
+                return (int) bits;
+            case VALUE_TYPE_LONG:
+                return bits;
+            case VALUE_TYPE_BOOLEAN:
+                return bits != 0;
+            case VALUE_TYPE_DOUBLE:
+                return Double.longBitsToDouble(bits);
+            default:
+                return null;
+        }
+    }
+
+    private static int unboxInt(@Nullable Number value) {
+        return value == null ? 0 : value.intValue();
+    }
+
+    private static long unboxLong(@Nullable Number value) {
+        return value == null ? 0L : value.longValue();
+    }
+
+    private static boolean unboxBoolean(@Nullable Boolean value) {
+        return value != null && value;
+    }
+
+    private static double unboxDouble(@Nullable Number value) {
+        return value == null ? 0D : value.doubleValue();
     }
 
     @NonNull
@@ -1,10 +1,10 @@
 package com.hydra.framework.event.kvo;
 
-import android.nfc.Tag;
 import androidx.annotation.NonNull;
 
 import com.hydra.framework.event.core.EventIntent;
 import com.hydra.framework.event.core.EventReceiver;
+import com.hydra.framework.event.core.IEventInvoker;
 import com.hydra.framework.event.core.IEventThread;
 import com.hydra.framework.event.kvo.helper.KvoHelper;
 import com.hydra.framework.event.utils.EventLog;
@@ -21,19 +21,24 @@ public class KvoEventReceiver extends EventReceiver {
         super(target, entry, thread, priority, flag);
     }
 
+    KvoEventReceiver(Object target, Method entry, IEventInvoker invoker, IEventThread thread, int priority,
+                     int flag) {
+        super(target, entry, invoker, thread, priority, flag);
+    }
+
     @Override
-    protected void scheduleInvoke(@NonNull Object targetObj, EventIntent eventIntent) {
+    protected IEventThread deliveryThread(@NonNull EventIntent eventIntent) {
         if (JFlagUtil.isFlag(eventIntent.eventAction().flag(),
                 KvoHelper.KVO_EVENT_ACTION_FLAG_FORCE_SYNC) && thread != null) {
             if (EventUtils.sIsDebuggable) {
                 throw new RuntimeException("you are using a data notify only can sync notify, " +
                         "don't use thread=XXX in your receiver method: " + toString());
             } else {
-                EventLog.error(TAG, "scheduleInvoke error don't use thread=XXX in your receiver method");
+                EventLog.error(TAG, "deliveryThread error don't use thread=XXX in your receiver method");
             }
         }
 
-        super.scheduleInvoke(targetObj, eventIntent);
+        return super.deliveryThread(eventIntent);
     }
 
     @Override
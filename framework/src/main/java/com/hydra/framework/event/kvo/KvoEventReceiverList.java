@@ -34,7 +34,7 @@ public class KvoEventReceiverList extends EventReceiverList {
         }
 
         try {
-            Object currentValue = kvoField.field.get(mKvoSource);
+            Object currentValue = kvoField.accessor.get(mKvoSource);
 
             // 这个通知虽然不是一个标准意义上的sticky Notify
             // 但是还是需要用这个标志位来标识此次通知
@@ -1,22 +1,33 @@
 package com.hydra.framework.event.kvo;
 
+import static com.hydra.framework.event.kvo.KvoEventIntent.VALUE_TYPE_BOOLEAN;
+import static com.hydra.framework.event.kvo.KvoEventIntent.VALUE_TYPE_DOUBLE;
+import static com.hydra.framework.event.kvo.KvoEventIntent.VALUE_TYPE_INT;
+import static com.hydra.framework.event.kvo.KvoEventIntent.VALUE_TYPE_LONG;
+import static com.hydra.framework.event.kvo.KvoEventIntent.VALUE_TYPE_OBJECT;
 import static com.hydra.framework.event.kvo.helper.KvoHelper.kvoFieldsContainerFor;
-import static Kvo.TAG;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.hydra.framework.event.core.EventAction;
 import com.hydra.framework.event.core.EventDispatcher;
 import com.hydra.framework.event.core.EventReceiverList;
+import com.hydra.framework.event.core.IFieldAccessor;
 import com.hydra.framework.event.kvo.helper.KvoHelper.KvoField;
 import com.hydra.framework.event.utils.EventLog;
 import com.hydra.framework.event.utils.EventUtils;
-import java.lang.reflect.Field;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
 
 /**
  * Created by Hydra.
  * KvoSource在绑定时，是不会校验绑定的key是否存在，因为默认receiver中接收通知的函数都是有KvoMethodAnnotation的
  * 这里是不支持绑定一个没有KvoMethodAnnotation的函数的，即使传了函数名，也会绑定不成功
+ * <p>
+ * 批量更新：beginBatch/commitBatch(或者batch(Runnable))之间的setValue/notifyKvoEvent，field会立即赋值，
+ * 但是通知会攒到最外层commit时再发，每个field只发一次，oldValue是batch里第一次的旧值，newValue是最后一次的新值，
+ * 多个field按batch里第一次变更的顺序通知；最终值和最初值相等的field不通知(手动notifyKvoEvent的除外)
+ * batch只在开始它的那个线程里生效，其他线程的setValue还是立即通知
  */
 public class KvoSource extends EventDispatcher {
 
@@ -24,6 +35,181 @@ public class KvoSource extends EventDispatcher {
 
     private transient final HashMap<String, KvoField> mKvoValues = kvoFieldsContainerFor(getClass());
 
+    private static class KvoBatchChange {
+        //setInt/setLong这些记下来的，和KvoEventIntent一样按位存在oldBits/newBits里，不装箱
+        int valueType = VALUE_TYPE_OBJECT;
+        long oldBits;
+        long newBits;
+
+        Object oldValue;
+        Object newValue;
+        boolean force;  //手动通知的，即使值没变也要通知
+
+        //同一个field既有按Object记的(比如notifyKvoEvent)，又有按基本类型记的，统一换成Object
+        void toObjectValues() {
+            if (valueType != VALUE_TYPE_OBJECT) {
+                oldValue = KvoEventIntent.box(valueType, oldBits);
+                newValue = KvoEventIntent.box(valueType, newBits);
+
+                valueType = VALUE_TYPE_OBJECT;
+            }
+        }
+
+        boolean isChanged() {
+            if (force) {
+                return true;
+            }
+
+            switch (valueType) {
+                case VALUE_TYPE_OBJECT:
+                    return !isValueEqual(oldValue, newValue);
+                case VALUE_TYPE_DOUBLE:
+                    //和setDouble里一样按Double.equals比较
+                    return Double.doubleToLongBits(Double.longBitsToDouble(oldBits)) !=
+                            Double.doubleToLongBits(Double.longBitsToDouble(newBits));
+                default:
+                    return oldBits != newBits;
+            }
+        }
+    }
+
+    private transient final Object mBatchLock = new Object();
+
+    private transient volatile Thread mBatchThread;
+
+    //下面两个只有mBatchThread自己会读写
+    private transient int mBatchDepth;
+    private transient LinkedHashMap<String, KvoBatchChange> mBatchChanges;
+
+    /**
+     * 开始一次批量更新，可以嵌套，要和commitBatch成对调用
+     */
+    public void beginBatch() {
+        Thread current = Thread.currentThread();
+
+        synchronized (mBatchLock) {
+            if (mBatchThread == null) {
+                mBatchThread = current;
+                mBatchChanges = new LinkedHashMap<>();
+            } else if (mBatchThread != current) {
+                EventLog.warn(TAG, "beginBatch ignored, batch is owned by other thread : " + mBatchThread);
+                return;
+            }
+
+            mBatchDepth++;
+        }
+    }
+
+    /**
+     * 结束一次批量更新，最外层的commit才会把攒下来的变更通知出去
+     */
+    public void commitBatch() {
+        LinkedHashMap<String, KvoBatchChange> changes;
+
+        synchronized (mBatchLock) {
+            //不是当前线程开始的batch(比如beginBatch时被忽略了)，什么都不做
+            if (mBatchThread != Thread.currentThread()) {
+                return;
+            }
+
+            if (--mBatchDepth > 0) {
+                return;
+            }
+
+            changes = mBatchChanges;
+
+            mBatchChanges = null;
+            mBatchThread = null;
+        }
+
+        for (Entry<String, KvoBatchChange> entry : changes.entrySet()) {
+            KvoBatchChange change = entry.getValue();
+
+            if (!change.isChanged()) {
+                continue;
+            }
+
+            if (change.valueType == VALUE_TYPE_OBJECT) {
+                notifyKvoChange(entry.getKey(), change.oldValue, change.newValue);
+            } else {
+                KvoEventIntent kvoEventIntent = KvoEventIntent.build(this, entry.getKey());
+                kvoEventIntent.setPrimitiveValues(change.valueType, change.oldBits, change.newBits);
+
+                notifyEvent(kvoEventIntent);
+            }
+        }
+    }
+
+    public void batch(@NonNull Runnable block) {
+        beginBatch();
+
+        try {
+            block.run();
+        } finally {
+            commitBatch();
+        }
+    }
+
+    private boolean isInBatch() {
+        return mBatchThread == Thread.currentThread();
+    }
+
+    //在batch里就记下来返回true，不在batch里返回false
+    private boolean recordBatchChange(@NonNull String key, @Nullable Object oldValue,
+                                      @Nullable Object newValue, boolean force) {
+        if (!isInBatch()) {
+            return false;
+        }
+
+        KvoBatchChange change = mBatchChanges.get(key);
+
+        if (change == null) {
+            change = new KvoBatchChange();
+            change.oldValue = oldValue;
+
+            mBatchChanges.put(key, change);
+        } else {
+            change.toObjectValues();
+        }
+
+        change.newValue = newValue;
+        change.force |= force;
+
+        return true;
+    }
+
+    //基本类型的field在batch里按位记下来，调用前已经确定在batch里了
+    private void recordBatchChange(@NonNull String key, int valueType, long oldBits, long newBits) {
+        KvoBatchChange change = mBatchChanges.get(key);
+
+        if (change == null) {
+            change = new KvoBatchChange();
+            change.valueType = valueType;
+            change.oldBits = oldBits;
+
+            mBatchChanges.put(key, change);
+        } else if (change.valueType != valueType) {
+            change.toObjectValues();
+            change.newValue = KvoEventIntent.box(valueType, newBits);
+
+            return;
+        }
+
+        change.newBits = newBits;
+    }
+
+    private void notifyKvoChange(@NonNull String key, @Nullable Object oldValue, @Nullable Object newValue) {
+        KvoEventIntent kvoEventIntent = KvoEventIntent.build(this, key);
+        kvoEventIntent.setOldValue(oldValue);
+        kvoEventIntent.setNewValue(newValue);
+
+        notifyEvent(kvoEventIntent);
+    }
+
+    private static boolean isValueEqual(@Nullable Object oldValue, @Nullable Object newValue) {
+        return oldValue == null ? newValue == null : oldValue.equals(newValue);
+    }
+
     /**
      * 手动通知, force notify once
      */
@@ -35,15 +221,12 @@ public class KvoSource extends EventDispatcher {
         }
 
         try {
-            Object currentValue = kvoField.field.get(this);
-
-            KvoEventIntent kvoEventIntent = KvoEventIntent.build(this, key);
+            Object currentValue = kvoField.accessor.get(this);
 
             //这里是手动去通知，oldValue和newValue用一样的
-            kvoEventIntent.setOldValue(currentValue);
-            kvoEventIntent.setNewValue(currentValue);
-
-            notifyEvent(kvoEventIntent);
+            if (!recordBatchChange(key, currentValue, currentValue, true)) {
+                notifyKvoChange(key, currentValue, currentValue);
+            }
         } catch (IllegalAccessException e) {
             EventLog.error(TAG, "get field value failed : " + e.toString());
         }
@@ -60,17 +243,15 @@ public class KvoSource extends EventDispatcher {
         }
 
         try {
-            Field targetField = kvoField.field;
+            IFieldAccessor accessor = kvoField.accessor;
 
-            Object oldValue = targetField.get(this);
+            Object oldValue = accessor.get(this);
 
-            targetField.set(this, newValue);
+            accessor.set(this, newValue);
 
-            KvoEventIntent kvoEventIntent = KvoEventIntent.build(this, key);
-            kvoEventIntent.setOldValue(oldValue);
-            kvoEventIntent.setNewValue(newValue);
-
-            notifyEvent(kvoEventIntent);
+            if (!recordBatchChange(key, oldValue, newValue, true)) {
+                notifyKvoChange(key, oldValue, newValue);
+            }
         } catch (IllegalAccessException e) {
             EventLog.error(TAG, "get field value failed : " + e.toString());
         }
@@ -78,7 +259,7 @@ public class KvoSource extends EventDispatcher {
 
     @Override
     protected EventReceiverList buildEventReceiverList(EventAction eventAction) {
-        return new com.yy.base.event.kvo.KvoEventReceiverList(eventAction, this);
+        return new KvoEventReceiverList(eventAction, this);
     }
 
     public KvoField declaredKvoField(String key) {
@@ -95,28 +276,204 @@ public class KvoSource extends EventDispatcher {
                 return;
             }
 
-            Field targetField = kvoField.field;
+            if (newValue != null && setPrimitiveValue(kvoField, key, newValue)) {
+                return;
+            }
+
+            IFieldAccessor accessor = kvoField.accessor;
+
+            oldValue = accessor.get(this);
+
+            if (!isValueEqual(oldValue, newValue)) {
+                accessor.set(this, newValue);
+
+                if (!recordBatchChange(key, oldValue, newValue, false)) {
+                    notifyKvoChange(key, oldValue, newValue);
+                }
+            }
+        } catch (Exception e) {
+            onSetValueFailed(key, oldValue, newValue, e);
+        }
+    }
+
+    /**
+     * 基本类型的field用下面这几个，读写和通知都不装箱，receiver用KvoEventIntent.newInt()/newLong()这些取值
+     * 类型要和field的类型完全一致；在batch里时也是按位记下来，commit时还是不装箱通知
+     */
+    public void setInt(@NonNull String key, int newValue) {
+        KvoField kvoField = declaredKvoField(key);
+
+        if (kvoField != null) {
+            setInt(kvoField, key, newValue);
+        }
+    }
+
+    public void setLong(@NonNull String key, long newValue) {
+        KvoField kvoField = declaredKvoField(key);
+
+        if (kvoField != null) {
+            setLong(kvoField, key, newValue);
+        }
+    }
+
+    public void setBoolean(@NonNull String key, boolean newValue) {
+        KvoField kvoField = declaredKvoField(key);
+
+        if (kvoField != null) {
+            setBoolean(kvoField, key, newValue);
+        }
+    }
+
+    public void setDouble(@NonNull String key, double newValue) {
+        KvoField kvoField = declaredKvoField(key);
+
+        if (kvoField != null) {
+            setDouble(kvoField, key, newValue);
+        }
+    }
+
+    //setValue传进来的是基本类型field对应的包装类型时，转到不装箱的通知；类型对不上(比如long的field传了Integer)的还是走原来的反射
+    private boolean setPrimitiveValue(@NonNull KvoField kvoField, @NonNull String key, @NonNull Object newValue) {
+        Class<?> type = kvoField.field.getType();
+
+        if (!type.isPrimitive()) {
+            return false;
+        }
+
+        if (type == int.class && newValue instanceof Integer) {
+            setInt(kvoField, key, (Integer) newValue);
+        } else if (type == long.class && newValue instanceof Long) {
+            setLong(kvoField, key, (Long) newValue);
+        } else if (type == boolean.class && newValue instanceof Boolean) {
+            setBoolean(kvoField, key, (Boolean) newValue);
+        } else if (type == double.class && newValue instanceof Double) {
+            setDouble(kvoField, key, (Double) newValue);
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+    private void setInt(@NonNull KvoField kvoField, @NonNull String key, int newValue) {
+        int oldValue = 0;
+
+        try {
+            IFieldAccessor accessor = kvoField.accessor;
+
+            oldValue = accessor.getInt(this);
+
+            if (oldValue == newValue) {
+                return;
+            }
+
+            accessor.setInt(this, newValue);
 
-            oldValue = targetField.get(this);
+            if (isInBatch()) {
+                recordBatchChange(key, VALUE_TYPE_INT, oldValue, newValue);
+            } else {
+                KvoEventIntent kvoEventIntent = KvoEventIntent.build(this, key);
+                kvoEventIntent.setIntValues(oldValue, newValue);
 
-            if (!(oldValue == null ? newValue == null : oldValue.equals(newValue))) {
-                targetField.set(this, newValue);
+                notifyEvent(kvoEventIntent);
+            }
+        } catch (Exception e) {
+            onSetValueFailed(key, oldValue, newValue, e);
+        }
+    }
+
+    private void setLong(@NonNull KvoField kvoField, @NonNull String key, long newValue) {
+        long oldValue = 0L;
+
+        try {
+            IFieldAccessor accessor = kvoField.accessor;
+
+            oldValue = accessor.getLong(this);
 
+            if (oldValue == newValue) {
+                return;
+            }
+
+            accessor.setLong(this, newValue);
+
+            if (isInBatch()) {
+                recordBatchChange(key, VALUE_TYPE_LONG, oldValue, newValue);
+            } else {
                 KvoEventIntent kvoEventIntent = KvoEventIntent.build(this, key);
-                kvoEventIntent.setOldValue(oldValue);
-                kvoEventIntent.setNewValue(newValue);
+                kvoEventIntent.setLongValues(oldValue, newValue);
 
                 notifyEvent(kvoEventIntent);
             }
         } catch (Exception e) {
-            EventLog.error(TAG, "notify kvo event failed:" + e);
+            onSetValueFailed(key, oldValue, newValue, e);
+        }
+    }
 
-            if (EventUtils.sIsDebuggable) {
-                throw new RuntimeException("exception when setValue, key: " + key +
-                        ", oldValue" + (oldValue == null ? "null" : oldValue.toString()) +
-                        ", newValue" +
-                        newValue + ", error: " + e.toString(), e);
+    private void setBoolean(@NonNull KvoField kvoField, @NonNull String key, boolean newValue) {
+        boolean oldValue = false;
+
+        try {
+            IFieldAccessor accessor = kvoField.accessor;
+
+            oldValue = accessor.getBoolean(this);
+
+            if (oldValue == newValue) {
+                return;
+            }
+
+            accessor.setBoolean(this, newValue);
+
+            if (isInBatch()) {
+                recordBatchChange(key, VALUE_TYPE_BOOLEAN, oldValue ? 1L : 0L, newValue ? 1L : 0L);
+            } else {
+                KvoEventIntent kvoEventIntent = KvoEventIntent.build(this, key);
+                kvoEventIntent.setBooleanValues(oldValue, newValue);
+
+                notifyEvent(kvoEventIntent);
             }
+        } catch (Exception e) {
+            onSetValueFailed(key, oldValue, newValue, e);
+        }
+    }
+
+    private void setDouble(@NonNull KvoField kvoField, @NonNull String key, double newValue) {
+        double oldValue = 0D;
+
+        try {
+            IFieldAccessor accessor = kvoField.accessor;
+
+            oldValue = accessor.getDouble(this);
+
+            //和Double.equals一样比较，NaN和NaN相等，0.0和-0.0不相等
+            if (Double.doubleToLongBits(oldValue) == Double.doubleToLongBits(newValue)) {
+                return;
+            }
+
+            accessor.setDouble(this, newValue);
+
+            if (isInBatch()) {
+                recordBatchChange(key, VALUE_TYPE_DOUBLE, Double.doubleToRawLongBits(oldValue),
+                        Double.doubleToRawLongBits(newValue));
+            } else {
+                KvoEventIntent kvoEventIntent = KvoEventIntent.build(this, key);
+                kvoEventIntent.setDoubleValues(oldValue, newValue);
+
+                notifyEvent(kvoEventIntent);
+            }
+        } catch (Exception e) {
+            onSetValueFailed(key, oldValue, newValue, e);
+        }
+    }
+
+    private void onSetValueFailed(@NonNull String key, @Nullable Object oldValue, @Nullable Object newValue,
+                                  @NonNull Exception e) {
+        EventLog.error(TAG, "notify kvo event failed:" + e);
+
+        if (EventUtils.sIsDebuggable) {
+            throw new RuntimeException("exception when setValue, key: " + key +
+                    ", oldValue" + (oldValue == null ? "null" : oldValue.toString()) +
+                    ", newValue" +
+                    newValue + ", error: " + e.toString(), e);
         }
     }
 }
@@ -2,11 +2,20 @@ package com.hydra.framework.event.kvo.helper;
 
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.IFieldAccessor;
+import com.hydra.framework.event.core.helper.EventClassIndex;
+import com.hydra.framework.event.core.helper.EventClassIndex.FieldEntry;
+import com.hydra.framework.event.core.helper.EventClassIndex.MethodEntry;
+import com.hydra.framework.event.core.helper.EventInvokerHelper;
+import com.hydra.framework.event.core.helper.ReflectFieldAccessor;
 import com.hydra.framework.event.kvo.KvoFieldAnnotation;
 import com.hydra.framework.event.kvo.KvoMethodAnnotation;
 import com.hydra.framework.event.kvo.KvoSource;
 import com.hydra.framework.event.kvo.list.KvoList;
+import com.hydra.framework.event.kvo.map.KvoHashMap;
+import com.hydra.framework.event.kvo.set.KvoHashSet;
 import com.hydra.framework.event.utils.EventLog;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -16,6 +25,7 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 
+import static com.hydra.framework.event.core.helper.EventHelper.getClassIndex;
 import static com.hydra.framework.event.core.helper.EventHelper.getExcludeSystemFields;
 import static com.hydra.framework.event.core.helper.EventHelper.getExcludeSystemMethods;
 
@@ -24,6 +34,8 @@ import static com.hydra.framework.event.core.helper.EventHelper.getExcludeSystem
  * 1、把Receiver的method信息缓存下来
  * 2、把source的field信息缓存下来
  * 3、加入了一个给kvo的EventAction的标志位
+ * <p>
+ * 1和2都会先找编译期生成的EventClassIndex，没有的话才反射遍历
  */
 public class KvoHelper {
 
@@ -42,6 +54,8 @@ public class KvoHelper {
 
     public static class KvoField {
         public Field field;
+        //读写field用这个，索引里有直接读写的就用索引的，没有的话是反射
+        public IFieldAccessor accessor;
         public KvoFieldAnnotation fieldAnnotation;
         public EventAction eventAction;
     }
@@ -94,51 +108,88 @@ public class KvoHelper {
                                                                            @NonNull Class<?> sourceClass) {
         ArrayList<KvoMethodNode> methodList = new ArrayList<>();
 
-        List<Method> methods = getExcludeSystemMethods(receiverClass);
-
         HashMap<String, Method> nameMethodMap = new HashMap<>();
 
+        EventClassIndex index = getClassIndex(receiverClass);
+
+        //有编译期索引的，直接用索引里的注解，不用遍历所有函数
+        if (index != null) {
+            for (MethodEntry entry : index.methods()) {
+                if (!(entry.annotation instanceof KvoMethodAnnotation)) {
+                    continue;
+                }
+
+                Method method = entry.method();
+
+                if (method == null) {
+                    continue;
+                }
+
+                if (addKvoMethodNode(source, sourceClass, method, (KvoMethodAnnotation) entry.annotation,
+                        methodList, nameMethodMap) && entry.invoker != null) {
+                    EventInvokerHelper.register(method, entry.invoker);
+                }
+            }
+
+            return methodList;
+        }
+
+        List<Method> methods = getExcludeSystemMethods(receiverClass);
+
         for (Method method : methods) {
             KvoMethodAnnotation annotation = method.getAnnotation(KvoMethodAnnotation.class);
 
-            //有可能绑定的是source的父类的field，也需要加进去
-            if (annotation == null || !annotation.sourceClass().isAssignableFrom(sourceClass)) {
+            if (annotation == null) {
                 continue;
             }
 
-            String annotationName = annotation.name();
+            addKvoMethodNode(source, sourceClass, method, annotation, methodList, nameMethodMap);
+        }
 
-            //这里做了一次校验，即这个field是否存在
-            KvoField kvoField = source.declaredKvoField(annotationName);
+        return methodList;
+    }
 
-            if (kvoField == null) {
-                continue;
-            }
+    private static boolean addKvoMethodNode(@NonNull KvoSource source, @NonNull Class<?> sourceClass,
+                                            @NonNull Method method, @NonNull KvoMethodAnnotation annotation,
+                                            @NonNull ArrayList<KvoMethodNode> methodList,
+                                            @NonNull HashMap<String, Method> nameMethodMap) {
+        //有可能绑定的是source的父类的field，也需要加进去
+        if (!annotation.sourceClass().isAssignableFrom(sourceClass)) {
+            return false;
+        }
 
-            Method preMethod = nameMethodMap.get(annotationName);
+        String annotationName = annotation.name();
 
-            //这里的判断只需要判断名字，因为参数都是KvoEventIntent类型，返回值也都是void
-            //所以不存在 重载 的情况；在覆盖时，preMethod也是子类的method，保留即可
-            if (preMethod != null && preMethod.getName().equals(method.getName())) {
-                EventLog.debug(TAG, "getKvoMethods find method override, subMethod: " +
-                        preMethod.getName() + ", superMethod: " + method.getName());
-                continue;
-            }
+        //这里做了一次校验，即这个field是否存在
+        KvoField kvoField = source.declaredKvoField(annotationName);
 
-            if (!method.isAccessible()) {
-                method.setAccessible(true);
-            }
+        if (kvoField == null) {
+            return false;
+        }
 
-            KvoMethodNode node = new KvoMethodNode();
-            node.method = method;
-            node.methodAnnotation = annotation;
+        Method preMethod = nameMethodMap.get(annotationName);
 
-            methodList.add(node);
+        //这里的判断只需要判断名字，因为参数都是KvoEventIntent类型，返回值也都是void
+        //所以不存在 重载 的情况；在覆盖时，preMethod也是子类的method，保留即可
+        if (preMethod != null && preMethod.getName().equals(method.getName())) {
+            EventLog.debug(TAG, "getKvoMethods find method override, subMethod: " +
+                    preMethod.getName() + ", superMethod: " + method.getName());
+            return false;
+        }
 
-            nameMethodMap.put(annotationName, method);
+        if (!method.isAccessible()) {
+            method.setAccessible(true);
         }
 
-        return methodList;
+        KvoMethodNode node = new KvoMethodNode();
+        node.method = method;
+        node.methodAnnotation = annotation;
+
+        methodList.add(node);
+
+        nameMethodMap.put(annotationName, method);
+
+        return true;
     }
 
     //每一个KvoSource都是一个Event Dispatcher，每一个字段变更都是在这个dispatcher域中的一个事件
@@ -171,48 +222,75 @@ public class KvoHelper {
     private static HashMap<String, KvoField> buildKvoFieldsMap(@NonNull final Class<? extends KvoSource> clazz) {
         HashMap<String, KvoField> kvoFields = new HashMap<>();
 
+        EventClassIndex index = getClassIndex(clazz);
+
+        //有编译期索引的，直接用索引里的注解，不用遍历所有field
+        if (index != null) {
+            for (FieldEntry entry : index.fields()) {
+                if (!(entry.annotation instanceof KvoFieldAnnotation)) {
+                    continue;
+                }
+
+                Field field = entry.field();
+
+                if (field != null) {
+                    addKvoField(clazz, field, (KvoFieldAnnotation) entry.annotation, entry.accessor, kvoFields);
+                }
+            }
+
+            return kvoFields;
+        }
+
         List<Field> fields = getExcludeSystemFields(clazz);
 
         for (Field field : fields) {
             KvoFieldAnnotation annotation = field.getAnnotation(KvoFieldAnnotation.class);
 
             if (annotation != null) {
-                KvoField preField = kvoFields.get(annotation.name());
+                addKvoField(clazz, field, annotation, null, kvoFields);
+            }
+        }
+
+        return kvoFields;
+    }
 
-                //如果子类和父类中有相同名字的key，使用子类的
+    private static void addKvoField(@NonNull final Class<? extends KvoSource> clazz, @NonNull Field field,
+                                    @NonNull KvoFieldAnnotation annotation, @Nullable IFieldAccessor accessor,
+                                    @NonNull HashMap<String, KvoField> kvoFields) {
+        KvoField preField = kvoFields.get(annotation.name());
 
-                //这里的name，使用的都是annotation的name，而不是field的name
-                //因为理论上来说，annotation的名字不一定和field的名字相同，但是我们目前不存在这种情况
+        //如果子类和父类中有相同名字的key，使用子类的
 
-                //所以如果，子类的field是覆盖父类的，但是两个field的annotation不一样
-                //在这种情况下，会保留两个field，对应不同的通知
+        //这里的name，使用的都是annotation的name，而不是field的name
+        //因为理论上来说，annotation的名字不一定和field的名字相同，但是我们目前不存在这种情况
 
-                //这个判断可以加上preField.field.getDeclaringClass().isAssignableFrom(field.getDeclaringClass())
-                //只不过getExcludeSystemFields的list里field是的顺序已经是从子类到父类的了，所以不加这个
-                if (preField == null) {
-                    KvoField kvoField = new KvoField();
+        //所以如果，子类的field是覆盖父类的，但是两个field的annotation不一样
+        //在这种情况下，会保留两个field，对应不同的通知
 
-                    kvoField.field = field;
-                    kvoField.fieldAnnotation = annotation;
-                    kvoField.eventAction = buildKvoFieldEventAction(annotation.name(), field);
+        //这个判断可以加上preField.field.getDeclaringClass().isAssignableFrom(field.getDeclaringClass())
+        //只不过getExcludeSystemFields的list里field是的顺序已经是从子类到父类的了，所以不加这个
+        if (preField == null) {
+            KvoField kvoField = new KvoField();
 
-                    if (!field.isAccessible()) {
-                        field.setAccessible(true);
-                    }
+            kvoField.field = field;
+            kvoField.fieldAnnotation = annotation;
+            kvoField.eventAction = buildKvoFieldEventAction(annotation.name(), field);
 
-                    kvoFields.put(annotation.name(), kvoField);
-                } else {
-                    EventLog.warn(TAG, "two field in sub class and superclass has the same annotation " +
-                            "name in" +
-                            " souceclass : " + clazz.getSimpleName() +
-                            "; we will only pick the field in subclass, field name : " + annotation.name() +
-                            "; superclass : " + field.getDeclaringClass().getSimpleName() +
-                            "; subclass : " + preField.field.getDeclaringClass().getSimpleName());
-                }
+            if (!field.isAccessible()) {
+                field.setAccessible(true);
             }
-        }
 
-        return kvoFields;
+            kvoField.accessor = accessor != null ? accessor : new ReflectFieldAccessor(field);
+
+            kvoFields.put(annotation.name(), kvoField);
+        } else {
+            EventLog.warn(TAG, "two field in sub class and superclass has the same annotation " +
+                    "name in" +
+                    " souceclass : " + clazz.getSimpleName() +
+                    "; we will only pick the field in subclass, field name : " + annotation.name() +
+                    "; superclass : " + field.getDeclaringClass().getSimpleName() +
+                    "; subclass : " + preField.field.getDeclaringClass().getSimpleName());
+        }
     }
 
     private static EventAction buildKvoFieldEventAction(@NonNull String key, @NonNull Field field) {
@@ -222,8 +300,8 @@ public class KvoHelper {
 
         if (KvoList.class.isAssignableFrom(type)) {
             flag = KVO_EVENT_ACTION_FLAG_FORCE_SYNC | KVO_EVENT_ACTION_FLAG_FORCE_MAIN;
-        } else if (com.yy.base.event.kvo.map.KvoHashMap.class.isAssignableFrom(type)
-                || com.yy.base.event.kvo.set.KvoHashSet.class.isAssignableFrom(type)) {
+        } else if (KvoHashMap.class.isAssignableFrom(type)
+                || KvoHashSet.class.isAssignableFrom(type)) {
             flag = KVO_EVENT_ACTION_FLAG_FORCE_SYNC;
         }
 
@@ -0,0 +1,553 @@
+package com.hydra.framework.event.kvo.list;
+
+import android.os.Build.VERSION_CODES;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.RandomAccess;
+
+/**
+ * Created by Hydra.
+ * 分块存储的ArrayList，为了能O(1)的snapshot，KvoList构造时snapshotEnabled的用它做wrapped list
+ * <p>
+ * 元素存在若干个不超过MAX_CHUNK_SIZE的块里，mEnds[i]是第i块结束的下标(不含)，按下标找块是二分(顺序访问有缓存)
+ * 插入时块满了就对半分开，删除后块太小就和旁边的合并，所以插入/删除只挪一个块里的元素，再加上改一遍mEnds
+ * <p>
+ * snapshot()直接拿走当前的块目录，之后第一次修改时才拷贝目录(块的个数那么大)，
+ * 块本身也是第一次写到它的时候才拷贝，没改过的块一直和snapshot共用
+ * <p>
+ * 和ArrayList一样不是线程安全的，只能在一个线程里改；snapshot是不可变的，可以给任意线程读
+ */
+public class ChunkedArrayList<T> extends AbstractList<T> implements RandomAccess {
+
+    static final int MAX_CHUNK_SIZE = 64;
+
+    //删除以后比这个小的块，尝试和旁边的合并
+    private static final int MIN_CHUNK_SIZE = MAX_CHUNK_SIZE / 4;
+
+    private static final int INITIAL_CHUNK_CAPACITY = 8;
+
+    private static final Object[][] EMPTY_CHUNKS = new Object[0][];
+    private static final int[] EMPTY_ENDS = new int[0];
+    private static final boolean[] EMPTY_OWNED = new boolean[0];
+
+    private Object[][] mChunks = EMPTY_CHUNKS;
+    private int[] mEnds = EMPTY_ENDS;
+
+    //这个块是不是自己拷贝过的，不是的话可能和snapshot共用，写之前要先拷贝
+    private boolean[] mOwned = EMPTY_OWNED;
+
+    private int mChunkCount;
+
+    private int mSize;
+
+    //mChunks和mEnds是不是被snapshot拿走了，是的话改之前要先拷贝
+    private boolean mShared;
+
+    //没改过的话，重复snapshot返回同一个
+    @Nullable
+    private KvoListSnapshot<T> mSnapshot;
+
+    //上一次找到的块，顺序访问时不用二分
+    private int mLastChunk;
+
+    //上一次get的块，连着get同一个块的直接取；增删过或者这个块被拷贝换掉了就清掉
+    //只读的get也会改它，所以三个值放在一个不可变的对象里整个换，多个线程同时get时不会拿到别人的start配自己的items
+    @Nullable
+    private ChunkHit mHit;
+
+    private static final class ChunkHit {
+        final int start;
+        final int end;
+        final Object[] items;
+
+        ChunkHit(int start, int end, @NonNull Object[] items) {
+            this.start = start;
+            this.end = end;
+            this.items = items;
+        }
+    }
+
+    public ChunkedArrayList() {
+    }
+
+    public ChunkedArrayList(@NonNull Collection<? extends T> collection) {
+        addAll(collection);
+    }
+
+    /**
+     * O(1)，返回的snapshot和这个list共用没改过的块
+     */
+    @NonNull
+    public KvoListSnapshot<T> snapshot() {
+        return snapshot(KvoListDiff.NO_MOD_COUNT);
+    }
+
+    //KvoList.snapshot用，带上KvoList的modCount
+    @NonNull
+    KvoListSnapshot<T> snapshot(int modCount) {
+        if (mSnapshot == null || mSnapshot.modCount() != modCount) {
+            mSnapshot = new KvoListSnapshot<>(mChunks, mEnds, mChunkCount, mSize, modCount);
+            mShared = true;
+        }
+
+        return mSnapshot;
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        ChunkHit hit = mHit;
+
+        if (hit != null && index >= hit.start && index < hit.end) {
+            return (T) hit.items[index - hit.start];
+        }
+
+        return getFromChunk(index);
+    }
+
+    //不在上一次的块里，找到块以后记下来，保持get足够小能被内联
+    @SuppressWarnings("unchecked")
+    private T getFromChunk(int index) {
+        checkIndex(index);
+
+        int chunk = chunkOf(index);
+
+        ChunkHit hit = new ChunkHit(chunkStart(chunk), mEnds[chunk], mChunks[chunk]);
+
+        mHit = hit;
+
+        return (T) hit.items[index - hit.start];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int index, T element) {
+        checkIndex(index);
+
+        int chunk = chunkOf(index);
+        int offset = index - chunkStart(chunk);
+
+        beforeWrite();
+
+        Object[] items = writableChunk(chunk, offset + 1);
+
+        T oldElement = (T) items[offset];
+
+        items[offset] = element;
+
+        return oldElement;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index < 0 || index > mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+
+        beforeStructureChange();
+
+        if (mChunkCount == 0) {
+            insertChunk(0, new Object[INITIAL_CHUNK_CAPACITY], 0);
+        }
+
+        int chunk = index == mSize ? mChunkCount - 1 : chunkOf(index);
+        int start = chunkStart(chunk);
+
+        if (mEnds[chunk] - start == MAX_CHUNK_SIZE) {
+            if (index == mSize) {
+                //加在最后的，新开一个块，前面的块保持是满的
+                chunk++;
+
+                insertChunk(chunk, new Object[INITIAL_CHUNK_CAPACITY], mSize);
+            } else {
+                splitChunk(chunk);
+
+                if (index > mEnds[chunk]) {
+                    chunk++;
+                }
+            }
+
+            start = chunkStart(chunk);
+        }
+
+        int chunkSize = mEnds[chunk] - start;
+        int offset = index - start;
+
+        Object[] items = writableChunk(chunk, chunkSize + 1);
+
+        System.arraycopy(items, offset, items, offset + 1, chunkSize - offset);
+        items[offset] = element;
+
+        for (int i = chunk; i < mChunkCount; i++) {
+            mEnds[i]++;
+        }
+
+        mSize++;
+        mLastChunk = chunk;
+    }
+
+    @Override
+    public boolean addAll(@NonNull Collection<? extends T> collection) {
+        Object[] items = collection.toArray();
+
+        if (items.length == 0) {
+            return false;
+        }
+
+        beforeStructureChange();
+
+        int copied = 0;
+
+        //先把最后一个块填满，剩下的按满块一个一个接在后面
+        if (mChunkCount > 0) {
+            int chunk = mChunkCount - 1;
+            int chunkSize = chunkSizeOf(chunk);
+            int count = Math.min(MAX_CHUNK_SIZE - chunkSize, items.length);
+
+            if (count > 0) {
+                System.arraycopy(items, 0, writableChunk(chunk, chunkSize + count), chunkSize, count);
+
+                mEnds[chunk] += count;
+                copied = count;
+            }
+        }
+
+        while (copied < items.length) {
+            int count = Math.min(MAX_CHUNK_SIZE, items.length - copied);
+
+            Object[] chunkItems = new Object[Math.max(count, INITIAL_CHUNK_CAPACITY)];
+
+            System.arraycopy(items, copied, chunkItems, 0, count);
+
+            copied += count;
+
+            insertChunk(mChunkCount, chunkItems, mSize + copied);
+        }
+
+        mSize += items.length;
+
+        return true;
+    }
+
+    @Override
+    public boolean addAll(int index, @NonNull Collection<? extends T> collection) {
+        if (index == mSize) {
+            return addAll(collection);
+        }
+
+        return super.addAll(index, collection);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        checkIndex(index);
+
+        beforeStructureChange();
+
+        int chunk = chunkOf(index);
+        int start = chunkStart(chunk);
+        int chunkSize = mEnds[chunk] - start;
+        int offset = index - start;
+
+        Object[] items = writableChunk(chunk, chunkSize);
+
+        T oldElement = (T) items[offset];
+
+        System.arraycopy(items, offset + 1, items, offset, chunkSize - offset - 1);
+        items[chunkSize - 1] = null;
+
+        for (int i = chunk; i < mChunkCount; i++) {
+            mEnds[i]--;
+        }
+
+        mSize--;
+        chunkSize--;
+
+        if (chunkSize == 0) {
+            removeChunk(chunk);
+        } else if (chunkSize < MIN_CHUNK_SIZE) {
+            if (chunk + 1 < mChunkCount && chunkSize + chunkSizeOf(chunk + 1) <= MAX_CHUNK_SIZE) {
+                mergeChunks(chunk);
+            } else if (chunk > 0 && chunkSize + chunkSizeOf(chunk - 1) <= MAX_CHUNK_SIZE) {
+                mergeChunks(chunk - 1);
+            }
+        }
+
+        return oldElement;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+
+        clearHit();
+
+        //旧的目录不用动，snapshot还在用的话让它留着
+        mChunks = EMPTY_CHUNKS;
+        mEnds = EMPTY_ENDS;
+        mOwned = EMPTY_OWNED;
+
+        mChunkCount = 0;
+        mSize = 0;
+        mLastChunk = 0;
+
+        mShared = false;
+        mSnapshot = null;
+    }
+
+    /**
+     * subList().clear()会走到这里，全删的直接clear，删到最后的直接截断，其他的逐个删
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex == 0 && toIndex == mSize) {
+            clear();
+        } else if (toIndex == mSize) {
+            truncate(fromIndex);
+        } else {
+            for (int i = fromIndex; i < toIndex; i++) {
+                remove(fromIndex);
+            }
+        }
+    }
+
+    /**
+     * 默认的实现是一个一个listIterator().set，这里排好以后按块整个拷回去
+     */
+    @RequiresApi(api = VERSION_CODES.N)
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(@Nullable Comparator<? super T> comparator) {
+        Object[] items = toArray();
+
+        Arrays.sort(items, (Comparator<Object>) comparator);
+
+        beforeWrite();
+
+        modCount++;
+
+        int start = 0;
+
+        for (int i = 0; i < mChunkCount; i++) {
+            int end = mEnds[i];
+
+            System.arraycopy(items, start, writableChunk(i, end - start), 0, end - start);
+
+            start = end;
+        }
+    }
+
+    @NonNull
+    @Override
+    public Object[] toArray() {
+        return KvoListSnapshot.copyChunks(mChunks, mEnds, mChunkCount, mSize);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+    }
+
+    private int chunkStart(int chunk) {
+        return chunk == 0 ? 0 : mEnds[chunk - 1];
+    }
+
+    private int chunkSizeOf(int chunk) {
+        return mEnds[chunk] - chunkStart(chunk);
+    }
+
+    //index要在[0, mSize)里
+    private int chunkOf(int index) {
+        int chunk = mLastChunk;
+
+        if (chunk < mChunkCount && index < mEnds[chunk] && index >= chunkStart(chunk)) {
+            return chunk;
+        }
+
+        chunk = chunkIndexOf(mEnds, mChunkCount, index);
+
+        mLastChunk = chunk;
+
+        return chunk;
+    }
+
+    /**
+     * 第一个结束位置比index大的块
+     */
+    static int chunkIndexOf(@NonNull int[] ends, int chunkCount, int index) {
+        int low = 0;
+        int high = chunkCount - 1;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (ends[mid] <= index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    //[newSize, mSize)的都删掉，newSize > 0
+    private void truncate(int newSize) {
+        beforeStructureChange();
+
+        int chunk = chunkOf(newSize);
+        int start = chunkStart(chunk);
+
+        if (newSize > start) {
+            Object[] items = writableChunk(chunk, newSize - start);
+
+            Arrays.fill(items, newSize - start, mEnds[chunk] - start, null);
+
+            mEnds[chunk] = newSize;
+            chunk++;
+        }
+
+        Arrays.fill(mChunks, chunk, mChunkCount, null);
+
+        mChunkCount = chunk;
+        mSize = newSize;
+        mLastChunk = 0;
+    }
+
+    private void clearHit() {
+        mHit = null;
+    }
+
+    //增删之前调用，下标和块的对应关系要变了，get的缓存也不能用了
+    private void beforeStructureChange() {
+        beforeWrite();
+        clearHit();
+
+        modCount++;
+    }
+
+    //每次修改之前调用，目录被snapshot拿走了的话拷贝一份，块都当成共用的
+    private void beforeWrite() {
+        mSnapshot = null;
+
+        if (mShared) {
+            mChunks = mChunks.clone();
+            mEnds = mEnds.clone();
+            mOwned = new boolean[mChunks.length];
+
+            mShared = false;
+        }
+    }
+
+    //可以写的块，至少能放下minCapacity个
+    @NonNull
+    private Object[] writableChunk(int chunk, int minCapacity) {
+        Object[] items = mChunks[chunk];
+
+        if (!mOwned[chunk] || items.length < minCapacity) {
+            int capacity = items.length;
+
+            if (capacity < minCapacity) {
+                capacity = Math.min(Math.max(capacity * 2, minCapacity), MAX_CHUNK_SIZE);
+            }
+
+            ChunkHit hit = mHit;
+
+            if (hit != null && hit.items == mChunks[chunk]) {
+                clearHit();
+            }
+
+            items = Arrays.copyOf(items, capacity);
+
+            mChunks[chunk] = items;
+            mOwned[chunk] = true;
+        }
+
+        return items;
+    }
+
+    private void splitChunk(int chunk) {
+        int start = chunkStart(chunk);
+        int end = mEnds[chunk];
+        int half = (end - start) / 2;
+
+        Object[] items = mChunks[chunk];
+
+        //原来的块可能是共用的，分出来的两个都是新的
+        Object[] first = new Object[MAX_CHUNK_SIZE];
+        Object[] second = new Object[MAX_CHUNK_SIZE];
+
+        System.arraycopy(items, 0, first, 0, half);
+        System.arraycopy(items, half, second, 0, end - start - half);
+
+        mChunks[chunk] = first;
+        mOwned[chunk] = true;
+        mEnds[chunk] = start + half;
+
+        insertChunk(chunk + 1, second, end);
+    }
+
+    private void mergeChunks(int chunk) {
+        int firstSize = chunkSizeOf(chunk);
+        int secondSize = chunkSizeOf(chunk + 1);
+
+        Object[] merged = new Object[MAX_CHUNK_SIZE];
+
+        System.arraycopy(mChunks[chunk], 0, merged, 0, firstSize);
+        System.arraycopy(mChunks[chunk + 1], 0, merged, firstSize, secondSize);
+
+        mChunks[chunk] = merged;
+        mOwned[chunk] = true;
+        mEnds[chunk] = mEnds[chunk + 1];
+
+        removeChunk(chunk + 1);
+    }
+
+    private void insertChunk(int chunk, @NonNull Object[] items, int end) {
+        if (mChunkCount == mChunks.length) {
+            int capacity = Math.max(mChunkCount * 2, 4);
+
+            mChunks = Arrays.copyOf(mChunks, capacity);
+            mEnds = Arrays.copyOf(mEnds, capacity);
+            mOwned = Arrays.copyOf(mOwned, capacity);
+        }
+
+        int moveCount = mChunkCount - chunk;
+
+        System.arraycopy(mChunks, chunk, mChunks, chunk + 1, moveCount);
+        System.arraycopy(mEnds, chunk, mEnds, chunk + 1, moveCount);
+        System.arraycopy(mOwned, chunk, mOwned, chunk + 1, moveCount);
+
+        mChunks[chunk] = items;
+        mEnds[chunk] = end;
+        mOwned[chunk] = true;
+
+        mChunkCount++;
+    }
+
+    private void removeChunk(int chunk) {
+        int moveCount = mChunkCount - chunk - 1;
+
+        System.arraycopy(mChunks, chunk + 1, mChunks, chunk, moveCount);
+        System.arraycopy(mEnds, chunk + 1, mEnds, chunk, moveCount);
+        System.arraycopy(mOwned, chunk + 1, mOwned, chunk, moveCount);
+
+        mChunkCount--;
+
+        mChunks[mChunkCount] = null;
+        mLastChunk = 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.hydra.framework.event.kvo.list;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Created by Hydra.
+ * KvoListDiff用的item身份，key相同的是同一个item(可能挪了位置)，key相同但是equals不同的是内容变了
+ * 比如消息列表用消息id做key
+ */
+public interface IKvoListItemKey<T> {
+
+    @Nullable
+    Object keyOf(@Nullable T item);
+}
@@ -0,0 +1,12 @@
+package com.hydra.framework.event.kvo.list;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Created by Hydra.
+ * KvoList.post进来的一个修改，在KvoList的修改线程(默认主线程)上执行，参考KvoListMutationQueue
+ */
+public interface IKvoListMutation<T> {
+
+    void apply(@NonNull KvoList<T> list);
+}
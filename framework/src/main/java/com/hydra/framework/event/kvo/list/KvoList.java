@@ -1,15 +1,32 @@
 package com.hydra.framework.event.kvo.list;
 
+import android.os.Build.VERSION_CODES;
+
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 
+import com.hydra.framework.event.core.IEventThread;
 import com.hydra.framework.event.kvo.KvoSource;
 
-import com.hydra.framework.event.kvo.list.KvoListHelper.NSRange;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChange;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Insert;
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Move;
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Reload;
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Remove;
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Replace;
 
 /**
  * Created by Hydra.
@@ -25,6 +42,15 @@ import java.util.ListIterator;
  * 目前在框架层已经对这两个点做了限制，同步通知的特殊处理在这几个地方：
  * 1、KvoHelper里加入了一个 强制同步更新 的标志位，作为Kvo的EventAction
  * 3、在KvoEventReceiver里，判断了这个标志位，如果是带有 强制同步更新 标志位的Action，会强制同步更新
+ *
+ * 批量修改：beginBatch/commitBatch(或者batch(Runnable))之间的修改，list会立即改，
+ * 但是变更按顺序记下来(参考KvoListBatch的合并规则)，到最外层commit时再通知：
+ * 默认和原来一样，合并完的每个变更单独发一次通知；
+ * setChangesNotifyEnabled(true)的，多个变更合成一个KvoEventArg_Type_Changes只发一次，receiver用KvoListHelper.getNotifyChanges按顺序处理，
+ * 所以要所有绑定这个list的receiver都认识Changes才能打开
+ *
+ * 后台线程要读一份一致的内容，在主线程拿snapshot()交过去；构造时snapshotEnabled的，snapshot()不用拷贝整个list；
+ * 后台线程要改，用post/postAdd/postAddAll，会攒起来到主线程一批一批地改
  */
 public class KvoList<T> implements List<T> {
 
@@ -34,10 +60,31 @@ public class KvoList<T> implements List<T> {
 
     private final String mName;
 
+    //KvoList只在一个线程里改，batch也不加锁
+    private int mBatchDepth;
+    private KvoListBatch mBatch;
+
+    //第一次post时才创建
+    private volatile KvoListMutationQueue<T> mMutationQueue;
+
+    //每次修改加一，和batch一样只在改list的线程里读写；KvoListDiff用它判断算完以后list有没有被改过
+    private int mModCount;
+
+    //一组变更(batch、diff)是否合成一个KvoEventArg_Type_Changes通知
+    private boolean mChangesNotifyEnabled;
+
     public KvoList(KvoSource source, String name) {
         this(source, name, null);
     }
 
+    /**
+     * @param snapshotEnabled 经常要snapshot()的传true，wrapped list用ChunkedArrayList，snapshot是O(1)的，
+     *                        代价是get/set比ArrayList慢一点，见ChunkedArrayList
+     */
+    public KvoList(KvoSource source, String name, boolean snapshotEnabled) {
+        this(source, name, snapshotEnabled ? new ChunkedArrayList<>() : null);
+    }
+
     /**
      * @param list 默认是ArrayList，不会对传入的list做深拷贝
      */
@@ -54,7 +101,193 @@ public class KvoList<T> implements List<T> {
     public void setWrappedList(List<T> list) {
         mList = list;
 
-        KvoListHelper.notifyReload(mSource, mName, this);
+        if (!recordChange(KvoEventArg_Type_Reload, 0, list.size())) {
+            KvoListHelper.notifyReload(mSource, mName, this);
+        }
+    }
+
+    /**
+     * 和setWrappedList一样，但是按diff发最小的变更，diff要是拿当前的内容和list算出来的，参考KvoListDiff
+     * diff是Reload的，或者算完以后list又被改过(拿snapshot()算的比modCount，其他的只能比大小)的，还是发Reload
+     */
+    public void setWrappedList(List<T> list, @NonNull KvoListDiff diff) {
+        boolean reload = !isDiffApplicable(diff, list.size());
+
+        mList = list;
+
+        if (reload) {
+            if (!recordChange(KvoEventArg_Type_Reload, 0, list.size())) {
+                KvoListHelper.notifyReload(mSource, mName, this);
+            }
+        } else if (!recordChanges(diff.changes())) {
+            notifyChanges(diff.changes());
+        }
+    }
+
+    /**
+     * 在当前线程算diff，list大的话在后台线程算好再调用setWrappedList(List, KvoListDiff)
+     */
+    public void setWrappedListWithDiff(List<T> list, @Nullable IKvoListItemKey<? super T> itemKey) {
+        setWrappedList(list, KvoListDiff.calculate(mList, mModCount, list, itemKey,
+                KvoListDiff.DEFAULT_MAX_SIZE, KvoListDiff.DEFAULT_MAX_EDITS));
+    }
+
+    private boolean isDiffApplicable(@NonNull KvoListDiff diff, int newSize) {
+        if (diff.isReload() || diff.oldSize() != mList.size() || diff.newSize() != newSize) {
+            return false;
+        }
+
+        return diff.oldModCount() == KvoListDiff.NO_MOD_COUNT || diff.oldModCount() == mModCount;
+    }
+
+    /**
+     * 开始一次批量修改，可以嵌套，要和commitBatch成对调用
+     */
+    public void beginBatch() {
+        if (mBatchDepth++ == 0) {
+            mBatch = new KvoListBatch();
+        }
+    }
+
+    /**
+     * 结束一次批量修改，最外层的commit才会把记下来的变更通知出去，没有变更的不通知
+     */
+    public void commitBatch() {
+        if (mBatchDepth == 0 || --mBatchDepth > 0) {
+            return;
+        }
+
+        KvoListBatch batch = mBatch;
+
+        mBatch = null;
+
+        if (batch.isReload()) {
+            KvoListHelper.notifyReload(mSource, mName, this);
+        } else {
+            notifyChanges(batch.changes());
+        }
+    }
+
+    /**
+     * 打开以后，一组变更(batch的commit、按diff的set)只发一个KvoEventArg_Type_Changes通知，
+     * 不打开的(默认)每个变更单独通知，只认Insert/Remove这些的老receiver也能处理
+     * 只有绑定这个list的receiver都用KvoListHelper.getNotifyChanges处理通知时才打开
+     */
+    public void setChangesNotifyEnabled(boolean enabled) {
+        mChangesNotifyEnabled = enabled;
+    }
+
+    private void notifyChanges(@NonNull List<KvoListChange> changes) {
+        if (mChangesNotifyEnabled) {
+            KvoListHelper.notifyChanges(mSource, mName, this, changes);
+        } else {
+            KvoListHelper.notifyEachChange(mSource, mName, this, changes);
+        }
+    }
+
+    public void batch(@NonNull Runnable block) {
+        beginBatch();
+
+        try {
+            block.run();
+        } finally {
+            commitBatch();
+        }
+    }
+
+    //在batch里就记下来返回true，不在batch里返回false
+    boolean recordChange(@NonNull KvoListChangeType type, int position, int length) {
+        mModCount++;
+
+        if (mBatch == null) {
+            return false;
+        }
+
+        mBatch.record(type, position, length);
+
+        return true;
+    }
+
+    private boolean recordChanges(@NonNull List<KvoListChange> changes) {
+        mModCount++;
+
+        if (mBatch == null) {
+            return false;
+        }
+
+        mBatch.record(changes);
+
+        return true;
+    }
+
+    /**
+     * 当前内容的不可变快照，可以交给任意线程读，之后list再怎么改都不影响它
+     * wrapped list是ChunkedArrayList(构造时snapshotEnabled，或者自己传进来的)时是O(1)的，和list共用没改过的部分；
+     * 其他的list(默认的ArrayList)是拷贝一份
+     * 和修改一样，要在改这个list的线程(一般是主线程)调用
+     */
+    @NonNull
+    public KvoListSnapshot<T> snapshot() {
+        if (mList instanceof ChunkedArrayList) {
+            return ((ChunkedArrayList<T>) mList).snapshot(mModCount);
+        }
+
+        return KvoListSnapshot.copyOf(mList, mModCount);
+    }
+
+    /**
+     * 每次修改都会变，和snapshot()一样要在改这个list的线程里调用
+     */
+    public int modCount() {
+        return mModCount;
+    }
+
+    /**
+     * 任意线程都可以调用，修改先进一个无锁队列，在修改线程(默认主线程)上攒一批一起执行，一批只通知一次
+     * 用来代替每个修改都ThreadBus.post一次，参考KvoListMutationQueue
+     */
+    public void post(@NonNull IKvoListMutation<T> mutation) {
+        mutationQueue().offer(mutation);
+    }
+
+    /**
+     * 同post，加在最后；连着的postAdd/postAddAll执行时合成一次addAll
+     */
+    public void postAdd(T item) {
+        mutationQueue().offerAdd(item);
+    }
+
+    /**
+     * 同postAdd，items在调用时拷贝一份，之后再改它不影响
+     */
+    public void postAddAll(@NonNull Collection<? extends T> items) {
+        mutationQueue().offerAddAll(items);
+    }
+
+    /**
+     * post进来的修改在哪个线程执行，null是默认的主线程
+     * 要和这个list其他的修改在同一个线程
+     */
+    public void setMutationThread(@Nullable IEventThread thread) {
+        mutationQueue().setThread(thread);
+    }
+
+    @NonNull
+    private KvoListMutationQueue<T> mutationQueue() {
+        KvoListMutationQueue<T> queue = mMutationQueue;
+
+        if (queue == null) {
+            synchronized (this) {
+                queue = mMutationQueue;
+
+                if (queue == null) {
+                    queue = new KvoListMutationQueue<>(this);
+                    mMutationQueue = queue;
+                }
+            }
+        }
+
+        return queue;
     }
 
     public List<T> wrappedList() {
@@ -73,7 +306,9 @@ public class KvoList<T> implements List<T> {
     public void add(int location, T object) {
         mList.add(location, object);
 
-        KvoListHelper.notifyInsert(mSource, mName, this, location, 1);
+        if (!recordChange(KvoEventArg_Type_Insert, location, 1)) {
+            KvoListHelper.notifyInsert(mSource, mName, this, location, 1);
+        }
     }
 
     @Override
@@ -82,7 +317,7 @@ public class KvoList<T> implements List<T> {
 
         boolean result = mList.add(object);
 
-        if (result) {
+        if (result && !recordChange(KvoEventArg_Type_Insert, oldSize, 1)) {
             KvoListHelper.notifyInsert(mSource, mName, this, oldSize, 1);
         }
 
@@ -93,7 +328,7 @@ public class KvoList<T> implements List<T> {
     public boolean addAll(int location, Collection<? extends T> collection) {
         boolean result = mList.addAll(location, collection);
 
-        if (result) {
+        if (result && !recordChange(KvoEventArg_Type_Insert, location, collection.size())) {
             KvoListHelper.notifyInsert(mSource, mName, this, location, collection.size());
         }
 
@@ -106,7 +341,7 @@ public class KvoList<T> implements List<T> {
 
         boolean result = mList.addAll(collection);
 
-        if (result) {
+        if (result && !recordChange(KvoEventArg_Type_Insert, oldSize, collection.size())) {
             KvoListHelper.notifyInsert(mSource, mName, this, oldSize, collection.size());
         }
 
@@ -119,14 +354,18 @@ public class KvoList<T> implements List<T> {
 
         mList.clear();
 
-        KvoListHelper.notifyRangeRemove(mSource, mName, this, 0, preSize);
+        if (!recordChange(KvoEventArg_Type_Remove, 0, preSize)) {
+            KvoListHelper.notifyRangeRemove(mSource, mName, this, 0, preSize);
+        }
     }
 
     @Override
     public T remove(int location) {
         T t = mList.remove(location);
 
-        KvoListHelper.notifyRangeRemove(mSource, mName, this, location, 1);
+        if (!recordChange(KvoEventArg_Type_Remove, location, 1)) {
+            KvoListHelper.notifyRangeRemove(mSource, mName, this, location, 1);
+        }
 
         return t;
     }
@@ -138,7 +377,9 @@ public class KvoList<T> implements List<T> {
         if (index >= 0) {
             mList.remove(index);
 
-            KvoListHelper.notifyRangeRemove(mSource, mName, this, index, 1);
+            if (!recordChange(KvoEventArg_Type_Remove, index, 1)) {
+                KvoListHelper.notifyRangeRemove(mSource, mName, this, index, 1);
+            }
         }
 
         return index >= 0;
@@ -155,8 +396,10 @@ public class KvoList<T> implements List<T> {
 
         mList.subList(fromIndex, toIndex).clear();
 
-        KvoListHelper.notifyRangeRemove(mSource, mName, this, fromIndex,
-                toIndex - fromIndex);
+        if (!recordChange(KvoEventArg_Type_Remove, fromIndex, toIndex - fromIndex)) {
+            KvoListHelper.notifyRangeRemove(mSource, mName, this, fromIndex,
+                    toIndex - fromIndex);
+        }
     }
 
     /**
@@ -175,8 +418,10 @@ public class KvoList<T> implements List<T> {
         subList.clear();
         subList.addAll(collection);
 
-        KvoListHelper.notifyRangeReplace(mSource, mName, this, fromIndex,
-                toIndex - fromIndex);
+        if (!recordChange(KvoEventArg_Type_Replace, fromIndex, toIndex - fromIndex)) {
+            KvoListHelper.notifyRangeReplace(mSource, mName, this, fromIndex,
+                    toIndex - fromIndex);
+        }
     }
 
     /**
@@ -186,68 +431,204 @@ public class KvoList<T> implements List<T> {
         mList.clear();
         mList.addAll(newCollection);
 
-        KvoListHelper.notifyReload(mSource, mName, this);
+        if (!recordChange(KvoEventArg_Type_Reload, 0, mList.size())) {
+            KvoListHelper.notifyReload(mSource, mName, this);
+        }
+    }
+
+    /**
+     * clear && addAll, 按diff发最小的变更，规则同setWrappedList(List, KvoListDiff)
+     */
+    public void set(@NonNull Collection<? extends T> newCollection, @NonNull KvoListDiff diff) {
+        if (!isDiffApplicable(diff, newCollection.size())) {
+            set(newCollection);
+            return;
+        }
+
+        mList.clear();
+        mList.addAll(newCollection);
+
+        if (!recordChanges(diff.changes())) {
+            notifyChanges(diff.changes());
+        }
+    }
+
+    public void setWithDiff(@NonNull Collection<? extends T> newCollection,
+                            @Nullable IKvoListItemKey<? super T> itemKey) {
+        List<? extends T> newList = newCollection instanceof List ? (List<? extends T>) newCollection :
+                new ArrayList<>(newCollection);
+
+        set(newList, KvoListDiff.calculate(mList, mModCount, newList, itemKey,
+                KvoListDiff.DEFAULT_MAX_SIZE, KvoListDiff.DEFAULT_MAX_EDITS));
     }
 
     @Override
     public T set(int location, T object) {
         T t = mList.set(location, object);
 
-        KvoListHelper.notifyRangeReplace(mSource, mName, this, location, 1);
+        if (!recordChange(KvoEventArg_Type_Replace, location, 1)) {
+            KvoListHelper.notifyRangeReplace(mSource, mName, this, location, 1);
+        }
 
         return t;
     }
 
     @Override
     public boolean removeAll(Collection<?> collection) {
-        return doCollectionOperation(collection, true);
+        return removeMatched(item -> collection.contains(item));
     }
 
     @Override
     public boolean retainAll(Collection<?> collection) {
-        return doCollectionOperation(collection, false);
+        return removeMatched(item -> !collection.contains(item));
+    }
+
+    @RequiresApi(api = VERSION_CODES.N)
+    @Override
+    public boolean removeIf(@NonNull Predicate<? super T> filter) {
+        return removeMatched(filter::test);
     }
 
-    private boolean doCollectionOperation(Collection<?> collection, boolean positive) {
-        boolean result = false;
+    /**
+     * 默认的实现是一个一个listIterator().set，每个都通知一次
+     * 这里整个排好以后，只通知位置变了的那一段的Replace，顺序没变的不通知
+     */
+    @RequiresApi(api = VERSION_CODES.N)
+    @Override
+    public void sort(@Nullable Comparator<? super T> comparator) {
+        Object[] oldItems = mList.toArray();
 
-        Iterator<T> it = mList.iterator();
+        Collections.sort(mList, comparator);
 
-        NSRange currentRange = null;
-        int i = 0;
-        int currentDeleteLength = 0;
+        notifyReplacedRange(oldItems);
+    }
+
+    /**
+     * 同sort，只通知换成了别的对象的那一段
+     */
+    @RequiresApi(api = VERSION_CODES.N)
+    @Override
+    public void replaceAll(@NonNull UnaryOperator<T> operator) {
+        Object[] oldItems = mList.toArray();
+
+        ListIterator<T> it = mList.listIterator();
 
         while (it.hasNext()) {
-            T t = it.next();
+            it.set(operator.apply(it.next()));
+        }
+
+        notifyReplacedRange(oldItems);
+    }
+
+    //和oldItems比，第一个到最后一个不是同一个对象的，合成一个Replace
+    private void notifyReplacedRange(@NonNull Object[] oldItems) {
+        int size = Math.min(oldItems.length, mList.size());
+
+        int first = 0;
+
+        while (first < size && oldItems[first] == mList.get(first)) {
+            first++;
+        }
+
+        if (first == size) {
+            return;
+        }
+
+        int last = size - 1;
+
+        while (last > first && oldItems[last] == mList.get(last)) {
+            last--;
+        }
+
+        if (!recordChange(KvoEventArg_Type_Replace, first, last + 1 - first)) {
+            KvoListHelper.notifyRangeReplace(mSource, mName, this, first, last + 1 - first);
+        }
+    }
+
+    private interface IRemoveFilter<T> {
+        boolean shouldRemove(T item);
+    }
+
+    /**
+     * 先把要删的都找出来再删，filter抛异常的话list不会被改一半
+     * 和原来一样，删掉的每一段通知一个Remove，位置是前面几段删掉以后的位置；在batch里的记到batch里
+     */
+    private boolean removeMatched(@NonNull IRemoveFilter<? super T> filter) {
+        int size = mList.size();
+
+        boolean[] removes = new boolean[size];
+        int removeCount = 0;
 
-            if (collection.contains(t) == positive) {
-                it.remove();
+        Iterator<T> it = mList.iterator();
+
+        for (int i = 0; i < size; i++) {
+            if (filter.shouldRemove(it.next())) {
+                removes[i] = true;
+                removeCount++;
+            }
+        }
+
+        if (removeCount == 0) {
+            return false;
+        }
+
+        if (mList instanceof RandomAccess) {
+            //ArrayList一个一个删是O(n^2)，往前挪完再把尾巴截掉
+            int kept = 0;
+
+            for (int i = 0; i < size; i++) {
+                if (!removes[i]) {
+                    if (kept != i) {
+                        mList.set(kept, mList.get(i));
+                    }
+
+                    kept++;
+                }
+            }
 
-                if (currentRange == null) {
-                    currentRange = new NSRange(i, 1);
-                } else {
-                    currentRange.length++;
+            mList.subList(kept, size).clear();
+        } else {
+            it = mList.iterator();
+
+            for (int i = 0; i < size; i++) {
+                it.next();
+
+                if (removes[i]) {
+                    it.remove();
                 }
+            }
+        }
+
+        //每一段在删之后的list里的位置，前面删掉的已经减掉了
+        int kept = 0;
+        int rangeLength = 0;
 
-                result = true;
-            } else if (currentRange != null) {
-                KvoListHelper.notifyRangeRemove(mSource, mName, this, currentRange.position -
-                        currentDeleteLength, currentRange.length);
+        for (int i = 0; i < size; i++) {
+            if (removes[i]) {
+                rangeLength++;
+                continue;
+            }
 
-                currentDeleteLength += currentRange.length;
+            if (rangeLength > 0) {
+                notifyRemovedRange(kept, rangeLength);
 
-                currentRange = null;
+                rangeLength = 0;
             }
 
-            i++;
+            kept++;
         }
 
-        if (currentRange != null) {
-            KvoListHelper.notifyRangeRemove(mSource, mName, this, currentRange.position -
-                    currentDeleteLength, currentRange.length);
+        if (rangeLength > 0) {
+            notifyRemovedRange(kept, rangeLength);
         }
 
-        return result;
+        return true;
+    }
+
+    private void notifyRemovedRange(int position, int length) {
+        if (!recordChange(KvoEventArg_Type_Remove, position, length)) {
+            KvoListHelper.notifyRangeRemove(mSource, mName, this, position, length);
+        }
     }
 
     /**
@@ -260,7 +641,9 @@ public class KvoList<T> implements List<T> {
 
             mList.add(toIndex, t);
 
-            KvoListHelper.notifyMove(mSource, mName, this, fromIndex, toIndex);
+            if (!recordChange(KvoEventArg_Type_Move, fromIndex, toIndex - fromIndex)) {
+                KvoListHelper.notifyMove(mSource, mName, this, fromIndex, toIndex);
+            }
         }
     }
 
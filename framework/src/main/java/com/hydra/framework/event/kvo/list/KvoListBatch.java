@@ -0,0 +1,130 @@
+package com.hydra.framework.event.kvo.list;
+
+import androidx.annotation.NonNull;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChange;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType;
+import com.hydra.framework.event.kvo.list.KvoListHelper.NSRange;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Insert;
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Move;
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Reload;
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Remove;
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Replace;
+
+/**
+ * Created by Hydra.
+ * KvoList.batch里记下来的变更，按发生的顺序存，记的时候只和最后一个合并：
+ * 1、连着的插入、连着的删除、重叠或者挨着的Replace合成一个
+ * 2、刚插进来的又被Replace的，不用再记Replace；刚插进来的又被删掉的，从插入里减掉
+ * 3、有Reload的，前后的都不用记了，整个batch就是一个Reload
+ * 长度是0的不记
+ */
+final class KvoListBatch {
+
+    private final ArrayList<KvoListChange> mChanges = new ArrayList<>();
+
+    private boolean mReload;
+
+    void record(@NonNull KvoListChangeType type, int position, int length) {
+        if (mReload) {
+            return;
+        }
+
+        if (type == KvoEventArg_Type_Reload) {
+            mReload = true;
+            mChanges.clear();
+            return;
+        }
+
+        //move的length是位移，不是长度
+        if (type != KvoEventArg_Type_Move && length <= 0) {
+            return;
+        }
+
+        if (!mergeWithLast(type, position, length)) {
+            mChanges.add(new KvoListChange(type, new NSRange(position, length)));
+        }
+    }
+
+    void record(@NonNull List<KvoListChange> changes) {
+        for (int i = 0, size = changes.size(); i < size; i++) {
+            KvoListChange change = changes.get(i);
+
+            record(change.type, change.range.position, change.range.length);
+        }
+    }
+
+    boolean isReload() {
+        return mReload;
+    }
+
+    @NonNull
+    List<KvoListChange> changes() {
+        return mChanges;
+    }
+
+    private boolean mergeWithLast(@NonNull KvoListChangeType type, int position, int length) {
+        int lastIndex = mChanges.size() - 1;
+
+        if (lastIndex < 0) {
+            return false;
+        }
+
+        KvoListChange last = mChanges.get(lastIndex);
+
+        int lastStart = last.range.position;
+        int lastEnd = lastStart + last.range.length;
+
+        if (last.type == KvoEventArg_Type_Insert) {
+            if (type == KvoEventArg_Type_Insert && position >= lastStart && position <= lastEnd) {
+                mChanges.set(lastIndex, newChange(KvoEventArg_Type_Insert, lastStart, last.range.length + length));
+                return true;
+            }
+
+            if (type == KvoEventArg_Type_Replace && position >= lastStart && position + length <= lastEnd) {
+                return true;
+            }
+
+            if (type == KvoEventArg_Type_Remove && position >= lastStart && position + length <= lastEnd) {
+                if (last.range.length == length) {
+                    mChanges.remove(lastIndex);
+                } else {
+                    mChanges.set(lastIndex, newChange(KvoEventArg_Type_Insert, lastStart, last.range.length - length));
+                }
+
+                return true;
+            }
+
+            return false;
+        }
+
+        if (last.type == KvoEventArg_Type_Remove && type == KvoEventArg_Type_Remove) {
+            //从同一个位置接着往后删，或者在前面挨着删
+            if (position == lastStart || position + length == lastStart) {
+                mChanges.set(lastIndex, newChange(KvoEventArg_Type_Remove, Math.min(position, lastStart),
+                        last.range.length + length));
+                return true;
+            }
+
+            return false;
+        }
+
+        if (last.type == KvoEventArg_Type_Replace && type == KvoEventArg_Type_Replace
+                && position <= lastEnd && position + length >= lastStart) {
+            int start = Math.min(position, lastStart);
+            int end = Math.max(position + length, lastEnd);
+
+            mChanges.set(lastIndex, newChange(KvoEventArg_Type_Replace, start, end - start));
+            return true;
+        }
+
+        return false;
+    }
+
+    @NonNull
+    private static KvoListChange newChange(@NonNull KvoListChangeType type, int position, int length) {
+        return new KvoListChange(type, new NSRange(position, length));
+    }
+}
@@ -0,0 +1,452 @@
+package com.hydra.framework.event.kvo.list;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChange;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType;
+import com.hydra.framework.event.kvo.list.KvoListHelper.NSRange;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Created by Hydra.
+ * 新旧两个list的差异，给KvoList.set/setWrappedList发最小的变更用，不用每次都Reload
+ * <p>
+ * 算法：按IKvoListItemKey的key(没有就是item本身的equals)先去掉相同的头尾，中间的用Myers算最长公共子序列，
+ * 公共子序列里的item不动；剩下的旧item里，和新item的key相同的算挪了位置(Move)，其他的删掉；
+ * key相同但是equals不同的算内容变了(Replace)
+ * <p>
+ * 变更的顺序：先从后往前删，再挪，再从前往后插，最后是Replace，每一个的位置都是在前面的都做完以后的list上算的
+ * <p>
+ * 不依赖KvoList，可以在任意线程算：主线程拿KvoList.snapshot()，后台线程calculate，再回主线程KvoList.set(newList, diff)
+ * 用snapshot算的会记下当时KvoList的modCount，set时list已经被改过的(即使大小没变)发Reload；
+ * 旧list是自己拷贝的ArrayList这些的，没有modCount，只能按大小判断
+ * 去掉头尾以后还是太大、或者差异太多的，不再算下去，结果是Reload
+ */
+public final class KvoListDiff {
+
+    //去掉相同的头尾以后，新旧加起来超过这么多的直接Reload
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    //插入和删除加起来超过这么多的直接Reload，Myers的时间是O((N+M)D)，记录路径的空间是O(D^2)
+    public static final int DEFAULT_MAX_EDITS = 200;
+
+    //旧list不是KvoList/KvoListSnapshot的，不知道modCount
+    static final int NO_MOD_COUNT = -1;
+
+    private final int mOldSize;
+
+    private final int mOldModCount;
+
+    private final int mNewSize;
+
+    //null就是Reload
+    @Nullable
+    private final List<KvoListChange> mChanges;
+
+    private KvoListDiff(int oldSize, int oldModCount, int newSize, @Nullable List<KvoListChange> changes) {
+        mOldSize = oldSize;
+        mOldModCount = oldModCount;
+        mNewSize = newSize;
+        mChanges = changes;
+    }
+
+    @NonNull
+    public static <T> KvoListDiff calculate(@NonNull List<? extends T> oldList, @NonNull List<? extends T> newList,
+                                            @Nullable IKvoListItemKey<? super T> itemKey) {
+        return calculate(oldList, newList, itemKey, DEFAULT_MAX_SIZE, DEFAULT_MAX_EDITS);
+    }
+
+    @NonNull
+    public static <T> KvoListDiff calculate(@NonNull List<? extends T> oldList, @NonNull List<? extends T> newList,
+                                            @Nullable IKvoListItemKey<? super T> itemKey, int maxSize, int maxEdits) {
+        return calculate(oldList, modCountOf(oldList), newList, itemKey, maxSize, maxEdits);
+    }
+
+    @NonNull
+    static <T> KvoListDiff calculate(@NonNull List<? extends T> oldList, int oldModCount,
+                                     @NonNull List<? extends T> newList,
+                                     @Nullable IKvoListItemKey<? super T> itemKey, int maxSize, int maxEdits) {
+        //LinkedList之类的也能随机访问
+        Object[] oldItems = oldList.toArray();
+        Object[] newItems = newList.toArray();
+
+        int oldSize = oldItems.length;
+        int newSize = newItems.length;
+
+        Object[] oldKeys = keysOf(oldList, oldItems, itemKey);
+        Object[] newKeys = keysOf(newList, newItems, itemKey);
+
+        int[] oldToNew = new int[oldSize];
+        int[] newToOld = new int[newSize];
+
+        Arrays.fill(oldToNew, -1);
+        Arrays.fill(newToOld, -1);
+
+        int start = 0;
+
+        while (start < oldSize && start < newSize && isEqual(oldKeys[start], newKeys[start])) {
+            oldToNew[start] = start;
+            newToOld[start] = start;
+
+            start++;
+        }
+
+        int oldEnd = oldSize;
+        int newEnd = newSize;
+
+        while (oldEnd > start && newEnd > start && isEqual(oldKeys[oldEnd - 1], newKeys[newEnd - 1])) {
+            oldEnd--;
+            newEnd--;
+
+            oldToNew[oldEnd] = newEnd;
+            newToOld[newEnd] = oldEnd;
+        }
+
+        if ((oldEnd - start) + (newEnd - start) > maxSize
+                || !matchCommon(oldKeys, newKeys, start, oldEnd, newEnd, maxEdits, oldToNew, newToOld)) {
+            return new KvoListDiff(oldSize, oldModCount, newSize, null);
+        }
+
+        boolean[] moved = matchMoved(oldKeys, newKeys, start, oldEnd, newEnd, oldToNew, newToOld);
+
+        ArrayList<KvoListChange> changes = new ArrayList<>();
+
+        addRemoves(oldToNew, changes);
+        addMoves(oldToNew, newToOld, moved, changes);
+        addInserts(newToOld, changes);
+
+        if (itemKey != null) {
+            addReplaces(oldItems, newItems, newToOld, changes);
+        }
+
+        return new KvoListDiff(oldSize, oldModCount, newSize, changes);
+    }
+
+    private static int modCountOf(@NonNull List<?> list) {
+        if (list instanceof KvoListSnapshot) {
+            return ((KvoListSnapshot<?>) list).modCount();
+        } else if (list instanceof KvoList) {
+            return ((KvoList<?>) list).modCount();
+        }
+
+        return NO_MOD_COUNT;
+    }
+
+    public boolean isReload() {
+        return mChanges == null;
+    }
+
+    /**
+     * Reload时是空的
+     */
+    @NonNull
+    public List<KvoListChange> changes() {
+        return mChanges == null ? Collections.<KvoListChange>emptyList() : mChanges;
+    }
+
+    public int oldSize() {
+        return mOldSize;
+    }
+
+    public int newSize() {
+        return mNewSize;
+    }
+
+    int oldModCount() {
+        return mOldModCount;
+    }
+
+    /**
+     * items是list.toArray()，没有itemKey时item本身就是key；有的话从list里按类型取，不用强转
+     */
+    @NonNull
+    private static <T> Object[] keysOf(@NonNull List<? extends T> list, @NonNull Object[] items,
+                                       @Nullable IKvoListItemKey<? super T> itemKey) {
+        if (itemKey == null) {
+            return items;
+        }
+
+        Object[] keys = new Object[items.length];
+
+        int i = 0;
+
+        for (T item : list) {
+            keys[i++] = itemKey.keyOf(item);
+        }
+
+        return keys;
+    }
+
+    private static boolean isEqual(@Nullable Object lhs, @Nullable Object rhs) {
+        return lhs == null ? rhs == null : lhs.equals(rhs);
+    }
+
+    /**
+     * Myers，在[start, oldEnd)和[start, newEnd)之间找最长公共子序列，记到oldToNew/newToOld里
+     * 编辑距离超过maxEdits返回false
+     */
+    private static boolean matchCommon(@NonNull Object[] oldKeys, @NonNull Object[] newKeys, int start,
+                                       int oldEnd, int newEnd, int maxEdits,
+                                       @NonNull int[] oldToNew, @NonNull int[] newToOld) {
+        int n = oldEnd - start;
+        int m = newEnd - start;
+
+        if (n == 0 || m == 0) {
+            return n + m <= maxEdits;
+        }
+
+        int max = Math.min(n + m, Math.max(maxEdits, 0));
+        int offset = max + 1;
+
+        //v[offset + k]是对角线k上走得最远的x
+        int[] v = new int[2 * max + 3];
+
+        //trace[d]是第d步开始前v在[-d-1, d+1]上的值，回溯用
+        int[][] trace = new int[max + 1][];
+
+        for (int d = 0; d <= max; d++) {
+            int[] window = new int[2 * d + 3];
+            System.arraycopy(v, offset - d - 1, window, 0, window.length);
+            trace[d] = window;
+
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                        ? v[offset + k + 1] : v[offset + k - 1] + 1;
+                int y = x - k;
+
+                while (x < n && y < m && isEqual(oldKeys[start + x], newKeys[start + y])) {
+                    x++;
+                    y++;
+                }
+
+                v[offset + k] = x;
+
+                if (x >= n && y >= m) {
+                    backtrack(trace, d, n, m, start, oldToNew, newToOld);
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static void backtrack(@NonNull int[][] trace, int editCount, int n, int m, int start,
+                                  @NonNull int[] oldToNew, @NonNull int[] newToOld) {
+        int x = n;
+        int y = m;
+
+        for (int d = editCount; d > 0; d--) {
+            int[] window = trace[d];
+            int k = x - y;
+
+            int prevK = (k == -d || (k != d && window[k + d] < window[k + d + 2])) ? k + 1 : k - 1;
+            int prevX = window[prevK + d + 1];
+            int prevY = prevX - prevK;
+
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+
+                oldToNew[start + x] = start + y;
+                newToOld[start + y] = start + x;
+            }
+
+            x = prevX;
+            y = prevY;
+        }
+
+        while (x > 0 && y > 0) {
+            x--;
+            y--;
+
+            oldToNew[start + x] = start + y;
+            newToOld[start + y] = start + x;
+        }
+    }
+
+    /**
+     * 公共子序列以外的，新旧key相同的配成一对，算挪了位置；有重复key的按先后顺序配
+     *
+     * @return 新list里哪些是挪过来的
+     */
+    @NonNull
+    private static boolean[] matchMoved(@NonNull Object[] oldKeys, @NonNull Object[] newKeys, int start,
+                                        int oldEnd, int newEnd,
+                                        @NonNull int[] oldToNew, @NonNull int[] newToOld) {
+        boolean[] moved = new boolean[newKeys.length];
+
+        HashMap<Object, Integer> firstOld = new HashMap<>();
+        int[] nextOld = new int[oldKeys.length];
+
+        //倒着放，链表头是最前面的
+        for (int i = oldEnd - 1; i >= start; i--) {
+            if (oldToNew[i] != -1) {
+                continue;
+            }
+
+            Integer next = firstOld.put(oldKeys[i], i);
+
+            nextOld[i] = next == null ? -1 : next;
+        }
+
+        if (firstOld.isEmpty()) {
+            return moved;
+        }
+
+        for (int i = start; i < newEnd; i++) {
+            if (newToOld[i] != -1) {
+                continue;
+            }
+
+            Integer oldIndex = firstOld.get(newKeys[i]);
+
+            if (oldIndex == null) {
+                continue;
+            }
+
+            if (nextOld[oldIndex] == -1) {
+                firstOld.remove(newKeys[i]);
+            } else {
+                firstOld.put(newKeys[i], nextOld[oldIndex]);
+            }
+
+            oldToNew[oldIndex] = i;
+            newToOld[i] = oldIndex;
+
+            moved[i] = true;
+        }
+
+        return moved;
+    }
+
+    //从后往前删，前面的位置不受影响
+    private static void addRemoves(@NonNull int[] oldToNew, @NonNull ArrayList<KvoListChange> changes) {
+        int i = oldToNew.length - 1;
+
+        while (i >= 0) {
+            if (oldToNew[i] != -1) {
+                i--;
+                continue;
+            }
+
+            int end = i;
+
+            while (i >= 0 && oldToNew[i] == -1) {
+                i--;
+            }
+
+            changes.add(new KvoListChange(KvoListChangeType.KvoEventArg_Type_Remove, new NSRange(i + 1, end - i)));
+        }
+    }
+
+    /**
+     * 删完以后剩下的是公共子序列和挪过来的，按新list里的顺序，把每个挪过来的放到它前面一个已经就位的后面
+     * 公共子序列里的本来就是就位的，挪过的按新list的顺序处理，处理完也是就位的
+     */
+    private static void addMoves(@NonNull int[] oldToNew, @NonNull int[] newToOld, @NonNull boolean[] moved,
+                                 @NonNull ArrayList<KvoListChange> changes) {
+        //现在list里每个位置是新list的哪一个
+        int[] current = new int[oldToNew.length];
+        int size = 0;
+
+        for (int newIndex : oldToNew) {
+            if (newIndex != -1) {
+                current[size++] = newIndex;
+            }
+        }
+
+        for (int newIndex = 0; newIndex < moved.length; newIndex++) {
+            if (!moved[newIndex]) {
+                continue;
+            }
+
+            int from = indexOf(current, size, newIndex);
+
+            int prev = newIndex - 1;
+
+            //插入的还不在list里
+            while (prev >= 0 && newToOld[prev] == -1) {
+                prev--;
+            }
+
+            int to;
+
+            if (prev < 0) {
+                to = 0;
+            } else {
+                int prevPosition = indexOf(current, size, prev);
+
+                to = from > prevPosition ? prevPosition + 1 : prevPosition;
+            }
+
+            if (from == to) {
+                continue;
+            }
+
+            if (from < to) {
+                System.arraycopy(current, from + 1, current, from, to - from);
+            } else {
+                System.arraycopy(current, to, current, to + 1, from - to);
+            }
+
+            current[to] = newIndex;
+
+            changes.add(new KvoListChange(KvoListChangeType.KvoEventArg_Type_Move, new NSRange(from, to - from)));
+        }
+    }
+
+    private static int indexOf(@NonNull int[] array, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    //挪完以后除了插入的都是新list的顺序了，从前往后插，位置就是新list里的位置
+    private static void addInserts(@NonNull int[] newToOld, @NonNull ArrayList<KvoListChange> changes) {
+        int i = 0;
+
+        while (i < newToOld.length) {
+            if (newToOld[i] != -1) {
+                i++;
+                continue;
+            }
+
+            int begin = i;
+
+            while (i < newToOld.length && newToOld[i] == -1) {
+                i++;
+            }
+
+            changes.add(new KvoListChange(KvoListChangeType.KvoEventArg_Type_Insert, new NSRange(begin, i - begin)));
+        }
+    }
+
+    private static void addReplaces(@NonNull Object[] oldItems, @NonNull Object[] newItems, @NonNull int[] newToOld,
+                                    @NonNull ArrayList<KvoListChange> changes) {
+        int i = 0;
+
+        while (i < newToOld.length) {
+            if (newToOld[i] == -1 || isEqual(oldItems[newToOld[i]], newItems[i])) {
+                i++;
+                continue;
+            }
+
+            int begin = i;
+
+            while (i < newToOld.length && newToOld[i] != -1 && !isEqual(oldItems[newToOld[i]], newItems[i])) {
+                i++;
+            }
+
+            changes.add(new KvoListChange(KvoListChangeType.KvoEventArg_Type_Replace, new NSRange(begin, i - begin)));
+        }
+    }
+}
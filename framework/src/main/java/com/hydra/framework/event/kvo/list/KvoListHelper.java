@@ -5,6 +5,7 @@ import androidx.annotation.Nullable;
 
 import com.hydra.framework.event.kvo.KvoEventIntent;
 import com.hydra.framework.event.kvo.KvoSource;
+import java.util.Collections;
 import java.util.List;
 
 
@@ -55,13 +56,39 @@ public class KvoListHelper {
         KvoEventArg_Type_Remove,
         KvoEventArg_Type_Replace,
         KvoEventArg_Type_Move,
-        KvoEventArg_Type_Reload;
+        KvoEventArg_Type_Reload,
+        //一组有序的变更，#KvoList_EventArg_Key_Changes
+        //只有KvoList.setChangesNotifyEnabled(true)的list才会发，默认一组变更还是按上面的类型一个一个通知
+        KvoEventArg_Type_Changes;
+    }
+
+    /**
+     * 一组变更里的一个，type和range的含义和单个通知时一样：
+     * Move的range是 NSRange(oldLocation, newLocation - oldLocation)，其他的是变更的位置和长度
+     * 每一个的位置都是在前面的变更都做完以后的list上算的，receiver按顺序一个一个处理就可以
+     */
+    public static class KvoListChange {
+        public final KvoListChangeType type;
+        public final NSRange range;
+
+        public KvoListChange(@NonNull KvoListChangeType type, @NonNull NSRange range) {
+            this.type = type;
+            this.range = range;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return type + " " + range;
+        }
     }
 
     //list变更的种类，#KvoListChangeType
     public static final String KvoList_EventArg_Key_Type = "KvoList_EventArg_Key_Type";
     //list变更的范围，#NSRange
     public static final String KvoList_EventArg_Key_Range = "KvoList_EventArg_Key_Range";
+    //一组变更，List<KvoListChange>，只有type是KvoEventArg_Type_Changes时才有
+    public static final String KvoList_EventArg_Key_Changes = "KvoList_EventArg_Key_Changes";
 
     public static <T> void notifyInsert(KvoSource source, String name, List<T> list, int location, int length) {
         notifyKvoArrayChange(source, name, list, KvoEventArg_Type_Insert, new NSRange(location, length));
@@ -84,6 +111,50 @@ public class KvoListHelper {
         notifyKvoArrayChange(source, name, list, KvoEventArg_Type_Reload, new NSRange(0, list.size()));
     }
 
+    /**
+     * 一组变更按顺序每个发一次通知，给不认识Changes类型的receiver用
+     * 每个的range是在前面的变更做完以后的list上算的，但是通知时list已经是全部做完的内容，receiver按range改自己的数据就好
+     */
+    public static <T> void notifyEachChange(KvoSource source, String name, List<T> list,
+                                            @NonNull List<KvoListChange> changes) {
+        for (int i = 0, count = changes.size(); i < count; i++) {
+            KvoListChange change = changes.get(i);
+
+            notifyKvoArrayChange(source, name, list, change.type, change.range);
+        }
+    }
+
+    /**
+     * 一组变更只发一次通知；只有一个变更的，按单个的通知发，不认识Changes类型的receiver也能处理
+     * 参考KvoList.setChangesNotifyEnabled
+     */
+    public static <T> void notifyChanges(KvoSource source, String name, List<T> list,
+                                         @NonNull List<KvoListChange> changes) {
+        int count = changes.size();
+
+        if (count == 0) {
+            return;
+        }
+
+        if (count == 1) {
+            KvoListChange change = changes.get(0);
+
+            notifyKvoArrayChange(source, name, list, change.type, change.range);
+            return;
+        }
+
+        KvoEventIntent kvoEventIntent = KvoEventIntent.build(source, name);
+
+        kvoEventIntent.setOldValue(list);
+        kvoEventIntent.setNewValue(list);
+
+        kvoEventIntent.putArg(KvoList_EventArg_Key_Range, new NSRange(0, list.size()));
+        kvoEventIntent.putArg(KvoList_EventArg_Key_Type, KvoListChangeType.KvoEventArg_Type_Changes);
+        kvoEventIntent.putArg(KvoList_EventArg_Key_Changes, Collections.unmodifiableList(changes));
+
+        source.notifyEvent(kvoEventIntent);
+    }
+
     private static <T> void notifyKvoArrayChange(KvoSource source, String name, List<T> list,
                                                  KvoListChangeType type, NSRange range) {
 
@@ -117,4 +188,20 @@ public class KvoListHelper {
 
         return type == null ? KvoEventArg_Type_Reload : type;
     }
+
+    /**
+     * 不管是单个的通知还是一组的，都按一组变更返回，receiver可以统一处理
+     */
+    @NonNull
+    public static List<KvoListChange> getNotifyChanges(KvoEventIntent intent) {
+        KvoListChangeType type = getNotifyType(intent);
+
+        if (type == KvoListChangeType.KvoEventArg_Type_Changes) {
+            List<KvoListChange> changes = intent.getArgWithKey(KvoList_EventArg_Key_Changes);
+
+            return changes == null ? Collections.<KvoListChange>emptyList() : changes;
+        }
+
+        return Collections.singletonList(new KvoListChange(type, getNotifyRange(intent)));
+    }
 }
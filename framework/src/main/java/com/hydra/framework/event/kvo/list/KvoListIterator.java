@@ -3,6 +3,10 @@ package com.hydra.framework.event.kvo.list;
 import com.hydra.framework.event.kvo.KvoSource;
 import java.util.ListIterator;
 
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Insert;
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Remove;
+import static com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType.KvoEventArg_Type_Replace;
+
 public class KvoListIterator<T> implements ListIterator<T> {
 
     private final KvoSource mKvoSource;
@@ -61,21 +65,32 @@ public class KvoListIterator<T> implements ListIterator<T> {
     public void remove() {
         mIterator.remove();
 
-        KvoListHelper.notifyRangeRemove(mKvoSource, mName, mKvoList, mIterator.nextIndex(), 1);
+        int index = mIterator.nextIndex();
+
+        if (!mKvoList.recordChange(KvoEventArg_Type_Remove, index, 1)) {
+            KvoListHelper.notifyRangeRemove(mKvoSource, mName, mKvoList, index, 1);
+        }
     }
 
     @Override
     public void set(T t) {
         mIterator.set(t);
 
-        KvoListHelper.notifyRangeReplace(mKvoSource, mName, mKvoList, mLastOperation == 1 ?
-                mIterator.previousIndex() : mIterator.nextIndex(), 1);
+        int index = mLastOperation == 1 ? mIterator.previousIndex() : mIterator.nextIndex();
+
+        if (!mKvoList.recordChange(KvoEventArg_Type_Replace, index, 1)) {
+            KvoListHelper.notifyRangeReplace(mKvoSource, mName, mKvoList, index, 1);
+        }
     }
 
     @Override
     public void add(T t) {
         mIterator.add(t);
 
-        KvoListHelper.notifyInsert(mKvoSource, mName, mKvoList, mIterator.previousIndex(), 1);
+        int index = mIterator.previousIndex();
+
+        if (!mKvoList.recordChange(KvoEventArg_Type_Insert, index, 1)) {
+            KvoListHelper.notifyInsert(mKvoSource, mName, mKvoList, index, 1);
+        }
     }
 }
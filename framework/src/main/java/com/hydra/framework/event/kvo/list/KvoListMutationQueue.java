@@ -0,0 +1,191 @@
+package com.hydra.framework.event.kvo.list;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.hydra.framework.event.core.IEventThread;
+import com.hydra.framework.event.core.helper.DefaultEventThreadWrapper;
+import com.hydra.framework.event.utils.EventLog;
+import com.hydra.framework.event.utils.EventUtils;
+import com.hydra.framework.thread.ThreadBus;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Created by Hydra.
+ * KvoList从任意线程来的修改，进一个无锁队列，再在修改线程(默认主线程)上一批一批地执行
+ * <p>
+ * 队列里有东西的时候只post一个drain，drain结束前进来的都由这个drain处理(这一批或者它补post的下一批)，
+ * 所以不管生产者多快，修改线程上同时最多只有一个drain的消息
+ * <p>
+ * 一批里的修改在KvoList的batch里做，只通知一次；连着的postAdd/postAddAll先攒起来，合成一次addAll
+ * 一批最多执行MAX_DRAIN_COUNT个，剩下的再post一次，不会一直占着主线程
+ */
+final class KvoListMutationQueue<T> implements Runnable {
+
+    private static final String TAG = "KvoListMutationQueue";
+
+    static final int MAX_DRAIN_COUNT = 1024;
+
+    //postAdd/postAddAll的，一个item，或者调用时拷贝的一组(items不是null)；drain时不调apply，攒起来一起addAll
+    private static final class Append<T> implements IKvoListMutation<T> {
+        final T item;
+        @Nullable
+        final ArrayList<T> items;
+
+        Append(T item, @Nullable ArrayList<T> items) {
+            this.item = item;
+            this.items = items;
+        }
+
+        @Override
+        public void apply(@NonNull KvoList<T> list) {
+            if (items != null) {
+                list.addAll(items);
+            } else {
+                list.add(item);
+            }
+        }
+    }
+
+    private final KvoList<T> mList;
+
+    private final ConcurrentLinkedQueue<IKvoListMutation<T>> mMutations = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean mDrainPosted = new AtomicBoolean();
+
+    @Nullable
+    private volatile IEventThread mThread;
+
+    KvoListMutationQueue(@NonNull KvoList<T> list) {
+        mList = list;
+    }
+
+    /**
+     * null是用回默认的主线程
+     */
+    void setThread(@Nullable IEventThread thread) {
+        mThread = thread;
+    }
+
+    void offer(@NonNull IKvoListMutation<T> mutation) {
+        enqueue(mutation);
+    }
+
+    void offerAdd(T item) {
+        enqueue(new Append<>(item, null));
+    }
+
+    void offerAddAll(@NonNull Collection<? extends T> items) {
+        //生产者之后可能还会改它，在这里拷贝一份
+        enqueue(new Append<>(null, new ArrayList<T>(items)));
+    }
+
+    private void enqueue(@NonNull IKvoListMutation<T> mutation) {
+        mMutations.offer(mutation);
+
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!mDrainPosted.compareAndSet(false, true)) {
+            return;
+        }
+
+        IEventThread thread = mThread;
+
+        if (thread == null) {
+            thread = DefaultEventThreadWrapper.thread(ThreadBus.Main);
+        }
+
+        if (thread == null || !thread.post(this)) {
+            mDrainPosted.set(false);
+
+            EventLog.error(TAG, "post drain failed, pending mutations : " + mMutations.size());
+        }
+    }
+
+    @Override
+    public void run() {
+        ArrayList<T> appends = null;
+
+        try {
+            mList.beginBatch();
+
+            for (int i = 0; i < MAX_DRAIN_COUNT; i++) {
+                IKvoListMutation<T> mutation = mMutations.poll();
+
+                if (mutation == null) {
+                    break;
+                }
+
+                if (mutation instanceof Append) {
+                    if (appends == null) {
+                        appends = new ArrayList<>();
+                    }
+
+                    collectAppend((Append<T>) mutation, appends);
+                    continue;
+                }
+
+                if (appends != null) {
+                    applyAppends(appends);
+                    appends = null;
+                }
+
+                apply(mutation);
+            }
+
+            if (appends != null) {
+                applyAppends(appends);
+            }
+        } finally {
+            try {
+                mList.commitBatch();
+            } finally {
+                //drain期间生产者看到标志还在，不会再post；先清标志再看队列，清之前进来的在这里补post，之后进来的生产者自己会post
+                //超过一批的量，或者中间有修改抛了异常(包括通知的receiver抛的)，剩下的也是下一次再做
+                mDrainPosted.set(false);
+
+                if (!mMutations.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+    }
+
+    private static <T> void collectAppend(@NonNull Append<T> append, @NonNull ArrayList<T> appends) {
+        if (append.items != null) {
+            appends.addAll(append.items);
+        } else {
+            appends.add(append.item);
+        }
+    }
+
+    private void apply(@NonNull IKvoListMutation<T> mutation) {
+        try {
+            mutation.apply(mList);
+        } catch (Throwable e) {
+            onApplyFailed(e);
+        }
+    }
+
+    //攒起来的postAdd/postAddAll，和单个修改一样，抛了异常也不影响后面的
+    private void applyAppends(@NonNull ArrayList<T> appends) {
+        try {
+            mList.addAll(appends);
+        } catch (Throwable e) {
+            onApplyFailed(e);
+        }
+    }
+
+    private void onApplyFailed(@NonNull Throwable e) {
+        EventLog.error(TAG, "apply mutation failed : " + Log.getStackTraceString(e) + " list : " + mList.name());
+
+        if (EventUtils.sIsDebuggable) {
+            throw new RuntimeException(e);
+        }
+    }
+}
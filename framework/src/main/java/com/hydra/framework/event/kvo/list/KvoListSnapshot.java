@@ -0,0 +1,127 @@
+package com.hydra.framework.event.kvo.list;
+
+import androidx.annotation.NonNull;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Created by Hydra.
+ * KvoList某一时刻的不可变快照，参考KvoList.snapshot
+ * <p>
+ * 拿的是ChunkedArrayList当时的块目录，字段都是final的，交给别的线程以后不用加锁就能读到完整的内容
+ * 不能修改，add/set/remove都会抛UnsupportedOperationException
+ */
+public final class KvoListSnapshot<T> extends AbstractList<T> implements RandomAccess {
+
+    private final Object[][] mChunks;
+    private final int[] mEnds;
+    private final int mChunkCount;
+    private final int mSize;
+
+    //拿snapshot时KvoList的modCount，拿这个算的KvoListDiff用来判断算完以后list有没有被改过
+    private final int mModCount;
+
+    KvoListSnapshot(@NonNull Object[][] chunks, @NonNull int[] ends, int chunkCount, int size, int modCount) {
+        mChunks = chunks;
+        mEnds = ends;
+        mChunkCount = chunkCount;
+        mSize = size;
+        mModCount = modCount;
+    }
+
+    /**
+     * 不是ChunkedArrayList的，只能拷贝一份，当成只有一个块
+     */
+    @NonNull
+    static <T> KvoListSnapshot<T> copyOf(@NonNull List<T> list, int modCount) {
+        Object[] items = list.toArray();
+
+        return new KvoListSnapshot<>(new Object[][]{items}, new int[]{items.length}, 1, items.length, modCount);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+
+        int chunk = ChunkedArrayList.chunkIndexOf(mEnds, mChunkCount, index);
+
+        return (T) mChunks[chunk][chunk == 0 ? index : index - mEnds[chunk - 1]];
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    int modCount() {
+        return mModCount;
+    }
+
+    @NonNull
+    @Override
+    public Object[] toArray() {
+        return copyChunks(mChunks, mEnds, mChunkCount, mSize);
+    }
+
+    /**
+     * 按块走，不用每个都二分
+     */
+    @NonNull
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+
+            private int mChunk;
+            private int mOffset;
+            private int mIndex;
+
+            @Override
+            public boolean hasNext() {
+                return mIndex < mSize;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (mIndex >= mSize) {
+                    throw new NoSuchElementException();
+                }
+
+                while (mIndex >= mEnds[mChunk]) {
+                    mChunk++;
+                    mOffset = 0;
+                }
+
+                mIndex++;
+
+                return (T) mChunks[mChunk][mOffset++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @NonNull
+    static Object[] copyChunks(@NonNull Object[][] chunks, @NonNull int[] ends, int chunkCount, int size) {
+        Object[] items = new Object[size];
+
+        int start = 0;
+
+        for (int i = 0; i < chunkCount; i++) {
+            System.arraycopy(chunks[i], 0, items, start, ends[i] - start);
+
+            start = ends[i];
+        }
+
+        return items;
+    }
+}
@@ -60,11 +60,14 @@ public class KvoPageList<T> extends KvoSource {
     public void reset() {
         datas.clear();
 
-        setValue(kvo_hasMore, false);
-        setValue(kvo_limit, 0L);
-        setValue(kvo_offset, 0L);
-        setValue(kvo_total, 0L);
-        setValue(kvo_snapshot, 0L);
+        //分页状态是一次整体的变更，每个字段只通知一次
+        batch(() -> {
+            setBoolean(kvo_hasMore, false);
+            setLong(kvo_limit, 0L);
+            setLong(kvo_offset, 0L);
+            setLong(kvo_total, 0L);
+            setLong(kvo_snapshot, 0L);
+        });
     }
 
     //协议分页设计：https://git.duowan.com/wuerping1/share/blob/master/page-snapshot.md
@@ -84,6 +87,12 @@ public class KvoPageList<T> extends KvoSource {
     @MainThread
     public void combineList(List<T> resList, long resSnapshot, long resLimit,
                             long resTotal, long reqOffset, long resOffset) {
+        //分页状态是一次整体的变更，每个字段只通知一次
+        batch(() -> doCombineList(resList, resSnapshot, resLimit, resTotal, reqOffset, resOffset));
+    }
+
+    private void doCombineList(List<T> resList, long resSnapshot, long resLimit,
+                               long resTotal, long reqOffset, long resOffset) {
         EventLog.debug(TAG, "current list size: " + datas.size() + ", snapshot: " +
                 this.snapshot + ", offset: " + this.offset + ", limit: " + this.limit +
                 ", total: " + this.total);
@@ -95,12 +104,12 @@ public class KvoPageList<T> extends KvoSource {
         if (reqOffset == 0) {
             datas.set(resList);
 
-            setValue(kvo_limit, resLimit);
-            setValue(kvo_snapshot, resSnapshot);
-            setValue(kvo_total, resTotal);
-            setValue(kvo_offset, resOffset);
+            setLong(kvo_limit, resLimit);
+            setLong(kvo_snapshot, resSnapshot);
+            setLong(kvo_total, resTotal);
+            setLong(kvo_offset, resOffset);
 
-            setValue(kvo_hasMore, resTotal > resOffset);
+            setBoolean(kvo_hasMore, resTotal > resOffset);
 
             return;
         }
@@ -114,11 +123,11 @@ public class KvoPageList<T> extends KvoSource {
                 if (this.offset + resLimit >= resOffset || this.offset + resLimit >= resTotal) {
                     datas.addAll(resList);
 
-                    setValue(kvo_limit, resLimit);
-                    setValue(kvo_total, resTotal);
-                    setValue(kvo_offset, resOffset);
+                    setLong(kvo_limit, resLimit);
+                    setLong(kvo_total, resTotal);
+                    setLong(kvo_offset, resOffset);
 
-                    setValue(kvo_hasMore, resTotal > resOffset);
+                    setBoolean(kvo_hasMore, resTotal > resOffset);
                 } else {
                     //对于不连续的分页，放弃此次数据
                     EventLog.error(TAG, "no continue datas in page list");
@@ -141,11 +150,11 @@ public class KvoPageList<T> extends KvoSource {
             datas.addAll(resList);
         }
 
-        setValue(kvo_snapshot, resSnapshot);
-        setValue(kvo_limit, resLimit);
-        setValue(kvo_total, resTotal);
-        setValue(kvo_offset, resOffset);
+        setLong(kvo_snapshot, resSnapshot);
+        setLong(kvo_limit, resLimit);
+        setLong(kvo_total, resTotal);
+        setLong(kvo_offset, resOffset);
 
-        setValue(kvo_hasMore, resTotal > resOffset);
+        setBoolean(kvo_hasMore, resTotal > resOffset);
     }
 }
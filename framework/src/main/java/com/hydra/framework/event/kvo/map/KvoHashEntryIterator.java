@@ -1,4 +1,4 @@
-package com.yy.base.event.kvo.map;
+package com.hydra.framework.event.kvo.map;
 
 import android.os.Build.VERSION_CODES;
 
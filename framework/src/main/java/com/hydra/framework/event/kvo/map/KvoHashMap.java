@@ -1,4 +1,4 @@
-package com.yy.base.event.kvo.map;
+package com.hydra.framework.event.kvo.map;
 
 import android.os.Build.VERSION_CODES;
 
@@ -6,8 +6,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 
-import com.yy.base.event.kvo.KvoEventIntent;
-import com.yy.base.event.kvo.KvoSource;
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import com.hydra.framework.event.kvo.KvoSource;
 
 import java.util.Collection;
 import java.util.HashMap;
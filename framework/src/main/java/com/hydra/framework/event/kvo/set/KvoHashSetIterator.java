@@ -1,4 +1,4 @@
-package com.yy.base.event.kvo.set;
+package com.hydra.framework.event.kvo.set;
 
 import android.os.Build.VERSION_CODES;
 
@@ -0,0 +1,144 @@
+package com.hydra.framework.event.metrics;
+
+import androidx.annotation.NonNull;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created by Hydra.
+ * 固定分桶的直方图，记录时不分配对象，可以多线程同时记录
+ * <p>
+ * 按2的幂分桶：第0个桶是 <= 0，第i个桶是 [2^(i-1), 2^i - 1]，最后一个桶包含所有更大的值；
+ * 时间用纳秒记录的话，48个桶最大可以到39个小时左右，够用了
+ * <p>
+ * 没有用LongAdder是因为minSdk是21，LongAdder要24
+ */
+public final class EventHistogram {
+
+    public static final int BUCKET_COUNT = 48;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong mSum = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong(Long.MIN_VALUE);
+
+    public void record(long value) {
+        //次数不单独记，snapshot的时候把各个桶加起来，少一次原子操作
+        mBuckets.incrementAndGet(bucketOf(value));
+
+        mSum.addAndGet(value);
+
+        long max = mMax.get();
+
+        while (value > max && !mMax.compareAndSet(max, value)) {
+            max = mMax.get();
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mBuckets.set(i, 0);
+        }
+
+        mSum.set(0);
+        mMax.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * 各个字段是分别读的，记录和snapshot同时进行时，count和sum可能会差一次
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKET_COUNT];
+
+        long count = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = mBuckets.get(i);
+
+            count += buckets[i];
+        }
+
+        return new Snapshot(buckets, count, mSum.get(), count == 0 ? 0 : mMax.get());
+    }
+
+    static int bucketOf(long value) {
+        if (value <= 0) {
+            return 0;
+        }
+
+        return Math.min(64 - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1);
+    }
+
+    /**
+     * 第index个桶里最大的值，最后一个桶是Long.MAX_VALUE
+     */
+    public static long bucketUpperBound(int index) {
+        if (index <= 0) {
+            return 0;
+        }
+
+        if (index >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+
+        return (1L << index) - 1;
+    }
+
+    public static final class Snapshot {
+
+        private final long[] mBuckets;
+
+        public final long count;
+        public final long sum;
+        public final long max;
+
+        Snapshot(@NonNull long[] buckets, long count, long sum, long max) {
+            mBuckets = buckets;
+
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long bucket(int index) {
+            return mBuckets[index];
+        }
+
+        public long mean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * 按桶估算的分位数，返回的是所在桶的上界(不会超过max)
+         *
+         * @param percentile 0 ~ 100
+         */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long target = (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100);
+
+            long seen = 0;
+
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += mBuckets[i];
+
+                if (seen >= target && mBuckets[i] > 0) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+
+            return max;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "count=" + count + " mean=" + mean() + " p50<=" + percentile(50) + " p90<=" + percentile(90)
+                    + " p99<=" + percentile(99) + " max=" + max;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.hydra.framework.event.metrics;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Created by Hydra.
+ * 派发统计的安装入口，默认没有安装任何sink
+ * <p>
+ * 框架里每个统计点都是先取sink()，是null就什么都不做，连System.nanoTime()都不会调用
+ */
+public final class EventMetrics {
+
+    @Nullable
+    private static volatile IEventMetricsSink sSink;
+
+    private EventMetrics() {
+    }
+
+    /**
+     * @param sink null就是卸载
+     */
+    public static void install(@Nullable IEventMetricsSink sink) {
+        sSink = sink;
+    }
+
+    @Nullable
+    public static IEventMetricsSink sink() {
+        return sSink;
+    }
+}
@@ -0,0 +1,111 @@
+package com.hydra.framework.event.metrics;
+
+import androidx.annotation.NonNull;
+import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.metrics.EventMetricsSnapshot.ActionMetrics;
+import com.hydra.framework.event.metrics.EventMetricsSnapshot.MethodMetrics;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Created by Hydra.
+ * 默认的统计实现：
+ * 1、每个action：通知次数 和 fan out(receiver个数)的分布，切线程receiver的排队时间分布
+ * 2、每个接收函数：执行时间的分布
+ * <p>
+ * 每个action/函数第一次出现时会创建它的直方图，之后的记录都不分配对象
+ * <p>
+ * 用法：
+ * EventMetricsRecorder recorder = new EventMetricsRecorder();
+ * EventMetrics.install(recorder);
+ * ...
+ * String dump = recorder.snapshot().dump();
+ */
+public class EventMetricsRecorder implements IEventMetricsSink {
+
+    private static final class ActionRecorder {
+        final EventHistogram fanOut = new EventHistogram();
+        final EventHistogram deliveryDelay = new EventHistogram();
+    }
+
+    private final ConcurrentHashMap<EventAction, ActionRecorder> mActions = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Method, EventHistogram> mMethods = new ConcurrentHashMap<>();
+
+    @Override
+    public void onNotify(@NonNull EventAction eventAction, int fanOut) {
+        actionRecorder(eventAction).fanOut.record(fanOut);
+    }
+
+    @Override
+    public void onDeliveryDelay(@NonNull EventAction eventAction, @NonNull Method method, long delayNanos) {
+        actionRecorder(eventAction).deliveryDelay.record(delayNanos);
+    }
+
+    @Override
+    public void onInvoke(@NonNull EventAction eventAction, @NonNull Method method, long costNanos) {
+        EventHistogram histogram = mMethods.get(method);
+
+        if (histogram == null) {
+            EventHistogram newHistogram = new EventHistogram();
+
+            histogram = mMethods.putIfAbsent(method, newHistogram);
+
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+
+        histogram.record(costNanos);
+    }
+
+    @NonNull
+    private ActionRecorder actionRecorder(@NonNull EventAction eventAction) {
+        ActionRecorder recorder = mActions.get(eventAction);
+
+        if (recorder == null) {
+            ActionRecorder newRecorder = new ActionRecorder();
+
+            recorder = mActions.putIfAbsent(eventAction, newRecorder);
+
+            if (recorder == null) {
+                recorder = newRecorder;
+            }
+        }
+
+        return recorder;
+    }
+
+    @NonNull
+    public EventMetricsSnapshot snapshot() {
+        ArrayList<ActionMetrics> actions = new ArrayList<>(mActions.size());
+
+        for (Map.Entry<EventAction, ActionRecorder> entry : mActions.entrySet()) {
+            ActionRecorder recorder = entry.getValue();
+
+            actions.add(new ActionMetrics(entry.getKey().toString(), recorder.fanOut.snapshot(),
+                    recorder.deliveryDelay.snapshot()));
+        }
+
+        ArrayList<MethodMetrics> methods = new ArrayList<>(mMethods.size());
+
+        for (Map.Entry<Method, EventHistogram> entry : mMethods.entrySet()) {
+            Method method = entry.getKey();
+
+            methods.add(new MethodMetrics(method.getDeclaringClass().getName() + "." + method.getName(),
+                    entry.getValue().snapshot()));
+        }
+
+        return new EventMetricsSnapshot(actions, methods);
+    }
+
+    /**
+     * 清空所有数据，已经出现过的action和函数也会去掉
+     */
+    public void reset() {
+        mActions.clear();
+        mMethods.clear();
+    }
+}
@@ -0,0 +1,94 @@
+package com.hydra.framework.event.metrics;
+
+import androidx.annotation.NonNull;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by Hydra.
+ * EventMetricsRecorder某一时刻的数据，不会再变；action和函数都按次数从多到少排好序了
+ * <p>
+ * dump()是给debug页面或者日志用的文本，测试里可以直接读actions/methods
+ * 时间的单位都是纳秒
+ */
+public final class EventMetricsSnapshot {
+
+    public static final class ActionMetrics {
+        @NonNull
+        public final String action;
+
+        //count就是通知次数
+        @NonNull
+        public final EventHistogram.Snapshot fanOut;
+
+        @NonNull
+        public final EventHistogram.Snapshot deliveryDelay;
+
+        ActionMetrics(@NonNull String action, @NonNull EventHistogram.Snapshot fanOut,
+                      @NonNull EventHistogram.Snapshot deliveryDelay) {
+            this.action = action;
+            this.fanOut = fanOut;
+            this.deliveryDelay = deliveryDelay;
+        }
+    }
+
+    public static final class MethodMetrics {
+        @NonNull
+        public final String method;
+
+        @NonNull
+        public final EventHistogram.Snapshot invokeCost;
+
+        MethodMetrics(@NonNull String method, @NonNull EventHistogram.Snapshot invokeCost) {
+            this.method = method;
+            this.invokeCost = invokeCost;
+        }
+    }
+
+    @NonNull
+    public final List<ActionMetrics> actions;
+
+    @NonNull
+    public final List<MethodMetrics> methods;
+
+    EventMetricsSnapshot(@NonNull List<ActionMetrics> actions, @NonNull List<MethodMetrics> methods) {
+        Collections.sort(actions, (lhs, rhs) -> Long.compare(rhs.fanOut.count, lhs.fanOut.count));
+        Collections.sort(methods, (lhs, rhs) -> Long.compare(rhs.invokeCost.count, lhs.invokeCost.count));
+
+        this.actions = Collections.unmodifiableList(actions);
+        this.methods = Collections.unmodifiableList(methods);
+    }
+
+    @NonNull
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("actions:\n");
+
+        for (ActionMetrics metrics : actions) {
+            builder.append("  ").append(metrics.action)
+                    .append("\n    notify/fanOut: ").append(metrics.fanOut);
+
+            if (metrics.deliveryDelay.count > 0) {
+                builder.append("\n    deliveryDelay: ").append(metrics.deliveryDelay);
+            }
+
+            builder.append('\n');
+        }
+
+        builder.append("methods:\n");
+
+        for (MethodMetrics metrics : methods) {
+            builder.append("  ").append(metrics.method)
+                    .append("\n    invokeCost: ").append(metrics.invokeCost).append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return dump();
+    }
+}
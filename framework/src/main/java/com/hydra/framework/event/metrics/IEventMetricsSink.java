@@ -0,0 +1,31 @@
+package com.hydra.framework.event.metrics;
+
+import androidx.annotation.NonNull;
+import com.hydra.framework.event.core.EventAction;
+import java.lang.reflect.Method;
+
+/**
+ * Created by Hydra.
+ * 派发过程的统计接口，通过EventMetrics.install安装，不安装时框架里只多一次volatile读
+ * <p>
+ * 回调都是在派发线程或者receiver的线程里同步调用的，实现里不要做耗时操作，也尽量不要分配对象
+ */
+public interface IEventMetricsSink {
+
+    /**
+     * 一次通知
+     *
+     * @param fanOut 这次通知时action上的receiver个数，没有receiver是0
+     */
+    void onNotify(@NonNull EventAction eventAction, int fanOut);
+
+    /**
+     * 切线程的receiver，从post到开始执行的时间
+     */
+    void onDeliveryDelay(@NonNull EventAction eventAction, @NonNull Method method, long delayNanos);
+
+    /**
+     * 接收函数的执行时间
+     */
+    void onInvoke(@NonNull EventAction eventAction, @NonNull Method method, long costNanos);
+}
@@ -0,0 +1,262 @@
+package com.hydra.framework.event.core;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Hydra.
+ * EventReceiverList的copy on write快照：通知时绑定/解绑、sticky补发、按身份去重、优先级顺序，
+ * 以及批量绑定和通知同时进行时，sticky不会比实时的通知晚到
+ */
+public class EventReceiverListTest {
+
+    public static class Target {
+
+        final String name;
+
+        final List<Object> args = new ArrayList<>();
+
+        final List<Boolean> sticky = new ArrayList<>();
+
+        //收到通知时要做的事，比如绑定/解绑别的receiver
+        Runnable onEvent;
+
+        Target(String name) {
+            this.name = name;
+        }
+
+        public synchronized void onEvent(EventIntent intent) {
+            args.add(intent.arg0());
+            sticky.add(intent.isStickyNotify());
+
+            if (onEvent != null) {
+                onEvent.run();
+            }
+        }
+
+        synchronized List<Object> args() {
+            return new ArrayList<>(args);
+        }
+    }
+
+    //equals永远相等的target，身份只能按==判断
+    public static class EqualTarget extends Target {
+
+        EqualTarget(String name) {
+            super(name);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof EqualTarget;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+
+    private static final Method ON_EVENT;
+
+    static {
+        try {
+            ON_EVENT = Target.class.getMethod("onEvent", EventIntent.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private EventDispatcher mDispatcher;
+
+    //按通知的先后记下收到的target
+    private final List<String> mOrder = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        mDispatcher = new EventDispatcher();
+    }
+
+    private static EventReceiver newReceiver(Target target) {
+        return newReceiver(target, EventReceiver.DEFAULT_EVENT_RECEIVER_PRIORITY);
+    }
+
+    private static EventReceiver newReceiver(Target target, int priority) {
+        return new EventReceiver(target, ON_EVENT, null, priority, 0);
+    }
+
+    private void notify(EventAction action, Object arg) {
+        EventIntent intent = new EventIntent(null, action, false);
+        intent.addArgs(arg);
+
+        mDispatcher.notifyEvent(intent);
+    }
+
+    @Test
+    public void bindAndUnbindDuringNotifyUseTheSnapshot() {
+        EventAction action = new EventAction("EventReceiverListTest.modify");
+
+        Target first = new Target("first");
+        Target removed = new Target("removed");
+        Target added = new Target("added");
+
+        EventReceiver removedReceiver = newReceiver(removed);
+
+        //第一个收到的时候解绑后面的、绑定一个新的
+        first.onEvent = () -> {
+            if (first.args.size() == 1) {
+                mDispatcher.removeBinding(action, removedReceiver);
+                mDispatcher.addBinding(action, newReceiver(added));
+            }
+        };
+
+        mDispatcher.addBinding(action, newReceiver(first));
+        mDispatcher.addBinding(action, removedReceiver);
+
+        notify(action, 1);
+
+        //这一次还是按通知开始时的快照：解绑的照样收到，新绑定的收不到
+        assertEquals(1, removed.args.size());
+        assertTrue(added.args.isEmpty());
+
+        notify(action, 2);
+
+        assertEquals(2, first.args.size());
+        assertEquals(1, removed.args.size());
+        assertEquals(1, added.args.size());
+        assertEquals(2, added.args.get(0));
+    }
+
+    @Test
+    public void stickyIntentIsDeliveredOnBind() {
+        EventAction action = new EventAction("EventReceiverListTest.sticky", EventAction.EVENTACTION_FLAG_STICKY);
+
+        notify(action, "a");
+        notify(action, "b");
+
+        Target target = new Target("late");
+        mDispatcher.addBinding(action, newReceiver(target));
+
+        //只补发最后一次，带sticky标志
+        assertEquals(1, target.args.size());
+        assertEquals("b", target.args.get(0));
+        assertTrue(target.sticky.get(0));
+
+        notify(action, "c");
+
+        assertEquals("c", target.args.get(1));
+        assertFalse(target.sticky.get(1));
+    }
+
+    @Test
+    public void duplicateBindIsDetectedByIdentity() {
+        EventAction action = new EventAction("EventReceiverListTest.identity");
+
+        EqualTarget target = new EqualTarget("target");
+        EqualTarget equalTarget = new EqualTarget("equal");
+
+        mDispatcher.addBinding(action, newReceiver(target));
+        //同一个target的同一个函数，重新构造的receiver也算已经绑定过了
+        mDispatcher.addBinding(action, newReceiver(target));
+        //equals相等但是不是同一个对象的，是另一个receiver
+        mDispatcher.addBinding(action, newReceiver(equalTarget));
+
+        notify(action, 1);
+
+        assertEquals(1, target.args.size());
+        assertEquals(1, equalTarget.args.size());
+
+        //重新构造的receiver也能解绑
+        mDispatcher.removeBinding(action, newReceiver(target));
+
+        notify(action, 2);
+
+        assertEquals(1, target.args.size());
+        assertEquals(2, equalTarget.args.size());
+    }
+
+    @Test
+    public void receiversAreNotifiedByPriority() {
+        EventAction action = new EventAction("EventReceiverListTest.priority");
+
+        Target low = new Target("low");
+        Target high = new Target("high");
+        Target normal1 = new Target("normal1");
+        Target normal2 = new Target("normal2");
+
+        for (Target target : new Target[]{low, high, normal1, normal2}) {
+            target.onEvent = () -> mOrder.add(target.name);
+        }
+
+        mDispatcher.addBinding(action, newReceiver(low, -1));
+        mDispatcher.addBinding(action, newReceiver(normal1));
+        mDispatcher.addBinding(action, newReceiver(high, 10));
+        mDispatcher.addBinding(action, newReceiver(normal2));
+
+        notify(action, 1);
+
+        //优先级高的在前，同优先级的按绑定的先后
+        assertEquals("[high, normal1, normal2, low]", mOrder.toString());
+    }
+
+    @Test
+    public void bulkBindRacingNotifyNeverGoesBackwards() throws InterruptedException {
+        EventAction action = new EventAction("EventReceiverListTest.race", EventAction.EVENTACTION_FLAG_STICKY);
+
+        int notifyCount = 2000;
+        int receiverCount = 50;
+
+        Target[] targets = new Target[receiverCount];
+        EventAction[] actions = new EventAction[receiverCount];
+        EventReceiver[] receivers = new EventReceiver[receiverCount];
+
+        for (int i = 0; i < receiverCount; i++) {
+            targets[i] = new Target("target" + i);
+            actions[i] = action;
+            receivers[i] = newReceiver(targets[i]);
+        }
+
+        notify(action, -1);
+
+        CountDownLatch start = new CountDownLatch(1);
+
+        Thread notifier = new Thread(() -> {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            for (int i = 0; i < notifyCount; i++) {
+                notify(action, i);
+            }
+        });
+
+        notifier.start();
+        start.countDown();
+
+        mDispatcher.addBindings(actions, receivers);
+
+        notifier.join();
+
+        //每个receiver收到的都是递增的(补发的sticky不会比已经收到的实时通知旧)，最后都是最新的那一次
+        for (Target target : targets) {
+            List<Object> args = target.args();
+
+            assertFalse(target.name, args.isEmpty());
+            assertEquals(target.name, notifyCount - 1, args.get(args.size() - 1));
+
+            for (int i = 1; i < args.size(); i++) {
+                assertTrue(target.name + " " + args, (Integer) args.get(i) > (Integer) args.get(i - 1));
+            }
+        }
+    }
+}
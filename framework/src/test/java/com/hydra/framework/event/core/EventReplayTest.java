@@ -0,0 +1,95 @@
+package com.hydra.framework.event.core;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Hydra.
+ * 带重放策略的action，晚绑定的receiver按发送的先后收到最近capacity个
+ */
+public class EventReplayTest {
+
+    public static class Target {
+
+        final List<Object> args = new ArrayList<>();
+
+        boolean allSticky = true;
+
+        public void onEvent(EventIntent intent) {
+            args.add(intent.arg0());
+
+            allSticky &= intent.isStickyNotify();
+        }
+    }
+
+    private static final Method ON_EVENT;
+
+    static {
+        try {
+            ON_EVENT = Target.class.getMethod("onEvent", EventIntent.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private EventDispatcher mDispatcher;
+
+    @Before
+    public void setup() {
+        mDispatcher = new EventDispatcher();
+    }
+
+    private static EventReceiver newReceiver(Target target) {
+        return new EventReceiver(target, ON_EVENT, null, EventReceiver.DEFAULT_EVENT_RECEIVER_PRIORITY, 0);
+    }
+
+    private void notify(EventAction action, Object arg) {
+        EventIntent intent = new EventIntent(null, action, false);
+        intent.addArgs(arg);
+
+        mDispatcher.notifyEvent(intent);
+    }
+
+    @Test
+    public void lateReceiverGetsLastIntentsInOrder() {
+        EventAction action = new EventAction("EventReplayTest.last", 0, EventReplayPolicy.last(3));
+
+        for (int i = 0; i < 5; i++) {
+            notify(action, i);
+        }
+
+        Target target = new Target();
+        mDispatcher.addBinding(action, newReceiver(target));
+
+        assertEquals(3, target.args.size());
+        assertEquals(2, target.args.get(0));
+        assertEquals(3, target.args.get(1));
+        assertEquals(4, target.args.get(2));
+        assertTrue(target.allSticky);
+    }
+
+    @Test
+    public void liveIntentsAreNotReplayedAgain() {
+        EventAction action = new EventAction("EventReplayTest.live", 0, EventReplayPolicy.last(3));
+
+        Target target = new Target();
+        mDispatcher.addBinding(action, newReceiver(target));
+
+        notify(action, "a");
+        notify(action, "b");
+
+        Target lateTarget = new Target();
+        mDispatcher.addBinding(action, newReceiver(lateTarget));
+
+        assertEquals(2, target.args.size());
+        assertEquals(2, lateTarget.args.size());
+        assertEquals("a", lateTarget.args.get(0));
+        assertEquals("b", lateTarget.args.get(1));
+    }
+}
@@ -0,0 +1,195 @@
+package com.hydra.framework.event.core.helper;
+
+import com.hydra.framework.event.core.EventIntent;
+import com.hydra.framework.event.core.helper.EventClassIndex.FieldEntry;
+import com.hydra.framework.event.core.helper.EventClassIndex.MethodEntry;
+import com.hydra.framework.event.fw.FWEventActionKey;
+import com.hydra.framework.event.fw.FWEventAnnotation;
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import com.hydra.framework.event.kvo.KvoFieldAnnotation;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+import com.hydra.framework.event.kvo.KvoSource;
+import com.hydra.framework.event.kvo.list.KvoList;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Created by Hydra.
+ * 编译期生成的索引(testAnnotationProcessor)和反射的结果要一致：同样的函数/field、同样的注解参数
+ * 反射拿到的同一个类里的顺序不固定，同一个类里的按名字排序再比较，类之间还是从子类到父类
+ */
+public class EventClassIndexTest {
+
+    public static class Source extends KvoSource {
+
+        public static final String KVO_COUNT = "count";
+        public static final String KVO_TITLE = "title";
+        public static final String KVO_ITEMS = "items";
+
+        @KvoFieldAnnotation(name = KVO_COUNT)
+        public long count;
+
+        @KvoFieldAnnotation(name = KVO_TITLE, flag = 1)
+        private String title;
+
+        @KvoFieldAnnotation(name = KVO_ITEMS)
+        public final KvoList<String> items = new KvoList<>(this, KVO_ITEMS);
+
+        public int notAnnotated;
+    }
+
+    public static class BaseReceiver {
+
+        @KvoMethodAnnotation(name = Source.KVO_COUNT, sourceClass = Source.class, priority = 3)
+        public void onBaseCount(KvoEventIntent intent) {
+        }
+    }
+
+    public static class Receiver extends BaseReceiver {
+
+        @KvoMethodAnnotation(name = Source.KVO_TITLE, sourceClass = Source.class, thread = 1, flag = 2)
+        public void onTitle(KvoEventIntent intent) {
+        }
+
+        @KvoMethodAnnotation(name = Source.KVO_ITEMS, sourceClass = Source.class)
+        private void onItems(KvoEventIntent intent) {
+        }
+
+        @FWEventAnnotation(name = FWEventActionKey.FWAction_On_Login_Success, priority = 5)
+        public void onLogin(EventIntent intent) {
+        }
+
+        public void notAnnotated(KvoEventIntent intent) {
+        }
+    }
+
+    @Test
+    public void methodIndexMatchesReflection() {
+        EventClassIndex index = EventHelper.getClassIndex(Receiver.class);
+
+        assertNotNull("index not generated", index);
+
+        List<String> expected = new ArrayList<>();
+
+        for (Method method : EventHelper.getExcludeSystemMethods(Receiver.class)) {
+            Annotation annotation = eventAnnotationOf(method.getAnnotations());
+
+            if (annotation != null) {
+                expected.add(describe(method.getDeclaringClass(), method.getName() + "("
+                        + method.getParameterTypes()[0].getName() + ")", annotation));
+            }
+        }
+
+        List<String> actual = new ArrayList<>();
+
+        for (MethodEntry entry : index.methods()) {
+            actual.add(describe(entry.declaringClass, entry.name + "(" + entry.parameterType.getName() + ")",
+                    entry.annotation));
+
+            //按名字取回来的Method也是反射的那一个
+            assertEquals(entry.name, entry.method().getName());
+            assertEquals(entry.declaringClass, entry.method().getDeclaringClass());
+        }
+
+        assertEquals(4, actual.size());
+        assertEquals(sortWithinClass(expected), sortWithinClass(actual));
+    }
+
+    @Test
+    public void fieldIndexMatchesReflection() {
+        EventClassIndex index = EventHelper.getClassIndex(Source.class);
+
+        assertNotNull("index not generated", index);
+
+        List<String> expected = new ArrayList<>();
+
+        for (Field field : EventHelper.getExcludeSystemFields(Source.class)) {
+            KvoFieldAnnotation annotation = field.getAnnotation(KvoFieldAnnotation.class);
+
+            if (annotation != null) {
+                expected.add(describe(field.getDeclaringClass(), field.getName(), annotation));
+            }
+        }
+
+        List<String> actual = new ArrayList<>();
+
+        for (FieldEntry entry : index.fields()) {
+            actual.add(describe(entry.declaringClass, entry.name, entry.annotation));
+
+            assertEquals(entry.name, entry.field().getName());
+        }
+
+        assertEquals(3, actual.size());
+        assertEquals(sortWithinClass(expected), sortWithinClass(actual));
+    }
+
+    private static Annotation eventAnnotationOf(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof KvoMethodAnnotation || annotation instanceof FWEventAnnotation) {
+                return annotation;
+            }
+        }
+
+        return null;
+    }
+
+    //生成的注解是匿名类，没有equals，按注解的参数比
+    private static String describe(Class<?> declaringClass, String member, Annotation annotation) {
+        String attrs;
+
+        if (annotation instanceof KvoMethodAnnotation) {
+            KvoMethodAnnotation kvo = (KvoMethodAnnotation) annotation;
+
+            attrs = kvo.name() + "," + kvo.sourceClass().getName() + "," + kvo.thread() + "," + kvo.priority()
+                    + "," + kvo.flag();
+        } else if (annotation instanceof FWEventAnnotation) {
+            FWEventAnnotation fw = (FWEventAnnotation) annotation;
+
+            attrs = fw.name() + "," + fw.thread() + "," + fw.priority() + "," + fw.flag();
+        } else {
+            KvoFieldAnnotation field = (KvoFieldAnnotation) annotation;
+
+            attrs = field.name() + "," + field.flag();
+        }
+
+        return declaringClass.getName() + "#" + member + " @" + annotation.annotationType().getSimpleName()
+                + "(" + attrs + ")";
+    }
+
+    //类的顺序不变，同一个类里的按字符串排序
+    private static List<String> sortWithinClass(List<String> entries) {
+        List<String> sorted = new ArrayList<>();
+
+        int start = 0;
+
+        while (start < entries.size()) {
+            String owner = ownerOf(entries.get(start));
+
+            int end = start;
+
+            while (end < entries.size() && ownerOf(entries.get(end)).equals(owner)) {
+                end++;
+            }
+
+            List<String> group = new ArrayList<>(entries.subList(start, end));
+            Collections.sort(group);
+            sorted.addAll(group);
+
+            start = end;
+        }
+
+        return sorted;
+    }
+
+    private static String ownerOf(String entry) {
+        return entry.substring(0, entry.indexOf('#'));
+    }
+}
@@ -0,0 +1,187 @@
+package com.hydra.framework.event.kvo;
+
+import com.hydra.framework.event.core.EventAction;
+import com.hydra.framework.event.core.EventIntent;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Hydra.
+ * 新旧值存在intent的成员里以后，通过bundle读、或者拷贝出来的intent，还是要能拿到这些值
+ */
+public class KvoEventIntentTest {
+
+    private static final String OLD_VALUE_KEY = "kvo_old_value";
+    private static final String NEW_VALUE_KEY = "kvo_new_value";
+
+    private static KvoEventIntent newIntent() {
+        return new KvoEventIntent(null, new EventAction("KvoEventIntentTest"), false);
+    }
+
+    //和EventReceiverList.stickyIntent一样的拷贝方式
+    private static EventIntent stickyCopy(EventIntent source) {
+        EventIntent stickyIntent = new EventIntent(source.eventSender(), source.eventAction(), true);
+        stickyIntent.putBundle(source.eventBundle());
+
+        return stickyIntent;
+    }
+
+    @Test
+    public void objectValuesAreVisibleThroughBundle() {
+        KvoEventIntent intent = newIntent();
+        intent.setOldValue("old");
+        intent.setNewValue("new");
+
+        assertEquals("old", intent.getArgWithKey(OLD_VALUE_KEY));
+        assertEquals("new", intent.getArgWithKey(NEW_VALUE_KEY));
+
+        assertEquals("old", intent.arg1());
+        assertEquals("new", intent.arg2());
+    }
+
+    @Test
+    public void stickyCopyKeepsObjectValues() {
+        KvoEventIntent intent = newIntent();
+        intent.setOldValue("old");
+        intent.setNewValue("new");
+
+        EventIntent copy = stickyCopy(intent);
+
+        assertEquals("old", copy.getArgWithKey(OLD_VALUE_KEY));
+        assertEquals("new", copy.getArgWithKey(NEW_VALUE_KEY));
+    }
+
+    @Test
+    public void stickyCopyKeepsPrimitiveValues() {
+        KvoEventIntent intent = newIntent();
+        intent.setLongValues(1L, 2L);
+
+        EventIntent copy = stickyCopy(intent);
+
+        assertEquals(Long.valueOf(1L), copy.getArgWithKey(OLD_VALUE_KEY));
+        assertEquals(Long.valueOf(2L), copy.getArgWithKey(NEW_VALUE_KEY));
+    }
+
+    @Test
+    public void copyIntoKvoIntentKeepsValues() {
+        KvoEventIntent intent = newIntent();
+        intent.setIntValues(3, 4);
+
+        KvoEventIntent copy = new KvoEventIntent(null, intent.eventAction(), true);
+        copy.putBundle(intent.eventBundle());
+
+        assertEquals(Integer.valueOf(3), copy.oldValue());
+        assertEquals(4, copy.newInt());
+    }
+
+    @Test
+    public void valuesSetAfterBundleSyncAreWrittenThrough() {
+        KvoEventIntent intent = newIntent();
+        intent.setNewValue("first");
+
+        intent.eventBundle();
+
+        intent.setNewValue("second");
+
+        assertEquals("second", intent.getArgWithKey(NEW_VALUE_KEY));
+        assertNull(intent.getArgWithKey(OLD_VALUE_KEY));
+    }
+
+    @Test
+    public void otherArgsDoNotHideKvoValues() {
+        KvoEventIntent intent = newIntent();
+        intent.putArg("range", 1);
+        intent.setNewValue("new");
+
+        assertEquals("new", intent.getArgWithKey(NEW_VALUE_KEY));
+
+        EventIntent copy = stickyCopy(intent);
+
+        assertEquals(1, (int) copy.<Integer>getArgWithKey("range"));
+        assertEquals("new", copy.getArgWithKey(NEW_VALUE_KEY));
+    }
+
+    @Test
+    public void boxedPrimitiveIsCached() {
+        KvoEventIntent intent = newIntent();
+        intent.setIntValues(1000, 2000);
+
+        assertSame(intent.newValue(), intent.newValue());
+        assertSame(intent.oldValue(), intent.oldValue());
+    }
+
+    @Test
+    public void longValuesReadAsOtherTypes() {
+        KvoEventIntent intent = newIntent();
+        intent.setLongValues(1L, 5L);
+
+        assertEquals(5.0, intent.newDouble(), 0);
+        assertEquals(1.0, intent.oldDouble(), 0);
+        assertEquals(5, intent.newInt());
+        assertTrue(intent.newBoolean());
+    }
+
+    @Test
+    public void doubleValuesReadAsOtherTypes() {
+        KvoEventIntent intent = newIntent();
+        intent.setDoubleValues(0.0, 2.7);
+
+        assertEquals(2L, intent.newLong());
+        assertEquals(2, intent.newInt());
+        assertEquals(0L, intent.oldLong());
+        assertTrue(intent.newBoolean());
+        assertFalse(intent.oldBoolean());
+    }
+
+    @Test
+    public void intAndBooleanValuesReadAsOtherTypes() {
+        KvoEventIntent intent = newIntent();
+        intent.setIntValues(-3, 7);
+
+        assertEquals(7.0, intent.newDouble(), 0);
+        assertEquals(-3L, intent.oldLong());
+
+        intent.setBooleanValues(false, true);
+
+        assertEquals(1, intent.newInt());
+        assertEquals(0L, intent.oldLong());
+        assertEquals(1.0, intent.newDouble(), 0);
+    }
+
+    @Test
+    public void objectValuesReadAsPrimitives() {
+        KvoEventIntent intent = newIntent();
+        intent.setOldValue(1.5);
+        intent.setNewValue(4L);
+
+        assertEquals(4.0, intent.newDouble(), 0);
+        assertEquals(1L, intent.oldLong());
+    }
+
+    //KvoList的通知先set新旧值再put range/type，读的时候还是要和原来一样：from/old/new在最前面
+    @Test
+    public void kvoArgsKeepLeadingPositions() {
+        KvoEventIntent intent = newIntent();
+        intent.setOldValue("old");
+        intent.setNewValue("new");
+        intent.putArg("range", 1);
+        intent.putArg("type", 2);
+
+        assertNull(intent.arg0());
+        assertEquals("old", intent.arg1());
+        assertEquals("new", intent.arg2());
+        assertEquals(1, (int) intent.<Integer>getArgWithIndex(3));
+        assertEquals(2, (int) intent.<Integer>getArgWithIndex(4));
+
+        EventIntent copy = stickyCopy(intent);
+
+        assertEquals("old", copy.arg1());
+        assertEquals("new", copy.arg2());
+        assertEquals(1, (int) copy.<Integer>getArgWithIndex(3));
+    }
+}
@@ -0,0 +1,115 @@
+package com.hydra.framework.event.kvo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Hydra.
+ * batch里setLong/setBoolean这些按位记下来的，commit时每个field只通知一次，新旧值要对
+ */
+public class KvoSourceBatchTest {
+
+    public static class Source extends KvoSource {
+        public static final String kvo_count = "count";
+        @KvoFieldAnnotation(name = kvo_count)
+        public long count = 0L;
+
+        public static final String kvo_enabled = "enabled";
+        @KvoFieldAnnotation(name = kvo_enabled)
+        public boolean enabled = false;
+
+        public static final String kvo_ratio = "ratio";
+        @KvoFieldAnnotation(name = kvo_ratio)
+        public double ratio = 0D;
+    }
+
+    public static class Receiver {
+        final List<KvoEventIntent> counts = new ArrayList<>();
+        final List<KvoEventIntent> enables = new ArrayList<>();
+        final List<KvoEventIntent> ratios = new ArrayList<>();
+
+        @KvoMethodAnnotation(name = Source.kvo_count, sourceClass = Source.class)
+        public void onCount(KvoEventIntent intent) {
+            counts.add(intent);
+        }
+
+        @KvoMethodAnnotation(name = Source.kvo_enabled, sourceClass = Source.class)
+        public void onEnabled(KvoEventIntent intent) {
+            enables.add(intent);
+        }
+
+        @KvoMethodAnnotation(name = Source.kvo_ratio, sourceClass = Source.class)
+        public void onRatio(KvoEventIntent intent) {
+            ratios.add(intent);
+        }
+
+        void clear() {
+            counts.clear();
+            enables.clear();
+            ratios.clear();
+        }
+    }
+
+    private Source mSource;
+    private Receiver mReceiver;
+
+    @Before
+    public void setUp() {
+        mSource = new Source();
+        mReceiver = new Receiver();
+
+        Kvo.autoBindingTo(mSource, mReceiver);
+
+        //绑定时的初始通知不算
+        mReceiver.clear();
+    }
+
+    @Test
+    public void primitiveChangesAreMergedInBatch() {
+        mSource.batch(() -> {
+            mSource.setLong(Source.kvo_count, 1L);
+            mSource.setLong(Source.kvo_count, 5L);
+            mSource.setDouble(Source.kvo_ratio, 0.5);
+
+            assertTrue(mReceiver.counts.isEmpty());
+        });
+
+        assertEquals(1, mReceiver.counts.size());
+        assertEquals(0L, mReceiver.counts.get(0).oldLong());
+        assertEquals(5L, mReceiver.counts.get(0).newLong());
+        assertEquals(5L, (long) mReceiver.counts.get(0).<Long>newValue());
+
+        assertEquals(1, mReceiver.ratios.size());
+        assertEquals(0.5, mReceiver.ratios.get(0).newDouble(), 0);
+    }
+
+    @Test
+    public void primitiveChangedBackIsNotNotified() {
+        mSource.batch(() -> {
+            mSource.setBoolean(Source.kvo_enabled, true);
+            mSource.setBoolean(Source.kvo_enabled, false);
+        });
+
+        assertTrue(mReceiver.enables.isEmpty());
+        assertFalse(mSource.enabled);
+    }
+
+    @Test
+    public void manualNotifyAndPrimitiveSetInSameBatch() {
+        mSource.batch(() -> {
+            mSource.notifyKvoEvent(Source.kvo_count);
+            mSource.setLong(Source.kvo_count, 3L);
+        });
+
+        assertEquals(1, mReceiver.counts.size());
+        assertEquals(0L, mReceiver.counts.get(0).oldLong());
+        assertEquals(3L, mReceiver.counts.get(0).newLong());
+    }
+}
@@ -0,0 +1,181 @@
+package com.hydra.framework.event.kvo.list;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Created by Hydra.
+ * ChunkedArrayList和ArrayList一样可以多个线程同时读；snapshot拿走以后list怎么改都不影响它
+ */
+public class ChunkedArrayListTest {
+
+    private static final int SIZE = 20000;
+
+    private static ChunkedArrayList<Integer> newList(int size) {
+        ChunkedArrayList<Integer> list = new ChunkedArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+
+        return list;
+    }
+
+    @Test
+    public void concurrentReadersSeeTheRightItems() throws InterruptedException {
+        final ChunkedArrayList<Integer> list = newList(SIZE);
+
+        final int threadCount = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < threadCount; t++) {
+            final long seed = t;
+
+            Thread thread = new Thread(() -> {
+                Random random = new Random(seed);
+
+                try {
+                    start.await();
+
+                    for (int i = 0; i < 500000; i++) {
+                        //一半顺序读，一半随机跳，让每个线程不停地换块
+                        int index = (i & 1) == 0 ? i % SIZE : random.nextInt(SIZE);
+
+                        int value = list.get(index);
+
+                        if (value != index) {
+                            throw new AssertionError("get(" + index + ") returned " + value);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        start.countDown();
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+    }
+
+    @Test
+    public void snapshotIsNotAffectedByLaterWrites() {
+        ChunkedArrayList<Integer> list = newList(1000);
+
+        KvoListSnapshot<Integer> snapshot = list.snapshot();
+
+        list.set(10, -1);
+        list.add(500, -2);
+        list.remove(0);
+        list.subList(700, 900).clear();
+        list.add(-3);
+
+        assertEquals(1000, snapshot.size());
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) snapshot.get(i));
+        }
+
+        List<Integer> expected = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            expected.add(i);
+        }
+
+        expected.set(10, -1);
+        expected.add(500, -2);
+        expected.remove(0);
+        expected.subList(700, 900).clear();
+        expected.add(-3);
+
+        assertEquals(expected, list);
+        assertEquals(expected, new ArrayList<>(list.snapshot()));
+    }
+
+    @Test
+    public void snapshotIsReusedUntilTheNextWrite() {
+        ChunkedArrayList<Integer> list = newList(100);
+
+        KvoListSnapshot<Integer> snapshot = list.snapshot();
+
+        assertSame(snapshot, list.snapshot());
+
+        list.set(0, 1);
+
+        assertNotSame(snapshot, list.snapshot());
+        assertEquals(0, (int) snapshot.get(0));
+    }
+
+    @Test
+    public void randomEditsMatchArrayList() {
+        Random random = new Random(7);
+
+        ChunkedArrayList<Integer> list = new ChunkedArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+
+        List<KvoListSnapshot<Integer>> snapshots = new ArrayList<>();
+        List<List<Integer>> snapshotCopies = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            int size = expected.size();
+
+            switch (random.nextInt(6)) {
+                case 0:
+                case 1:
+                    int addAt = random.nextInt(size + 1);
+                    list.add(addAt, i);
+                    expected.add(addAt, i);
+                    break;
+                case 2:
+                    if (size > 0) {
+                        int removeAt = random.nextInt(size);
+                        assertEquals(expected.remove(removeAt), list.remove(removeAt));
+                    }
+                    break;
+                case 3:
+                    if (size > 0) {
+                        int setAt = random.nextInt(size);
+                        assertEquals(expected.set(setAt, -i), list.set(setAt, -i));
+                    }
+                    break;
+                case 4:
+                    if (size > 0) {
+                        int index = random.nextInt(size);
+                        assertEquals(expected.get(index), list.get(index));
+                    }
+                    break;
+                default:
+                    if (snapshots.size() < 20) {
+                        snapshots.add(list.snapshot());
+                        snapshotCopies.add(new ArrayList<>(expected));
+                    }
+                    break;
+            }
+        }
+
+        assertEquals(expected, list);
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(snapshotCopies.get(i), new ArrayList<>(snapshots.get(i)));
+        }
+    }
+}
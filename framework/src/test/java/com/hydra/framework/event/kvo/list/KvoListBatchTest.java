@@ -0,0 +1,112 @@
+package com.hydra.framework.event.kvo.list;
+
+import com.hydra.framework.event.kvo.Kvo;
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import com.hydra.framework.event.kvo.KvoFieldAnnotation;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+import com.hydra.framework.event.kvo.KvoSource;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChange;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType;
+import com.hydra.framework.event.kvo.list.KvoListHelper.NSRange;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by Hydra.
+ * batch里的多个变更：默认每个单独通知，老receiver照样能处理；setChangesNotifyEnabled的才合成一个Changes
+ */
+public class KvoListBatchTest {
+
+    public static class Source extends KvoSource {
+
+        public static final String KVO_LIST = "list";
+
+        @KvoFieldAnnotation(name = KVO_LIST)
+        public final KvoList<Integer> list = new KvoList<>(this, KVO_LIST);
+    }
+
+    /**
+     * 按通知在自己的拷贝上改，只认Insert/Remove
+     */
+    public static class Receiver {
+
+        final List<Integer> mirror = new ArrayList<>();
+
+        final List<KvoListChangeType> types = new ArrayList<>();
+
+        List<KvoListChange> changes;
+
+        @KvoMethodAnnotation(name = Source.KVO_LIST, sourceClass = Source.class)
+        public void onListChanged(KvoEventIntent intent) {
+            List<Integer> list = intent.newValue();
+
+            if (intent.isStickyNotify()) {
+                mirror.clear();
+                mirror.addAll(list);
+                return;
+            }
+
+            KvoListChangeType type = KvoListHelper.getNotifyType(intent);
+            NSRange range = KvoListHelper.getNotifyRange(intent);
+
+            types.add(type);
+
+            if (type == KvoListChangeType.KvoEventArg_Type_Remove) {
+                mirror.subList(range.position, range.position + range.length).clear();
+            } else if (type == KvoListChangeType.KvoEventArg_Type_Insert) {
+                //list已经是batch做完以后的内容，插入的item按最后的内容取，这个例子里插入的位置后面没有再变
+                mirror.addAll(range.position, list.subList(range.position, range.position + range.length));
+            } else if (type == KvoListChangeType.KvoEventArg_Type_Changes) {
+                changes = KvoListHelper.getNotifyChanges(intent);
+            }
+        }
+    }
+
+    private Source mSource;
+
+    private Receiver mReceiver;
+
+    @Before
+    public void setup() {
+        mSource = new Source();
+        mSource.list.wrappedList().addAll(Arrays.asList(0, 1, 2, 3, 4));
+
+        mReceiver = new Receiver();
+
+        Kvo.autoBindingTo(mSource, mReceiver);
+    }
+
+    private void removeAndAppend() {
+        mSource.list.batch(() -> {
+            mSource.list.remove(0);
+            mSource.list.add(5);
+        });
+    }
+
+    @Test
+    public void batchNotifiesEachChangeByDefault() {
+        removeAndAppend();
+
+        assertEquals(Arrays.asList(KvoListChangeType.KvoEventArg_Type_Remove,
+                KvoListChangeType.KvoEventArg_Type_Insert), mReceiver.types);
+        assertEquals(mSource.list.wrappedList(), mReceiver.mirror);
+    }
+
+    @Test
+    public void batchNotifiesChangesWhenEnabled() {
+        mSource.list.setChangesNotifyEnabled(true);
+
+        removeAndAppend();
+
+        assertEquals(Arrays.asList(KvoListChangeType.KvoEventArg_Type_Changes), mReceiver.types);
+        assertEquals(Arrays.asList(
+                new KvoListChange(KvoListChangeType.KvoEventArg_Type_Remove, new NSRange(0, 1)),
+                new KvoListChange(KvoListChangeType.KvoEventArg_Type_Insert, new NSRange(4, 1))).toString(),
+                mReceiver.changes.toString());
+    }
+}
@@ -0,0 +1,113 @@
+package com.hydra.framework.event.kvo.list;
+
+import com.hydra.framework.event.kvo.Kvo;
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import com.hydra.framework.event.kvo.KvoFieldAnnotation;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+import com.hydra.framework.event.kvo.KvoSource;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Created by Hydra.
+ * 后台算好的diff，set的时候list没被改过的按diff通知，改过的(即使大小没变)要退回Reload
+ */
+public class KvoListDiffTest {
+
+    public static class Source extends KvoSource {
+
+        public static final String KVO_LIST = "list";
+
+        @KvoFieldAnnotation(name = KVO_LIST)
+        public final KvoList<String> list = new KvoList<>(this, KVO_LIST);
+    }
+
+    public static class Receiver {
+
+        final List<KvoListChangeType> types = new ArrayList<>();
+
+        @KvoMethodAnnotation(name = Source.KVO_LIST, sourceClass = Source.class)
+        public void onListChanged(KvoEventIntent intent) {
+            if (!intent.isStickyNotify()) {
+                types.add(KvoListHelper.getNotifyType(intent));
+            }
+        }
+    }
+
+    private static final List<String> NEW_LIST = Arrays.asList("a", "x", "c", "d");
+
+    private Source mSource;
+
+    private Receiver mReceiver;
+
+    @Before
+    public void setup() {
+        mSource = new Source();
+        mSource.list.wrappedList().addAll(Arrays.asList("a", "b", "c"));
+
+        mReceiver = new Receiver();
+
+        Kvo.autoBindingTo(mSource, mReceiver);
+    }
+
+    @Test
+    public void diffFromSnapshotIsApplied() {
+        KvoListDiff diff = KvoListDiff.calculate(mSource.list.snapshot(), NEW_LIST, null);
+
+        mSource.list.set(NEW_LIST, diff);
+
+        assertEquals(NEW_LIST, mSource.list.wrappedList());
+        assertFalse(mReceiver.types.isEmpty());
+        assertFalse(mReceiver.types.contains(KvoListChangeType.KvoEventArg_Type_Reload));
+    }
+
+    @Test
+    public void staleDiffWithSameSizeReloads() {
+        KvoListDiff diff = KvoListDiff.calculate(mSource.list.snapshot(), NEW_LIST, null);
+
+        //大小没变，只看大小的话看不出来
+        mSource.list.set(1, "y");
+        mReceiver.types.clear();
+
+        mSource.list.set(NEW_LIST, diff);
+
+        assertEquals(NEW_LIST, mSource.list.wrappedList());
+        assertEquals(Arrays.asList(KvoListChangeType.KvoEventArg_Type_Reload), mReceiver.types);
+    }
+
+    @Test
+    public void staleDiffForWrappedListReloads() {
+        KvoListDiff diff = KvoListDiff.calculate(mSource.list.snapshot(), NEW_LIST, null);
+
+        mSource.list.move(0, 2);
+        mReceiver.types.clear();
+
+        mSource.list.setWrappedList(new ArrayList<>(NEW_LIST), diff);
+
+        assertEquals(Arrays.asList(KvoListChangeType.KvoEventArg_Type_Reload), mReceiver.types);
+    }
+
+    @Test
+    public void snapshotIsReusedOnlyWhileUnmodified() {
+        KvoList<String> list = new KvoList<>(mSource, Source.KVO_LIST, true);
+
+        list.add("a");
+
+        KvoListSnapshot<String> snapshot = list.snapshot();
+
+        assertSame(snapshot, list.snapshot());
+
+        list.add("b");
+
+        assertNotSame(snapshot, list.snapshot());
+    }
+}
@@ -0,0 +1,182 @@
+package com.hydra.framework.event.kvo.list;
+
+import com.hydra.framework.event.core.IEventThread;
+import com.hydra.framework.event.kvo.Kvo;
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import com.hydra.framework.event.kvo.KvoFieldAnnotation;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+import com.hydra.framework.event.kvo.KvoSource;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChange;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType;
+import com.hydra.framework.event.kvo.list.KvoListHelper.NSRange;
+import com.hydra.framework.event.utils.EventUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by Hydra.
+ * post进来的修改按顺序执行，连着的postAdd合成一次addAll，一批最多MAX_DRAIN_COUNT个，剩下的再post一次
+ * 用一个手动执行的线程，post的drain先攒着，测试里自己调
+ */
+public class KvoListMutationQueueTest {
+
+    public static class Source extends KvoSource {
+
+        public static final String KVO_LIST = "list";
+
+        @KvoFieldAnnotation(name = KVO_LIST)
+        public final KvoList<Integer> list = new KvoList<>(this, KVO_LIST);
+
+        public static final String KVO_FAILING_LIST = "failingList";
+
+        //addAll一次抛一次异常
+        @KvoFieldAnnotation(name = KVO_FAILING_LIST)
+        public final KvoList<Integer> failingList = new KvoList<>(this, KVO_FAILING_LIST, new ArrayList<Integer>() {
+            private boolean mFailed;
+
+            @Override
+            public boolean addAll(Collection<? extends Integer> c) {
+                if (!mFailed) {
+                    mFailed = true;
+                    throw new IllegalStateException("addAll failed");
+                }
+
+                return super.addAll(c);
+            }
+        });
+    }
+
+    public static class Receiver {
+
+        final List<KvoListChange> changes = new ArrayList<>();
+
+        @KvoMethodAnnotation(name = Source.KVO_LIST, sourceClass = Source.class)
+        public void onListChanged(KvoEventIntent intent) {
+            if (!intent.isStickyNotify()) {
+                changes.add(new KvoListChange(KvoListHelper.getNotifyType(intent), KvoListHelper.getNotifyRange(intent)));
+            }
+        }
+    }
+
+    private static class ManualThread implements IEventThread {
+
+        final List<Runnable> posted = new ArrayList<>();
+
+        @Override
+        public boolean post(Runnable r) {
+            posted.add(r);
+            return true;
+        }
+
+        void runAll() {
+            while (!posted.isEmpty()) {
+                posted.remove(0).run();
+            }
+        }
+    }
+
+    private Source mSource;
+
+    private Receiver mReceiver;
+
+    private ManualThread mThread;
+
+    @Before
+    public void setup() {
+        EventUtils.sIsDebuggable = false;
+
+        mSource = new Source();
+        mThread = new ManualThread();
+
+        mSource.list.setMutationThread(mThread);
+        mSource.failingList.setMutationThread(mThread);
+
+        mReceiver = new Receiver();
+
+        Kvo.autoBindingTo(mSource, mReceiver);
+    }
+
+    @Test
+    public void mutationsKeepPostOrder() {
+        mSource.list.postAdd(1);
+        mSource.list.postAddAll(Arrays.asList(2, 3));
+        mSource.list.post(list -> list.remove(0));
+        mSource.list.postAdd(4);
+        mSource.list.post(list -> list.add(0, 0));
+
+        mThread.runAll();
+
+        assertEquals(Arrays.asList(0, 2, 3, 4), mSource.list.wrappedList());
+    }
+
+    @Test
+    public void appendsAreCoalesced() {
+        List<Integer> items = new ArrayList<>(Arrays.asList(2, 3));
+
+        mSource.list.postAdd(1);
+        mSource.list.postAddAll(items);
+        mSource.list.postAdd(4);
+
+        //postAddAll时拷贝过了，之后改不影响
+        items.clear();
+
+        //队列里有东西时只post一个drain
+        assertEquals(1, mThread.posted.size());
+
+        mThread.runAll();
+
+        assertEquals(Arrays.asList(1, 2, 3, 4), mSource.list.wrappedList());
+        assertEquals(Arrays.asList(
+                new KvoListChange(KvoListChangeType.KvoEventArg_Type_Insert, new NSRange(0, 4))).toString(),
+                mReceiver.changes.toString());
+    }
+
+    @Test
+    public void overMaxDrainCountIsPostedAgain() {
+        int count = KvoListMutationQueue.MAX_DRAIN_COUNT + 1;
+
+        for (int i = 0; i < count; i++) {
+            int item = i;
+
+            mSource.list.post(list -> list.add(item));
+        }
+
+        assertEquals(1, mThread.posted.size());
+
+        mThread.posted.remove(0).run();
+
+        assertEquals(KvoListMutationQueue.MAX_DRAIN_COUNT, mSource.list.size());
+        assertEquals(1, mThread.posted.size());
+
+        mThread.runAll();
+
+        assertEquals(count, mSource.list.size());
+        assertEquals(count - 1, (int) mSource.list.get(count - 1));
+    }
+
+    @Test
+    public void failedAppendDoesNotStopTheQueue() {
+        mSource.failingList.postAdd(1);
+        mSource.failingList.post(list -> list.add(2));
+
+        mThread.runAll();
+
+        //合并的addAll失败了，后面的修改照样执行
+        assertEquals(Arrays.asList(2), mSource.failingList.wrappedList());
+
+        //drain的标志清掉了，之后post的还能执行
+        mSource.failingList.postAdd(3);
+
+        assertEquals(1, mThread.posted.size());
+
+        mThread.runAll();
+
+        assertEquals(Arrays.asList(2, 3), mSource.failingList.wrappedList());
+    }
+}
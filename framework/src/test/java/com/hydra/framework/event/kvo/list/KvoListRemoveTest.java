@@ -0,0 +1,94 @@
+package com.hydra.framework.event.kvo.list;
+
+import com.hydra.framework.event.kvo.Kvo;
+import com.hydra.framework.event.kvo.KvoEventIntent;
+import com.hydra.framework.event.kvo.KvoFieldAnnotation;
+import com.hydra.framework.event.kvo.KvoMethodAnnotation;
+import com.hydra.framework.event.kvo.KvoSource;
+import com.hydra.framework.event.kvo.list.KvoListHelper.KvoListChangeType;
+import com.hydra.framework.event.kvo.list.KvoListHelper.NSRange;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by Hydra.
+ * 只认Remove的老receiver：removeAll/retainAll不在batch里时，每一段删除还是单独一个Remove通知
+ */
+public class KvoListRemoveTest {
+
+    public static class Source extends KvoSource {
+
+        public static final String KVO_LIST = "list";
+
+        @KvoFieldAnnotation(name = KVO_LIST)
+        public final KvoList<Integer> list = new KvoList<>(this, KVO_LIST);
+    }
+
+    /**
+     * 按通知在自己的拷贝上删，只处理Remove，别的类型(包括Changes)都不认
+     */
+    public static class RemoveOnlyReceiver {
+
+        final List<Integer> mirror = new ArrayList<>();
+
+        int removeCount;
+        int otherCount;
+
+        @KvoMethodAnnotation(name = Source.KVO_LIST, sourceClass = Source.class)
+        public void onListChanged(KvoEventIntent intent) {
+            if (intent.isStickyNotify()) {
+                mirror.clear();
+                mirror.addAll(intent.<List<Integer>>newValue());
+                return;
+            }
+
+            if (KvoListHelper.getNotifyType(intent) != KvoListChangeType.KvoEventArg_Type_Remove) {
+                otherCount++;
+                return;
+            }
+
+            NSRange range = KvoListHelper.getNotifyRange(intent);
+
+            mirror.subList(range.position, range.position + range.length).clear();
+
+            removeCount++;
+        }
+    }
+
+    private Source mSource;
+
+    private RemoveOnlyReceiver mReceiver;
+
+    @Before
+    public void setup() {
+        mSource = new Source();
+        mSource.list.wrappedList().addAll(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+
+        mReceiver = new RemoveOnlyReceiver();
+
+        Kvo.autoBindingTo(mSource, mReceiver);
+    }
+
+    @Test
+    public void removeAllNotifiesEachRange() {
+        mSource.list.removeAll(Arrays.asList(1, 2, 5, 8, 9));
+
+        assertEquals(3, mReceiver.removeCount);
+        assertEquals(0, mReceiver.otherCount);
+        assertEquals(mSource.list.wrappedList(), mReceiver.mirror);
+    }
+
+    @Test
+    public void retainAllNotifiesEachRange() {
+        mSource.list.retainAll(Arrays.asList(3, 4, 7));
+
+        assertEquals(3, mReceiver.removeCount);
+        assertEquals(0, mReceiver.otherCount);
+        assertEquals(mSource.list.wrappedList(), mReceiver.mirror);
+    }
+}